@@ -0,0 +1,98 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Renders text and coloured guesses for a terminal into one reusable buffer.
+ *
+ * Output is collected until {@link #flush()}, which writes it with a single call, so a turn
+ * of the text front end reaches the terminal at once instead of line by line. Guesses are
+ * coloured with ANSI escape sequences looked up by {@link FeedbackCode} colour; rendering
+ * does not allocate once the buffer has grown to the size of a turn.
+ */
+public final class AnsiRenderer {
+    private static final String RESET = "\u001B[0m";
+    /** Escape sequences by FeedbackCode colour: gray, orange (shown red), green. */
+    private static final String[] COLORS = {"\u001B[90m", "\u001B[91m", "\u001B[92m"};
+
+    private final Writer out;
+    private final StringBuilder buffer = new StringBuilder(1024);
+    private char[] chars = new char[1024];
+
+    /**
+     * Creates a renderer.
+     *
+     * @param out Where flushed output goes.
+     */
+    public AnsiRenderer(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Appends text.
+     *
+     * @param text The text.
+     * @return This renderer.
+     */
+    public AnsiRenderer text(CharSequence text) {
+        buffer.append(text);
+        return this;
+    }
+
+    /**
+     * Appends text and a line separator.
+     *
+     * @param text The text.
+     * @return This renderer.
+     */
+    public AnsiRenderer line(CharSequence text) {
+        buffer.append(text).append(System.lineSeparator());
+        return this;
+    }
+
+    /**
+     * Appends a guess with every symbol in its feedback colour, followed by a space.
+     *
+     * @param guess The guess.
+     * @param code  The feedback code of the guess.
+     * @return This renderer.
+     */
+    public AnsiRenderer guess(CharSequence guess, int code) {
+        for (int i = 0; i < guess.length(); i++) {
+            int color = code % 3;
+            code /= 3;
+            buffer.append(COLORS[color]).append(guess.charAt(i)).append(RESET).append(' ');
+        }
+        return this;
+    }
+
+    /**
+     * Returns the number of characters appended since the last flush.
+     *
+     * @return The number of pending characters.
+     */
+    public int pending() {
+        return buffer.length();
+    }
+
+    /**
+     * Writes everything appended since the last flush with a single write.
+     *
+     * @throws UncheckedIOException If the output cannot be written.
+     */
+    public void flush() {
+        int length = buffer.length();
+        if (chars.length < length) {
+            chars = new char[Math.max(length, chars.length * 2)];
+        }
+        buffer.getChars(0, length, chars, 0);
+        try {
+            out.write(chars, 0, length);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            buffer.setLength(0);
+        }
+    }
+}
@@ -0,0 +1,281 @@
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Game logger that hands records to a background thread.
+ *
+ * Records go into a bounded ring buffer. A single daemon thread drains it in batches and
+ * passes each batch to a {@link Sink}. The text sink formats a batch into one block and
+ * writes that block with a single call, so the console or file lock is taken once per batch
+ * instead of once per character; {@link GameJournal} appends a batch to its segment with one
+ * write. When the buffer is full, the {@link OverflowPolicy} decides whether the caller waits
+ * or the record is dropped and counted.
+ */
+public class AsyncGameLogger implements GameLogger {
+    /** What {@link #log(GameLogRecord)} does when the buffer is full. */
+    public enum OverflowPolicy {
+        /** Discard the record and count it; the caller never waits. */
+        DROP,
+        /** Wait until the writer thread has made room. */
+        BLOCK
+    }
+
+    /**
+     * Destination of the batches the writer thread drains. Only the writer thread calls it.
+     */
+    public interface Sink {
+        /**
+         * Writes a batch of records.
+         *
+         * @param batch The records, in the order they were logged.
+         * @throws IOException If the records cannot be written.
+         */
+        void write(List<GameLogRecord> batch) throws IOException;
+
+        /**
+         * Releases the sink after the last batch has been written.
+         *
+         * @throws IOException If the sink cannot be closed cleanly.
+         */
+        default void close() throws IOException {
+        }
+    }
+
+    /** Default number of records the buffer holds. */
+    public static final int DEFAULT_CAPACITY = 8192;
+    private static final int MAX_BATCH = 512;
+    /** Queued by {@link #close()} to wake the writer; never written. */
+    private static final GameLogRecord WAKE_UP = GameLogRecord.gameStarted(0, null);
+
+    private final ArrayBlockingQueue<GameLogRecord> buffer;
+    private final OverflowPolicy policy;
+    private final Sink sink;
+    private final Thread writer;
+    private final LongAdder dropped = new LongAdder();
+    private final AtomicLong enqueued = new AtomicLong();
+    private final Object writtenLock = new Object();
+    /** Records the writer has finished with, written or not; guarded by writtenLock. */
+    private long handled;
+    /** Batches the sink failed to write, and how many of them flush has reported. */
+    private long failedBatches;
+    private long reportedFailures;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private static final class DefaultHolder {
+        private static final AsyncGameLogger DEFAULT = createDefault();
+    }
+
+    /**
+     * Creates a logger and starts its writer thread.
+     *
+     * @param out      Where the records are written, one per line.
+     * @param capacity The number of records the buffer holds.
+     * @param policy   What to do when the buffer is full.
+     * @pre capacity > 0
+     */
+    public AsyncGameLogger(Writer out, int capacity, OverflowPolicy policy) {
+        this(new TextSink(out), capacity, policy);
+    }
+
+    /**
+     * Creates a logger writing to the given sink and starts its writer thread.
+     *
+     * @param sink     Where the batches are written.
+     * @param capacity The number of records the buffer holds.
+     * @param policy   What to do when the buffer is full.
+     * @pre capacity > 0
+     */
+    public AsyncGameLogger(Sink sink, int capacity, OverflowPolicy policy) {
+        this.sink = sink;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.policy = policy;
+        this.writer = new Thread(this::drain, "game-logger");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Returns the logger models use by default: standard output, dropping records rather than
+     * slowing games down. Pending records are written when the JVM exits.
+     *
+     * @return The shared console logger.
+     */
+    public static AsyncGameLogger getDefault() {
+        return DefaultHolder.DEFAULT;
+    }
+
+    private static AsyncGameLogger createDefault() {
+        AsyncGameLogger logger = new AsyncGameLogger(new OutputStreamWriter(System.out, StandardCharsets.UTF_8),
+                DEFAULT_CAPACITY, OverflowPolicy.DROP);
+        Runtime.getRuntime().addShutdownHook(new Thread(logger::close, "game-logger-shutdown"));
+        return logger;
+    }
+
+    @Override
+    public void log(GameLogRecord record) {
+        if (closed.get()) {
+            dropped.increment();
+            return;
+        }
+        if (policy == OverflowPolicy.DROP) {
+            if (buffer.offer(record)) {
+                accepted(record);
+            } else {
+                dropped.increment();
+            }
+            return;
+        }
+        try {
+            buffer.put(record);
+            accepted(record);
+        } catch (InterruptedException e) {
+            dropped.increment();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Counts a record once it is in the buffer. If the logger was closed meanwhile, the
+     * writer may already have drained the buffer for the last time, so the record is taken
+     * back and dropped, unless the writer got to it first.
+     */
+    private void accepted(GameLogRecord record) {
+        if (closed.get() && buffer.remove(record)) {
+            dropped.increment();
+        } else {
+            enqueued.incrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the number of records that were not written because the buffer was full, the
+     * logger was closed, or the sink failed to write them.
+     *
+     * @return The number of dropped records.
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Waits until the writer has finished with every record logged so far.
+     *
+     * @param timeoutMillis How long to wait at most.
+     * @return True if the buffer was emptied in time and no batch failed to be written since
+     *         the previous flush; the records of a failed batch are counted as dropped.
+     */
+    public boolean flush(long timeoutMillis) {
+        long target = enqueued.get();
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (writtenLock) {
+            while (handled < target) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                try {
+                    writtenLock.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            boolean written = failedBatches == reportedFailures;
+            reportedFailures = failedBatches;
+            return written;
+        }
+    }
+
+    /**
+     * Stops accepting records, writes the pending ones and stops the writer thread. Calling
+     * it again, from any thread, only waits for the writer.
+     */
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            // Not interrupted: an interrupt would close a FileChannel the sink is writing to.
+            // If the buffer is full the writer is not waiting and sees the flag.
+            buffer.offer(WAKE_UP);
+        }
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drain() {
+        List<GameLogRecord> batch = new ArrayList<>(MAX_BATCH);
+        while (!closed.get() || !buffer.isEmpty()) {
+            try {
+                GameLogRecord first = closed.get() ? buffer.poll() : buffer.take();
+                if (first != null && first != WAKE_UP) {
+                    batch.add(first);
+                }
+            } catch (InterruptedException e) {
+                continue;
+            }
+            buffer.drainTo(batch, MAX_BATCH - batch.size());
+            batch.remove(WAKE_UP);
+            write(batch);
+        }
+        try {
+            sink.close();
+        } catch (IOException e) {
+            System.err.println("Could not close game log: " + e);
+        }
+    }
+
+    private void write(List<GameLogRecord> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        int count = batch.size();
+        boolean failed = false;
+        try {
+            sink.write(batch);
+        } catch (IOException e) {
+            System.err.println("Could not write game log, dropping " + count + " records: " + e);
+            dropped.add(count);
+            failed = true;
+        }
+        batch.clear();
+        synchronized (writtenLock) {
+            handled += count;
+            failedBatches += failed ? 1 : 0;
+            writtenLock.notifyAll();
+        }
+    }
+
+    /**
+     * Writes each batch as lines of text with a single write.
+     */
+    private static final class TextSink implements Sink {
+        private final Writer out;
+        private final StringBuilder text = new StringBuilder(MAX_BATCH * 96);
+
+        TextSink(Writer out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(List<GameLogRecord> batch) throws IOException {
+            text.setLength(0);
+            for (GameLogRecord record : batch) {
+                record.appendTo(text);
+                text.append(System.lineSeparator());
+            }
+            out.write(text.toString());
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+public class AsyncGameLoggerTest {
+
+    /**
+     * Logs records and waits for them to be written.
+     *
+     * @pre The buffer is large enough for all records.
+     * @post Every record is written as one line, in order.
+     */
+    @Test
+    public void testWrite() {
+        StringWriter out = new StringWriter();
+        AsyncGameLogger logger = new AsyncGameLogger(out, 16, AsyncGameLogger.OverflowPolicy.BLOCK);
+        logger.log(GameLogRecord.gameStarted(0xabcL, "2+3*2=8"));
+        logger.log(GameLogRecord.guess(0xabcL, "2+3*2=8", "4-1*3=1", 1, FeedbackCode.score("2+3*2=8", "4-1*3=1")));
+        logger.log(GameLogRecord.gameEnded(0xabcL, "2+3*2=8", 1, false));
+        assertTrue(logger.flush(5000));
+        String[] lines = out.toString().split(System.lineSeparator());
+        assertEquals(3, lines.length);
+        assertTrue(lines[0], lines[0].endsWith("game=abc GAME_STARTED"));
+        assertTrue(lines[1], lines[1].endsWith("GUESS attempt=1 guess=4-1*3=1 feedback=" + FeedbackCode.toPattern(
+                FeedbackCode.score("2+3*2=8", "4-1*3=1"), 7)));
+        assertTrue(lines[2], lines[2].endsWith("GAME_ENDED lost attempts=1 target=2+3*2=8"));
+        logger.close();
+        assertEquals(0, logger.getDroppedCount());
+    }
+
+    /**
+     * Logs more records than fit while the writer is stuck.
+     *
+     * @pre The DROP policy is used and the output blocks on the first record.
+     * @post The caller never waits and the records that did not fit are counted.
+     */
+    @Test
+    public void testDropOnOverflow() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        StringWriter written = new StringWriter();
+        Writer stuck = new Writer() {
+            @Override
+            public void write(char[] buffer, int offset, int length) {
+                entered.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                written.write(buffer, offset, length);
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        AsyncGameLogger logger = new AsyncGameLogger(stuck, 4, AsyncGameLogger.OverflowPolicy.DROP);
+        logger.log(GameLogRecord.gameStarted(0, "2+3*2=8"));
+        entered.await();
+        for (int i = 1; i < 100; i++) {
+            logger.log(GameLogRecord.gameStarted(i, "2+3*2=8"));
+        }
+        assertEquals(95, logger.getDroppedCount());
+        release.countDown();
+        assertTrue(logger.flush(5000));
+        assertEquals(5, written.toString().split(System.lineSeparator()).length);
+        logger.close();
+    }
+
+    /**
+     * Logs through a sink that fails once.
+     *
+     * @pre The first batch throws an IOException.
+     * @post Its record is counted as dropped and the flush after it reports the failure;
+     *       later records are written and the next flush succeeds.
+     */
+    @Test
+    public void testFailingSink() {
+        List<GameLogRecord> written = new ArrayList<>();
+        boolean[] failed = new boolean[1];
+        AsyncGameLogger logger = new AsyncGameLogger(batch -> {
+            if (!failed[0]) {
+                failed[0] = true;
+                throw new IOException("disk full");
+            }
+            written.addAll(batch);
+        }, 16, AsyncGameLogger.OverflowPolicy.BLOCK);
+        logger.log(GameLogRecord.gameStarted(1, "2+3*2=8"));
+        assertFalse(logger.flush(5000));
+        assertEquals(1, logger.getDroppedCount());
+        logger.log(GameLogRecord.gameStarted(2, "2+3*2=8"));
+        assertTrue(logger.flush(5000));
+        logger.close();
+        assertEquals(1, written.size());
+        assertEquals(2, written.get(0).getGameId());
+    }
+
+    /**
+     * Closes a logger from two threads while four others keep logging.
+     *
+     * @pre The BLOCK policy is used with a buffer of 8 records.
+     * @post No thread hangs, every record is either written or dropped, nothing but logged
+     *       records reaches the sink, and flush does not wait for records that were dropped.
+     */
+    @Test
+    public void testCloseWhileLogging() throws Exception {
+        List<GameLogRecord> written = new ArrayList<>();
+        AsyncGameLogger logger = new AsyncGameLogger(written::addAll, 8, AsyncGameLogger.OverflowPolicy.BLOCK);
+        CountDownLatch started = new CountDownLatch(4);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(() -> {
+                started.countDown();
+                for (int i = 1; i <= 2000; i++) {
+                    logger.log(GameLogRecord.gameStarted(i, "2+3*2=8"));
+                }
+            }));
+        }
+        for (int t = 0; t < 2; t++) {
+            threads.add(new Thread(() -> {
+                try {
+                    started.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                logger.close();
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join(10000);
+            assertFalse(thread.isAlive());
+        }
+        logger.close();
+        assertTrue(logger.flush(1000));
+        assertEquals(8000, written.size() + logger.getDroppedCount());
+        for (GameLogRecord record : written) {
+            assertEquals("2+3*2=8", record.getTarget());
+        }
+    }
+
+    /**
+     * Plays a game with a model that logs to a list.
+     *
+     * @pre The fixed target is guessed on the second attempt.
+     * @post The start, both guesses with their feedback and the win are logged for one game.
+     */
+    @Test
+    public void testModelLogging() {
+        List<GameLogRecord> records = new ArrayList<>();
+        NumberleModel model = new NumberleModel(EquationDictionary.of(Arrays.asList("2*3+2=8")), new GameMetrics(false));
+        model.setLogger(records::add);
+        model.toggleRandomEquationMode();
+        model.processInput("4-1*3=1");
+        model.processInput("2*3+2=8");
+
+        assertEquals(4, records.size());
+        assertEquals(GameLogRecord.Type.GAME_STARTED, records.get(0).getType());
+        assertEquals("2*3+2=8", records.get(0).getTarget());
+        assertEquals(2, records.get(2).getAttempt());
+        assertEquals(FeedbackCode.score("2*3+2=8", "4-1*3=1"), records.get(1).getFeedback());
+        assertTrue(records.get(3).isWon());
+        for (GameLogRecord record : records) {
+            assertEquals(model.getGameId(), record.getGameId());
+        }
+    }
+}
@@ -0,0 +1,245 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Read-only equation dictionary in the compiled binary format, opened with
+ * {@link FileChannel#map}.
+ *
+ * Opening a dictionary only maps the file, so it takes constant time whatever its size, and
+ * the records are read straight from the page cache, which all models and processes mapping
+ * the same file share. Equations are decoded into strings only when {@link #get(int)} is
+ * called.
+ *
+ * File layout, all integers big-endian:
+ * <pre>
+ *   header    32 bytes  magic "NUMB", version, flags, record count, record width, reserved
+ *   records   count * width bytes, ASCII, right-padded with spaces, then padded to 4 bytes
+ *   values    count * int (if FLAG_VALUES)   value both sides of the equation evaluate to
+ *   features  count * int (if FLAG_FEATURES) bit i set if symbol i of {@link Symbols} occurs
+ * </pre>
+ */
+public final class BinaryDictionary extends AbstractList<String> implements RandomAccess {
+    public static final int MAGIC = 0x4E554D42; // "NUMB"
+    public static final int VERSION = 1;
+    public static final int FLAG_VALUES = 1;
+    public static final int FLAG_FEATURES = 2;
+    /** Value stored for records whose sides cannot be evaluated. */
+    public static final int NO_VALUE = Integer.MIN_VALUE;
+
+    private static final int HEADER_SIZE = 32;
+
+    private final ByteBuffer buffer;
+    private final int flags;
+    private final int count;
+    private final int width;
+    private final int valuesOffset;
+    private final int featuresOffset;
+
+    private BinaryDictionary(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a compiled equation dictionary");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported dictionary version " + buffer.getInt(4));
+        }
+        this.flags = buffer.getInt(8);
+        this.count = buffer.getInt(12);
+        this.width = buffer.getInt(16);
+        int offset = HEADER_SIZE + align(count * width);
+        this.valuesOffset = (flags & FLAG_VALUES) != 0 ? offset : -1;
+        offset += (flags & FLAG_VALUES) != 0 ? count * 4 : 0;
+        this.featuresOffset = (flags & FLAG_FEATURES) != 0 ? offset : -1;
+        offset += (flags & FLAG_FEATURES) != 0 ? count * 4 : 0;
+        if (buffer.capacity() < offset) {
+            throw new IOException("Truncated dictionary: expected " + offset + " bytes");
+        }
+    }
+
+    /**
+     * Maps a compiled dictionary file.
+     *
+     * @param path The dictionary file.
+     * @return The mapped dictionary.
+     * @throws IOException If the file cannot be read or is not a compiled dictionary.
+     */
+    public static BinaryDictionary open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.BIG_ENDIAN);
+            return new BinaryDictionary(buffer);
+        }
+    }
+
+    /**
+     * Compiles equations into a dictionary file.
+     *
+     * @param equations The equations, in the order they should be stored.
+     * @param path      The file to write.
+     * @param flags     Which optional columns to write: FLAG_VALUES and/or FLAG_FEATURES.
+     * @throws IOException If the file cannot be written.
+     * @pre Every equation consists of ASCII characters only.
+     */
+    public static void write(List<String> equations, Path path, int flags) throws IOException {
+        int count = equations.size();
+        int width = 0;
+        for (String equation : equations) {
+            width = Math.max(width, equation.length());
+        }
+        int size = HEADER_SIZE + align(count * width);
+        size += (flags & FLAG_VALUES) != 0 ? count * 4 : 0;
+        size += (flags & FLAG_FEATURES) != 0 ? count * 4 : 0;
+
+        ByteBuffer out = ByteBuffer.allocate(size).order(ByteOrder.BIG_ENDIAN);
+        out.putInt(MAGIC).putInt(VERSION).putInt(flags).putInt(count).putInt(width);
+        out.position(HEADER_SIZE);
+        for (String equation : equations) {
+            for (int i = 0; i < width; i++) {
+                char c = i < equation.length() ? equation.charAt(i) : ' ';
+                if (c > 0x7F) {
+                    throw new IllegalArgumentException("Not an ASCII equation: " + equation);
+                }
+                out.put((byte) c);
+            }
+        }
+        out.position(HEADER_SIZE + align(count * width));
+        if ((flags & FLAG_VALUES) != 0) {
+            ExpressionEvaluator evaluator = new ExpressionEvaluator();
+            for (String equation : equations) {
+                int equals = equation.indexOf('=');
+                boolean valid = equals > 0 && evaluator.compare(equation) == ExpressionEvaluator.Result.OK
+                        && evaluator.evaluate(equation, 0, equals) == ExpressionEvaluator.Result.OK;
+                out.putInt(valid ? evaluator.value() : NO_VALUE);
+            }
+        }
+        if ((flags & FLAG_FEATURES) != 0) {
+            for (String equation : equations) {
+                int features = 0;
+                for (int i = 0; i < equation.length(); i++) {
+                    int symbol = Symbols.indexOf(equation.charAt(i));
+                    if (symbol >= 0) {
+                        features |= 1 << symbol;
+                    }
+                }
+                out.putInt(features);
+            }
+        }
+        out.flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        }
+    }
+
+    @Override
+    public String get(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + count);
+        }
+        int offset = HEADER_SIZE + index * width;
+        int length = width;
+        while (length > 0 && buffer.get(offset + length - 1) == ' ') {
+            length--;
+        }
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) buffer.get(offset + i);
+        }
+        return new String(chars);
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    /** Number of bytes per record. */
+    public int width() {
+        return width;
+    }
+
+    /**
+     * Reads one symbol of a record without decoding the whole equation.
+     *
+     * @param index    The record index.
+     * @param position The position in the record.
+     * @return The symbol, or ' ' for padding.
+     */
+    public char charAt(int index, int position) {
+        return (char) buffer.get(HEADER_SIZE + index * width + position);
+    }
+
+    /**
+     * Packs every record as {@link PackedEquations#pack(CharSequence)} would pack its equation,
+     * reading the record bytes without decoding them into strings.
+     *
+     * @return The packed equations, index for index, or null if one of them cannot be packed.
+     */
+    public int[] pack() {
+        int[] packed = new int[count];
+        for (int index = 0; index < count; index++) {
+            int offset = HEADER_SIZE + index * width;
+            int length = width;
+            while (length > 0 && buffer.get(offset + length - 1) == ' ') {
+                length--;
+            }
+            if (length > PackedEquations.MAX_LENGTH) {
+                return null;
+            }
+            int equation = 0;
+            for (int i = 0; i < length; i++) {
+                int symbol = Symbols.indexOf((char) buffer.get(offset + i));
+                if (symbol < 0) {
+                    return null;
+                }
+                equation = PackedEquations.append(equation, symbol);
+            }
+            packed[index] = equation;
+        }
+        return packed;
+    }
+
+    public boolean hasValues() {
+        return valuesOffset >= 0;
+    }
+
+    public boolean hasFeatures() {
+        return featuresOffset >= 0;
+    }
+
+    /**
+     * Returns the precomputed value of a record.
+     *
+     * @param index The record index.
+     * @return The value of both sides, or NO_VALUE if the equation does not hold.
+     * @pre hasValues()
+     */
+    public int value(int index) {
+        return buffer.getInt(valuesOffset + index * 4);
+    }
+
+    /**
+     * Returns the precomputed symbol set of a record.
+     *
+     * @param index The record index.
+     * @return A bit mask with bit i set if symbol i of {@link Symbols} occurs.
+     * @pre hasFeatures()
+     */
+    public int features(int index) {
+        return buffer.getInt(featuresOffset + index * 4);
+    }
+
+    private static int align(int size) {
+        return (size + 3) & ~3;
+    }
+}
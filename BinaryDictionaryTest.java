@@ -0,0 +1,94 @@
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BinaryDictionaryTest {
+
+    /**
+     * Compiles equations and maps them back.
+     *
+     * @pre The equations are ASCII.
+     * @post The mapped dictionary returns the same equations and precomputed columns.
+     */
+    @Test
+    public void testWriteAndOpen() throws IOException {
+        List<String> equations = Arrays.asList("2+3*2=8", "9/3=2+1", "10=10");
+        File file = File.createTempFile("equations", ".bin");
+        file.deleteOnExit();
+        BinaryDictionary.write(equations, file.toPath(),
+                BinaryDictionary.FLAG_VALUES | BinaryDictionary.FLAG_FEATURES);
+
+        BinaryDictionary dictionary = BinaryDictionary.open(file.toPath());
+        assertEquals(equations, dictionary);
+        assertEquals(7, dictionary.width());
+        assertEquals('*', dictionary.charAt(0, 3));
+        assertEquals(8, dictionary.value(0));
+        assertEquals(3, dictionary.value(1));
+        assertEquals(10, dictionary.value(2));
+        int features = dictionary.features(2);
+        assertEquals((1 << Symbols.indexOf('0')) | (1 << Symbols.indexOf('1')) | (1 << Symbols.EQUALS), features);
+        assertArrayEquals(PackedEquations.pack(equations), dictionary.pack());
+    }
+
+    /**
+     * Indexes the values of a compiled dictionary and of the same equations in a list.
+     *
+     * @pre One of the equations does not hold, so it has no stored value.
+     * @post Both indexes select the same equations for every value range.
+     */
+    @Test
+    public void testIndexUsesValues() throws IOException {
+        List<String> equations = Arrays.asList("2+3*2=8", "9/3=2+2", "10-1=9", "4*4=16", "3+3=6");
+        File file = File.createTempFile("equations", ".bin");
+        file.deleteOnExit();
+        BinaryDictionary.write(equations, file.toPath(), BinaryDictionary.FLAG_VALUES);
+        BinaryDictionary dictionary = BinaryDictionary.open(file.toPath());
+        assertEquals(BinaryDictionary.NO_VALUE, dictionary.value(1));
+
+        PositionalIndex compiled = new PositionalIndex(dictionary);
+        PositionalIndex scanned = new PositionalIndex(equations);
+        for (long low = 0; low <= 17; low++) {
+            for (long high = low; high <= 17; high++) {
+                long[] expected = scanned.all().clone();
+                scanned.andValueBetween(low, high, expected);
+                long[] actual = compiled.all().clone();
+                compiled.andValueBetween(low, high, actual);
+                assertArrayEquals(low + ".." + high, expected, actual);
+            }
+        }
+    }
+
+    /**
+     * Loads a text dictionary whose compiled file is missing.
+     *
+     * @pre The text file holds blank lines and padded equations.
+     * @post The dictionary holds the trimmed equations only.
+     */
+    @Test
+    public void testLoadTextSkipsBlankLines() throws IOException {
+        File text = File.createTempFile("equations", ".txt");
+        text.deleteOnExit();
+        java.nio.file.Files.write(text.toPath(), "2+3*2=8\n\n  9/3=2+1 \n   \n".getBytes());
+        EquationDictionary dictionary = EquationDictionary.load(text.getPath(), text.getPath() + ".missing");
+        assertEquals(Arrays.asList("2+3*2=8", "9/3=2+1"), dictionary.getEquations());
+    }
+
+    /**
+     * Opens a file that is not a compiled dictionary.
+     *
+     * @pre The file holds plain text.
+     * @post An IOException is thrown.
+     */
+    @Test(expected = IOException.class)
+    public void testOpenRejectsText() throws IOException {
+        File file = File.createTempFile("equations", ".txt");
+        file.deleteOnExit();
+        java.nio.file.Files.write(file.toPath(), "2+3*2=8\n9/3=2+1\n2+3*2=8\n9/3=2+1\n2+3*2=8\n".getBytes());
+        BinaryDictionary.open(file.toPath());
+    }
+}
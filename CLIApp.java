@@ -1,32 +1,82 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Scanner;
-import java.awt.Color;
 
 public class CLIApp {
     private static final int MAX_ATTEMPTS = 6;
+    private static final int BATCH_FLUSH_SIZE = 1 << 16;
     private NumberleModel model;
     private List<String> previousGuesses;
+    // Feedback of each previous guess, cached when the model scores it
+    private final int[] previousCodes = new int[MAX_ATTEMPTS];
+    private final AnsiRenderer out;
+    private int lastCode = -1;
 
     public CLIApp() {
-        model = new NumberleModel();
+        this(new NumberleModel(), new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Creates a text front end for the given model.
+     *
+     * @param model The model.
+     * @param out   Where the output goes; it is written once per turn.
+     */
+    CLIApp(NumberleModel model, Writer out) {
+        this.model = model;
+        this.out = new AnsiRenderer(out);
+        model.addModelListener(event -> {
+            if (event instanceof ModelEvent.GuessScored) {
+                lastCode = ((ModelEvent.GuessScored) event).getCode();
+            }
+        });
         model.initialize();
         previousGuesses = new ArrayList<>();
     }
 
-    public static void main(String[] args) {
+    /**
+     * Plays interactively, in hard mode with {@code --hard} and logging every game to standard
+     * output with {@code --log}, or with {@code --batch [file]} scores the guesses of a file or
+     * of standard input, see {@link #runBatch(BufferedReader)}.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("--batch")) {
+            NumberleModel model = new NumberleModel(EquationDictionary.getDefault(), new GameMetrics(false));
+            Writer output = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+            Reader input = args.length > 1 ? new FileReader(args[1], StandardCharsets.UTF_8)
+                    : new InputStreamReader(System.in, StandardCharsets.UTF_8);
+            try (BufferedReader reader = new BufferedReader(input, 1 << 16)) {
+                new CLIApp(model, output).runBatch(reader);
+            }
+            return;
+        }
+        List<String> options = Arrays.asList(args);
         CLIApp cliApp = new CLIApp();
+        cliApp.model.setHardMode(options.contains("--hard"));
+        if (options.contains("--log")) {
+            cliApp.model.setLogger(AsyncGameLogger.getDefault());
+        }
         cliApp.startGame();
     }
 
     private void startGame() {
         Scanner scanner = new Scanner(System.in);
-        System.out.println("Welcome to Numberle!");
+        out.line("Welcome to Numberle!");
         boolean playAgain = true;
         while (playAgain) {
             model.startNewGame();
             playRound(scanner);
-            System.out.println("Do you want to play again? (yes/no): ");
+            out.line("Do you want to play again? (yes/no): ").flush();
             String choice = scanner.nextLine().trim();
             if (!choice.equalsIgnoreCase("yes")) {
                 playAgain = false;
@@ -34,83 +84,136 @@ public class CLIApp {
 
         }
         scanner.close();
-        System.out.println("Thanks for playing Numberle!");
+        out.line("Thanks for playing Numberle!").flush();
     }
 
     private void playRound(Scanner scanner) {
         while (!model.isGameOver()) {
-            System.out.println("Attempts remaining: " + model.getRemainingAttempts());
+            out.line("Attempts remaining: " + model.getRemainingAttempts());
             if (!previousGuesses.isEmpty()) {
-                System.out.println("Previous guesses:");
-                for (String guess : previousGuesses) {
-                    System.out.println(colorizeString(guess, model.getColor(model.getTargetNumber(), guess)));
+                out.line("Previous guesses:");
+                for (int i = 0; i < previousGuesses.size(); i++) {
+                    out.guess(previousGuesses.get(i), previousCodes[i]).line("");
                 }
             }
-            System.out.println("Please guess a 7-digit math expression: ");
+            out.line("Please guess a 7-digit math expression (or type 'hint', 'stats' or 'hard'): ").flush();
             String guess = scanner.nextLine().replaceAll("\\s+", ""); // Remove all whitespace characters
-            if (!isValidInput(guess)) {
-                System.out.println("Invalid input. Please enter a valid expression.");
+            if (guess.equalsIgnoreCase("hint")) {
+                String hint = model.getHint();
+                out.line(hint == null ? "No equation fits the feedback so far." : "Hint: try " + hint);
                 continue;
             }
-            if (!model.isMathExpression(guess)) {
-                System.out.println("Invalid expression. Please enter a valid mathematical expression.");
+            if (guess.equalsIgnoreCase("stats")) {
+                out.text(GameMetrics.getDefault().dump());
                 continue;
             }
-            if (!model.checkLength(guess)) {
-                System.out.println("Invalid expression length. Please enter a 7-digit expression.");
+            if (guess.equalsIgnoreCase("hard")) {
+                model.setHardMode(!model.isHardMode());
+                out.line("Hard mode is " + (model.isHardMode() ? "on." : "off."));
                 continue;
             }
-            if (!model.compareExpressions(guess)) {
-                System.out.println("Invalid expression. The expression is not correct.");
+            GuessValidator.Reason reason = model.validateGuess(guess);
+            if (!reason.isValid()) {
+                String message = reason.isHardMode() ? model.checkHardMode(guess).getMessage()
+                        : reason.getMessage(GuessValidator.DEFAULT_LENGTH);
+                out.line("Invalid input. " + message);
                 continue;
             }
             model.processInput(guess);
+            previousCodes[previousGuesses.size()] = lastCode;
             previousGuesses.add(guess);
-            printGuessFeedback(guess);
+            printGuessFeedback(guess, lastCode);
         }
         if (!model.isGameWon()) {
-            System.out.println("Game over. You've used all your attempts. The correct number was: " + model.getTargetNumber());
+            out.line("Game over. You've used all your attempts. The correct number was: " + model.getTargetNumber());
         }
+        out.flush();
         previousGuesses.clear(); // Clear previous guesses for next round
     }
 
-    private String colorizeString(String str, Color[] colors) {
-        StringBuilder formattedString = new StringBuilder();
-        for (int i = 0; i < str.length(); i++) {
-            formattedString.append(colorizeChar(str.charAt(i), colors[i])).append(" ");
+    private void printGuessFeedback(String guess, int code) {
+        out.text("Your Guess: ").guess(guess, code).line("");
+        if (model.isGameWon()) {
+            out.line("Congratulations! You guessed the correct number: " + model.getTargetNumber());
+        } else {
+            out.line("Incorrect guess. Keep trying!");
         }
-        return formattedString.toString();
+        out.line("============================================");
     }
 
+    /**
+     * Scores guesses read line by line and writes one result line per input line, without
+     * colours, for use in scripts.
+     *
+     * A line holding one guess plays it in the current game; when the game ends, the next
+     * guess starts a new one. A line holding a target and a guess, separated by whitespace,
+     * only scores the guess against that target. Results are tab separated:
+     * <pre>
+     *   guess  pattern  [won|lost]     for example  4-1*3=1  ---OOG-
+     *   guess  invalid  REASON
+     * </pre>
+     * where the pattern has G for green, O for orange and - for gray. Output is flushed
+     * whenever no more input is ready, so results stream through pipes, and in blocks of
+     * 64 KB otherwise.
+     *
+     * @param in The guesses.
+     * @throws IOException If reading fails.
+     */
+    void runBatch(BufferedReader in) throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            int space = indexOfWhitespace(line);
+            if (space < 0) {
+                playBatchGuess(line);
+            } else {
+                scoreBatchGuess(line.substring(0, space), line.substring(space).trim());
+            }
+            if (!in.ready() || out.pending() >= BATCH_FLUSH_SIZE) {
+                out.flush();
+            }
+        }
+        out.flush();
+    }
 
-    private boolean isValidInput(String input) {
-        return input.matches("[0-9()+\\-*/=]{7}");
+    private void playBatchGuess(String guess) {
+        if (model.isGameOver()) {
+            model.startNewGame();
+        }
+        GuessValidator.Reason reason = model.validateGuess(guess);
+        if (!reason.isValid()) {
+            out.text(guess).text("\tinvalid\t").line(reason.name());
+            return;
+        }
+        model.processInput(guess);
+        out.text(guess).text("\t").text(FeedbackCode.toPattern(lastCode, guess.length()));
+        if (model.isGameOver()) {
+            out.text(model.isGameWon() ? "\twon" : "\tlost");
+        }
+        out.line("");
     }
 
-    private void printGuessFeedback(String guess) {
-        Color[] colors = model.getColor(model.getTargetNumber(), guess);
-        StringBuilder formattedGuess = new StringBuilder("Your Guess: ");
-        for (int i = 0; i < guess.length(); i++) {
-            formattedGuess.append(colorizeChar(guess.charAt(i), colors[i])).append(" ");
+    private void scoreBatchGuess(String target, String guess) {
+        GuessValidator.Reason reason = model.validateGuess(guess);
+        if (reason.isValid() && target.length() != guess.length()) {
+            reason = GuessValidator.Reason.WRONG_LENGTH;
         }
-        System.out.println(formattedGuess);
-        if (model.isGameWon()) {
-            System.out.println("Congratulations! You guessed the correct number: " + model.getTargetNumber());
-        } else {
-            System.out.println("Incorrect guess. Keep trying!");
+        if (!reason.isValid()) {
+            out.text(guess).text("\tinvalid\t").line(reason.name());
+            return;
         }
-        System.out.println("============================================");
+        out.text(guess).text("\t").line(FeedbackCode.toPattern(model.getFeedbackCode(target, guess), guess.length()));
     }
 
-    private String colorizeChar(char c, Color color) {
-        if (color == Color.GREEN) {
-            return "\u001B[92m" + c + "\u001B[0m"; // Green color
-        } else if (color == Color.ORANGE) {
-            return "\u001B[91m" + c + "\u001B[0m"; // Orange color
-        } else if (color == Color.GRAY) {
-            return "\u001B[90m" + c + "\u001B[0m"; // Gray color
-        } else {
-            return String.valueOf(c); // Default to original character
+    private static int indexOfWhitespace(String line) {
+        for (int i = 0; i < line.length(); i++) {
+            if (Character.isWhitespace(line.charAt(i))) {
+                return i;
+            }
         }
+        return -1;
     }
 }
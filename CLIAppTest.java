@@ -0,0 +1,57 @@
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CLIAppTest {
+    private static final String TARGET = "2+3*2=8";
+
+    /**
+     * Scores guesses in batch mode.
+     *
+     * @pre The only target is 2+3*2=8; the input mixes game guesses, an invalid guess, a
+     *      scored pair and blank lines.
+     * @post Every non-blank line yields one result line, and the winning guess ends the game.
+     */
+    @Test
+    public void testBatch() throws Exception {
+        NumberleModel model = new NumberleModel(EquationDictionary.of(List.of(TARGET)), new GameMetrics(false));
+        model.setLogger(GameLogger.NONE);
+        StringWriter out = new StringWriter();
+        String input = "4-1*3=1\n\n1+1=3+1\n  9-3*2=3   4-1*3=1\n2+3*2=8\n4-1*3=1\n";
+        new CLIApp(model, out).runBatch(new BufferedReader(new StringReader(input)));
+
+        String[] lines = out.toString().split(System.lineSeparator());
+        assertEquals(5, lines.length);
+        assertEquals("4-1*3=1\t" + FeedbackCode.toPattern(FeedbackCode.score(TARGET, "4-1*3=1"), 7), lines[0]);
+        assertEquals("1+1=3+1\tinvalid\tNOT_EQUAL", lines[1]);
+        assertEquals("4-1*3=1\t" + FeedbackCode.toPattern(FeedbackCode.score("9-3*2=3", "4-1*3=1"), 7), lines[2]);
+        assertEquals("2+3*2=8\tGGGGGGG\twon", lines[3]);
+        // A new game has started.
+        assertEquals(lines[0], lines[4]);
+        assertEquals(INumberleModel.MAX_ATTEMPTS - 1, model.getRemainingAttempts());
+    }
+
+    /**
+     * Renders a coloured guess.
+     *
+     * @pre Nothing has been flushed.
+     * @post The output appears only on flush, once, with one escape sequence per symbol colour.
+     */
+    @Test
+    public void testRenderer() {
+        StringWriter out = new StringWriter();
+        AnsiRenderer renderer = new AnsiRenderer(out);
+        renderer.text("Your Guess: ").guess("1+1", 2 + 3 * 1);
+        assertEquals("", out.toString());
+        renderer.flush();
+        String expected = "Your Guess: \u001B[92m1\u001B[0m \u001B[91m+\u001B[0m \u001B[90m1\u001B[0m ";
+        assertEquals(expected, out.toString());
+        renderer.flush();
+        assertEquals(expected, out.toString());
+    }
+}
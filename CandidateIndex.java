@@ -0,0 +1,215 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tracks which equations of a dictionary are still consistent with the feedback of a game.
+ *
+ * The remaining candidates are a {@code long[]} bitset over the dictionary. After each
+ * guess, {@link #narrow(CharSequence, int)} turns the feedback into position and symbol
+ * count constraints and intersects the bitset with the precomputed masks of a shared
+ * {@link PositionalIndex}, so no equation has to be rescored.
+ *
+ * Instances are not thread-safe; use one per game.
+ */
+public final class CandidateIndex {
+    private final PositionalIndex index;
+    private final long[] remaining;
+
+    /**
+     * Creates a candidate index over the given dictionary.
+     *
+     * @param dictionary The equations that may be the target.
+     * @pre dictionary is not empty.
+     */
+    public CandidateIndex(List<String> dictionary) {
+        this(new PositionalIndex(dictionary));
+    }
+
+    /**
+     * Creates a candidate index sharing the masks of an existing positional index.
+     *
+     * @param index The positional index of the dictionary.
+     * @post Every equation of the dictionary is a candidate.
+     */
+    public CandidateIndex(PositionalIndex index) {
+        this.index = index;
+        this.remaining = new long[index.words()];
+        reset();
+    }
+
+    public PositionalIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Makes every equation of the dictionary a candidate again.
+     */
+    public void reset() {
+        System.arraycopy(index.all(), 0, remaining, 0, remaining.length);
+    }
+
+    /**
+     * Removes the candidates that would not have produced the given feedback for the guess.
+     *
+     * The feedback rules of {@link FeedbackCode} translate into, per position, whether the
+     * target holds the guessed symbol there, and per symbol, a range for how often the target
+     * holds it. Feedback that no target can produce empties the set.
+     *
+     * @param guess The guess that was scored.
+     * @param code  The feedback code of the guess.
+     * @pre guess is not null.
+     * @post Only candidates t with {@code FeedbackCode.score(t, guess) == code} remain.
+     */
+    public void narrow(CharSequence guess, int code) {
+        int length = index.length();
+        if (guess.length() != length) {
+            Arrays.fill(remaining, 0);
+            return;
+        }
+        int[] greens = new int[Symbols.COUNT];
+        int[] oranges = new int[Symbols.COUNT];
+        int[] grays = new int[Symbols.COUNT];
+        int[] first = new int[Symbols.COUNT];
+        int[] firstOrange = new int[Symbols.COUNT];
+        Arrays.fill(first, -1);
+        Arrays.fill(firstOrange, -1);
+
+        for (int pos = 0; pos < length; pos++) {
+            int symbol = Symbols.indexOf(guess.charAt(pos));
+            int color = FeedbackCode.colorAt(code, pos);
+            if (symbol < 0) {
+                if (color != FeedbackCode.GRAY) {
+                    Arrays.fill(remaining, 0);
+                    return;
+                }
+                continue;
+            }
+            if (first[symbol] < 0) {
+                first[symbol] = pos;
+            }
+            if (color == FeedbackCode.GREEN) {
+                greens[symbol]++;
+                and(index.atPosition(pos, symbol));
+            } else {
+                andNot(index.atPosition(pos, symbol));
+                if (color == FeedbackCode.ORANGE) {
+                    if (firstOrange[symbol] < 0) {
+                        firstOrange[symbol] = pos;
+                    }
+                    oranges[symbol]++;
+                } else {
+                    grays[symbol]++;
+                }
+            }
+        }
+
+        for (int symbol = 0; symbol < Symbols.COUNT; symbol++) {
+            if (first[symbol] < 0) {
+                continue;
+            }
+            int green = greens[symbol];
+            int total = green + oranges[symbol] + grays[symbol];
+            int min;
+            int max;
+            if (grays[symbol] == 0) {
+                // Every misplaced copy is orange: the target holds at least as many.
+                min = total;
+                max = length;
+            } else if (oranges[symbol] == 0) {
+                // Only possible if the target holds no extra copy, or the first copy is green.
+                boolean firstGreen = FeedbackCode.colorAt(code, first[symbol]) == FeedbackCode.GREEN;
+                min = green;
+                max = firstGreen ? total - 1 : green;
+            } else if (oranges[symbol] == 1 && firstOrange[symbol] == first[symbol]) {
+                // Extra copies beyond the target's count: only the first one is orange.
+                min = green + 1;
+                max = total - 1;
+            } else {
+                Arrays.fill(remaining, 0);
+                return;
+            }
+            if (min > 0) {
+                and(index.atLeast(symbol, min));
+            }
+            if (max < length) {
+                andNot(index.atLeast(symbol, max + 1));
+            }
+        }
+    }
+
+    /**
+     * Returns the number of remaining candidates in O(words).
+     *
+     * @return The number of candidates.
+     */
+    public int candidateCount() {
+        int count = 0;
+        for (long word : remaining) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Returns a copy of the remaining candidates as a bitset over the dictionary indices.
+     *
+     * @return The bitset of candidates.
+     */
+    public long[] remainingCandidates() {
+        return remaining.clone();
+    }
+
+    /**
+     * Checks if the equation with the given dictionary index is still a candidate.
+     *
+     * @param i The dictionary index.
+     * @return True if the equation is a candidate.
+     */
+    public boolean isCandidate(int i) {
+        return (remaining[i >>> 6] & (1L << i)) != 0;
+    }
+
+    /**
+     * Returns the dictionary indices of the remaining candidates in increasing order.
+     *
+     * @return The candidate indices.
+     */
+    public int[] candidateIndices() {
+        int[] indices = new int[candidateCount()];
+        int n = 0;
+        for (int w = 0; w < remaining.length; w++) {
+            long word = remaining[w];
+            while (word != 0) {
+                indices[n++] = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return indices;
+    }
+
+    /**
+     * Returns the remaining candidates as equations.
+     *
+     * @return The candidate equations in dictionary order.
+     */
+    public List<String> candidates() {
+        List<String> candidates = new ArrayList<>();
+        for (int i : candidateIndices()) {
+            candidates.add(index.get(i));
+        }
+        return candidates;
+    }
+
+    private void and(long[] mask) {
+        for (int w = 0; w < remaining.length; w++) {
+            remaining[w] &= mask[w];
+        }
+    }
+
+    private void andNot(long[] mask) {
+        for (int w = 0; w < remaining.length; w++) {
+            remaining[w] &= ~mask[w];
+        }
+    }
+}
@@ -0,0 +1,53 @@
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CandidateIndexTest {
+
+    /**
+     * Narrows the candidates of the generated dictionary with the feedback of several guesses.
+     *
+     * @pre The target is part of the dictionary.
+     * @post The remaining candidates are exactly the equations that give the same feedback.
+     */
+    @Test
+    public void testNarrowMatchesScoring() {
+        List<String> dictionary = new EquationGenerator(6).generateAll();
+        CandidateIndex index = new CandidateIndex(dictionary);
+        String target = dictionary.get(dictionary.size() / 2);
+        List<String> guesses = Arrays.asList("1+1=02", "99-9=90", "00*0=0", "5+5=10");
+        List<String> expected = new ArrayList<>(dictionary);
+        for (String guess : guesses) {
+            if (guess.length() != target.length()) {
+                continue;
+            }
+            int code = FeedbackCode.score(target, guess);
+            index.narrow(guess, code);
+            expected.removeIf(candidate -> FeedbackCode.score(candidate, guess) != code);
+            assertEquals(expected, index.candidates());
+            assertEquals(expected.size(), index.candidateCount());
+        }
+        assertTrue(index.candidates().contains(target));
+    }
+
+    /**
+     * Narrows the candidates with feedback that no target can produce.
+     *
+     * @pre Only a later copy of a repeated symbol is marked orange.
+     * @post No candidate remains.
+     */
+    @Test
+    public void testNarrowImpossibleFeedback() {
+        CandidateIndex index = new CandidateIndex(Arrays.asList("1+1=02", "2+0=02", "1*1=01"));
+        int code = 0;
+        code += FeedbackCode.ORANGE * 9; // second '1' (position 2) orange, first one gray
+        index.narrow("1+1=02", code);
+        assertEquals(0, index.candidateCount());
+        index.reset();
+        assertEquals(3, index.candidateCount());
+    }
+}
@@ -0,0 +1,47 @@
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compiles a text equation list, one equation per line, into the binary format read by
+ * {@link BinaryDictionary}.
+ *
+ * Usage: {@code java DictionaryCompiler [input.txt] [output.bin] [--no-columns]}
+ */
+public class DictionaryCompiler {
+    public static void main(String[] args) throws IOException {
+        String input = "equations.txt";
+        String output = "equations.bin";
+        int flags = BinaryDictionary.FLAG_VALUES;
+        List<String> files = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.equals("--no-columns")) {
+                flags = 0;
+            } else {
+                files.add(arg);
+            }
+        }
+        if (files.size() > 0) {
+            input = files.get(0);
+        }
+        if (files.size() > 1) {
+            output = files.get(1);
+        }
+
+        List<String> equations = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(input))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty()) {
+                    equations.add(line);
+                }
+            }
+        }
+        BinaryDictionary.write(equations, Paths.get(output), flags);
+        System.out.println("Compiled " + equations.size() + " equations from " + input + " to " + output);
+    }
+}
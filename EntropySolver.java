@@ -0,0 +1,264 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Recommends the next guess by expected information gain.
+ *
+ * For every possible guess the solver counts how the remaining candidates split over the
+ * feedback patterns of {@link INumberleModel#getFeedbackCode(String, String)} and ranks the
+ * guesses by the entropy of that split: the higher it is, the fewer candidates are expected
+ * to remain after the guess. Guesses are scored in parallel; each worker thread reuses one
+ * pattern histogram, so scoring a (guess, target) pair does not allocate.
+ *
+ * To stay within an interactive latency budget on large dictionaries, at most
+ * {@code maxGuesses} guesses are ranked and the split is estimated on an evenly spaced
+ * sample of at most {@code maxTargets} candidates. Below those limits the ranking is exact.
+ */
+public class EntropySolver {
+    /** Default number of guesses ranked per call. */
+    public static final int DEFAULT_MAX_GUESSES = 512;
+    /** Default number of candidates the split is estimated on. */
+    public static final int DEFAULT_MAX_TARGETS = 4096;
+
+    /**
+     * Scores the guess with the given dictionary index against the target with the given index.
+     */
+    public interface Scorer {
+        int score(int guess, int target);
+    }
+
+    /**
+     * A ranked guess.
+     */
+    public static final class Suggestion {
+        private final String equation;
+        private final int index;
+        private final double entropy;
+        private final boolean candidate;
+
+        Suggestion(String equation, int index, double entropy, boolean candidate) {
+            this.equation = equation;
+            this.index = index;
+            this.entropy = entropy;
+            this.candidate = candidate;
+        }
+
+        public String getEquation() {
+            return equation;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        /** Expected information gain of the guess in bits. */
+        public double getEntropy() {
+            return entropy;
+        }
+
+        /** Whether the guess itself could still be the target. */
+        public boolean isCandidate() {
+            return candidate;
+        }
+
+        @Override
+        public String toString() {
+            return equation + String.format(" (%.2f bits)", entropy);
+        }
+    }
+
+    private final INumberleModel model;
+    private final List<String> dictionary;
+    private final Scorer scorer;
+    private final int patterns;
+    private final int maxGuesses;
+    private final int maxTargets;
+    private final ThreadLocal<int[][]> scratch;
+
+    /**
+     * Creates a solver that scores with the model's feedback rules.
+     *
+     * @param model      The model whose rules are used.
+     * @param dictionary The equations that may be guessed or be the target.
+     * @pre dictionary is not empty and all equations have the same length.
+     */
+    public EntropySolver(INumberleModel model, List<String> dictionary) {
+        this(model, dictionary, (guess, target) ->
+                model.getFeedbackCode(dictionary.get(target), dictionary.get(guess)),
+                DEFAULT_MAX_GUESSES, DEFAULT_MAX_TARGETS);
+    }
+
+    /**
+     * Creates a solver with a custom scorer and limits.
+     *
+     * @param model      The model whose rules are used for earlier guesses.
+     * @param dictionary The equations that may be guessed or be the target.
+     * @param scorer     Computes the feedback code of a dictionary pair.
+     * @param maxGuesses The maximum number of guesses ranked per call.
+     * @param maxTargets The maximum number of candidates the split is estimated on.
+     * @pre dictionary is not empty and all equations have the same length.
+     */
+    public EntropySolver(INumberleModel model, List<String> dictionary, Scorer scorer,
+                         int maxGuesses, int maxTargets) {
+        this.model = model;
+        this.dictionary = dictionary;
+        this.scorer = scorer;
+        this.maxGuesses = maxGuesses;
+        this.maxTargets = maxTargets;
+        this.patterns = FeedbackCode.patternCount(dictionary.get(0).length());
+        this.scratch = ThreadLocal.withInitial(() -> new int[][]{new int[patterns], new int[patterns]});
+    }
+
+    /**
+     * Returns the dictionary indices of all equations.
+     *
+     * @return The indices 0 to size - 1.
+     */
+    public int[] allCandidates() {
+        return IntStream.range(0, dictionary.size()).toArray();
+    }
+
+    /**
+     * Keeps the candidates that would have produced the given feedback for every guess.
+     *
+     * @param candidates The dictionary indices of the current candidates.
+     * @param guesses    The guesses made so far.
+     * @param feedback   The feedback code of each guess.
+     * @return The dictionary indices of the candidates that are still possible.
+     * @pre feedback has at least as many entries as guesses.
+     */
+    public int[] filter(int[] candidates, List<String> guesses, int[] feedback) {
+        return Arrays.stream(candidates).parallel().filter(candidate -> {
+            String target = dictionary.get(candidate);
+            for (int i = 0; i < guesses.size(); i++) {
+                if (model.getFeedbackCode(target, guesses.get(i)) != feedback[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }).toArray();
+    }
+
+    /**
+     * Recommends the best next guess given the guesses and feedback so far.
+     *
+     * @param candidates The dictionary indices of the current candidates.
+     * @param guesses    The guesses made so far.
+     * @param feedback   The feedback code of each guess.
+     * @return The best guess, or null if no candidate is consistent with the feedback.
+     */
+    public Suggestion recommend(int[] candidates, List<String> guesses, int[] feedback) {
+        List<Suggestion> ranking = rank(filter(candidates, guesses, feedback), 1);
+        return ranking.isEmpty() ? null : ranking.get(0);
+    }
+
+    /**
+     * Ranks possible next guesses by expected information gain over the candidates.
+     *
+     * @param candidates The dictionary indices of the remaining candidates.
+     * @param limit      The maximum number of suggestions to return.
+     * @return The best guesses, best first.
+     * @pre candidates holds valid dictionary indices.
+     */
+    public List<Suggestion> rank(int[] candidates, int limit) {
+        List<Suggestion> ranking = new ArrayList<>();
+        if (candidates.length == 0 || limit <= 0) {
+            return ranking;
+        }
+        if (candidates.length == 1) {
+            ranking.add(new Suggestion(dictionary.get(candidates[0]), candidates[0], 0, true));
+            return ranking;
+        }
+
+        boolean[] isCandidate = new boolean[dictionary.size()];
+        for (int candidate : candidates) {
+            isCandidate[candidate] = true;
+        }
+        int[] targets = sample(candidates, maxTargets);
+        int[] pool = guessPool(candidates, isCandidate);
+        double[] entropy = new double[pool.length];
+        IntStream.range(0, pool.length).parallel()
+                .forEach(i -> entropy[i] = entropy(pool[i], targets));
+
+        Integer[] order = new Integer[pool.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> {
+            int byEntropy = Double.compare(entropy[b], entropy[a]);
+            if (byEntropy != 0) {
+                return byEntropy;
+            }
+            int byCandidate = Boolean.compare(isCandidate[pool[b]], isCandidate[pool[a]]);
+            return byCandidate != 0 ? byCandidate : Integer.compare(pool[a], pool[b]);
+        });
+        for (int i = 0; i < Math.min(limit, order.length); i++) {
+            int guess = pool[order[i]];
+            ranking.add(new Suggestion(dictionary.get(guess), guess, entropy[order[i]], isCandidate[guess]));
+        }
+        return ranking;
+    }
+
+    /**
+     * Computes the entropy of the split of the targets by the feedback of one guess.
+     */
+    private double entropy(int guess, int[] targets) {
+        int[][] buffers = scratch.get();
+        int[] histogram = buffers[0];
+        int[] seen = buffers[1];
+        int distinct = 0;
+        for (int target : targets) {
+            int code = scorer.score(guess, target);
+            if (histogram[code]++ == 0) {
+                seen[distinct++] = code;
+            }
+        }
+        double sum = 0;
+        for (int i = 0; i < distinct; i++) {
+            int count = histogram[seen[i]];
+            sum += count * Math.log(count);
+            histogram[seen[i]] = 0;
+        }
+        double n = targets.length;
+        return (Math.log(n) - sum / n) / Math.log(2);
+    }
+
+    /**
+     * Picks the guesses to rank: the candidates, topped up with other dictionary equations,
+     * both evenly sampled when there are too many.
+     */
+    private int[] guessPool(int[] candidates, boolean[] isCandidate) {
+        int[] fromCandidates = sample(candidates, Math.max(1, maxGuesses / 2));
+        int others = Math.min(maxGuesses - fromCandidates.length, dictionary.size() - candidates.length);
+        int[] pool = Arrays.copyOf(fromCandidates, fromCandidates.length + Math.max(0, others));
+        int size = fromCandidates.length;
+        if (others > 0) {
+            double step = (double) dictionary.size() / others;
+            int index = -1;
+            for (double next = 0; next < dictionary.size() && size < pool.length; next += step) {
+                index = Math.max(index + 1, (int) next);
+                while (index < dictionary.size() && isCandidate[index]) {
+                    index++;
+                }
+                if (index < dictionary.size()) {
+                    pool[size++] = index;
+                }
+            }
+        }
+        return Arrays.copyOf(pool, size);
+    }
+
+    private static int[] sample(int[] values, int max) {
+        if (values.length <= max) {
+            return values;
+        }
+        int[] sample = new int[max];
+        double step = (double) values.length / max;
+        for (int i = 0; i < max; i++) {
+            sample[i] = values[(int) (i * step)];
+        }
+        return sample;
+    }
+}
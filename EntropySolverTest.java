@@ -0,0 +1,46 @@
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class EntropySolverTest {
+
+    private static final List<String> DICTIONARY = Arrays.asList(
+            "2+3*2=8", "4-1*3=1", "5/1+2=7", "6*1-2=4", "7-3/1=4", "8+2-3=7", "9*1-1=8");
+
+    /**
+     * Ranks guesses before any feedback.
+     *
+     * @pre Every equation of the dictionary is a candidate.
+     * @post Suggestions are ordered by decreasing information gain.
+     */
+    @Test
+    public void testRank() {
+        EntropySolver solver = new EntropySolver(new NumberleModel(), DICTIONARY);
+        List<EntropySolver.Suggestion> ranking = solver.rank(solver.allCandidates(), 3);
+        assertEquals(3, ranking.size());
+        assertTrue(ranking.get(0).getEntropy() >= ranking.get(1).getEntropy());
+        assertTrue(ranking.get(1).getEntropy() >= ranking.get(2).getEntropy());
+        assertTrue(ranking.get(0).getEntropy() > 0);
+    }
+
+    /**
+     * Recommends a guess after a solved-position feedback.
+     *
+     * @pre The feedback identifies a single candidate.
+     * @post That candidate is recommended.
+     */
+    @Test
+    public void testRecommendSingleCandidate() {
+        NumberleModel model = new NumberleModel();
+        EntropySolver solver = new EntropySolver(model, DICTIONARY);
+        String target = "7-3/1=4";
+        List<String> guesses = Collections.singletonList("2+3*2=8");
+        int[] feedback = {model.getFeedbackCode(target, "2+3*2=8")};
+        assertArrayEquals(new int[]{4}, solver.filter(solver.allCandidates(), guesses, feedback));
+        assertEquals(target, solver.recommend(solver.allCandidates(), guesses, feedback).getEquation());
+    }
+}
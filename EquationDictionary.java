@@ -0,0 +1,177 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable, thread-safe list of the equations a game can use.
+ *
+ * A dictionary is loaded once and then shared by every {@link NumberleModel} it is given to,
+ * so starting a game does no file I/O and keeps no copy of the list. The default dictionary
+ * is loaded lazily on first use; {@link #preload()} loads it, and builds its index, up front.
+ */
+public final class EquationDictionary {
+    public static final String DEFAULT_TEXT_FILE = "equations.txt";
+    public static final String DEFAULT_COMPILED_FILE = "equations.bin";
+
+    private final List<String> equations;
+    private volatile int[] packed;
+    private volatile PositionalIndex index;
+
+    /** Marks a dictionary whose equations were packed and found too long to pack. */
+    private static final int[] NOT_PACKABLE = new int[0];
+
+    private EquationDictionary(List<String> equations) {
+        this.equations = equations;
+    }
+
+    /**
+     * Holds the default dictionary, which the JVM loads on first access.
+     */
+    private static final class DefaultHolder {
+        static final EquationDictionary INSTANCE = loadDefault();
+    }
+
+    /**
+     * Returns the shared default dictionary, loading it on first use.
+     *
+     * @return The dictionary read from equations.bin or equations.txt.
+     */
+    public static EquationDictionary getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * Loads the default dictionary and builds its index now instead of on first use.
+     *
+     * @return The default dictionary.
+     */
+    public static EquationDictionary preload() {
+        EquationDictionary dictionary = getDefault();
+        if (!dictionary.isEmpty()) {
+            dictionary.getIndex();
+        }
+        return dictionary;
+    }
+
+    /**
+     * Creates a dictionary holding a copy of the given equations.
+     *
+     * @param equations The equations.
+     * @return The dictionary.
+     */
+    public static EquationDictionary of(List<String> equations) {
+        return new EquationDictionary(Collections.unmodifiableList(new ArrayList<>(equations)));
+    }
+
+    /**
+     * Loads a dictionary, mapping the compiled file if it exists and is not older than the
+     * text file, and reading the text file line by line otherwise.
+     *
+     * @param textFile     The text dictionary, one equation per line.
+     * @param compiledFile The compiled dictionary produced by {@link DictionaryCompiler}.
+     * @return The loaded dictionary.
+     * @throws IOException If neither file can be read.
+     */
+    public static EquationDictionary load(String textFile, String compiledFile) throws IOException {
+        File compiled = new File(compiledFile);
+        File text = new File(textFile);
+        if (compiled.isFile() && !(text.isFile() && text.lastModified() > compiled.lastModified())) {
+            try {
+                return new EquationDictionary(BinaryDictionary.open(compiled.toPath()));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        List<String> equations = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(text))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty()) {
+                    equations.add(line);
+                }
+            }
+        }
+        return new EquationDictionary(Collections.unmodifiableList(equations));
+    }
+
+    private static EquationDictionary loadDefault() {
+        try {
+            return load(DEFAULT_TEXT_FILE, DEFAULT_COMPILED_FILE);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return new EquationDictionary(Collections.<String>emptyList());
+        }
+    }
+
+    /**
+     * Returns the equations as a read-only list.
+     *
+     * @return The equations.
+     */
+    public List<String> getEquations() {
+        return equations;
+    }
+
+    public int size() {
+        return equations.size();
+    }
+
+    public boolean isEmpty() {
+        return equations.isEmpty();
+    }
+
+    public String get(int index) {
+        return equations.get(index);
+    }
+
+    /**
+     * Returns the equations packed by {@link PackedEquations#pack(CharSequence)}, in the order of
+     * {@link #getEquations()}, packing them on first use. A compiled dictionary is packed
+     * straight from its records, so loading it stays a plain mapping.
+     *
+     * @return The shared packed equations, not to be modified, or null if an equation is too
+     *         long to pack.
+     */
+    public int[] getPacked() {
+        int[] result = packed;
+        if (result == null) {
+            synchronized (this) {
+                result = packed;
+                if (result == null) {
+                    result = equations instanceof BinaryDictionary ? ((BinaryDictionary) equations).pack()
+                            : PackedEquations.pack(equations);
+                    if (result == null) {
+                        result = NOT_PACKABLE;
+                    }
+                    packed = result;
+                }
+            }
+        }
+        return result == NOT_PACKABLE ? null : result;
+    }
+
+    /**
+     * Returns the positional index of the dictionary, building it on first use.
+     *
+     * @return The shared index.
+     * @pre The dictionary is not empty.
+     */
+    public PositionalIndex getIndex() {
+        PositionalIndex result = index;
+        if (result == null) {
+            synchronized (this) {
+                result = index;
+                if (result == null) {
+                    result = new PositionalIndex(equations);
+                    index = result;
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,212 @@
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Enumerates every valid equation of a given length over the symbols 0-9 + - * / =.
+ *
+ * An equation is valid when it passes the model's own rules: it contains numbers and
+ * operators, has no consecutive operators, and both sides of its single '=' evaluate to
+ * the same value with {@link ExpressionEvaluator}.
+ *
+ * The search space is split by prefix into independent parallel tasks. Each task walks the
+ * symbols depth-first, only places symbols the grammar allows, and drops a left-hand side
+ * as soon as its value cannot be reached by any right-hand side of the remaining length.
+ * Results are written in prefix order as soon as they are ready, so the full dictionary
+ * never has to be held in memory.
+ */
+public final class EquationGenerator {
+    private static final int DEFAULT_LENGTH = 7;
+    private static final String DEFAULT_OUTPUT = "equations-all.txt";
+
+    private final int length;
+    private final int prefixLength;
+
+    /**
+     * Creates a generator for equations of the given length.
+     *
+     * @param length The number of symbols in each equation.
+     * @pre length >= 3
+     */
+    public EquationGenerator(int length) {
+        if (length < 3) {
+            throw new IllegalArgumentException("Equations need at least 3 symbols: " + length);
+        }
+        this.length = length;
+        this.prefixLength = Math.min(length <= 8 ? 2 : 3, length - 1);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int length = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_LENGTH;
+        String output = args.length > 1 ? args[1] : DEFAULT_OUTPUT;
+        long start = System.nanoTime();
+        long count;
+        try (Writer out = new BufferedWriter(new FileWriter(output))) {
+            count = new EquationGenerator(length).generate(out);
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("Wrote " + count + " equations of length " + length + " to " + output
+                + " in " + millis + " ms");
+    }
+
+    /**
+     * Writes every valid equation, one per line, in symbol order.
+     *
+     * @param out The destination of the equations.
+     * @return The number of equations written.
+     * @throws IOException If writing fails.
+     * @pre out is not null.
+     * @post out holds all valid equations of this generator's length.
+     */
+    public long generate(Writer out) throws IOException {
+        int prefixCount = 1;
+        for (int i = 0; i < prefixLength; i++) {
+            prefixCount *= Symbols.COUNT;
+        }
+        long[] count = new long[1];
+        try {
+            IntStream.range(0, prefixCount)
+                    .parallel()
+                    .mapToObj(this::enumeratePrefix)
+                    .forEachOrdered(chunk -> {
+                        try {
+                            out.append(chunk);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        count[0] += chunk.length() / (length + 1);
+                    });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        out.flush();
+        return count[0];
+    }
+
+    /**
+     * Collects every valid equation into a list. Intended for short lengths.
+     *
+     * @return The valid equations in symbol order.
+     */
+    public List<String> generateAll() {
+        StringWriter out = new StringWriter();
+        try {
+            generate(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        List<String> equations = new ArrayList<>();
+        StringBuffer buffer = out.getBuffer();
+        for (int i = 0; i < buffer.length(); i += length + 1) {
+            equations.add(buffer.substring(i, i + length));
+        }
+        return equations;
+    }
+
+    /**
+     * Enumerates all valid equations starting with the prefix of the given index.
+     */
+    private StringBuilder enumeratePrefix(int prefixIndex) {
+        Search search = new Search(prefixIndex);
+        search.extend(0, -1, 0);
+        return search.output;
+    }
+
+    /**
+     * Depth-first search state of one prefix task.
+     */
+    private final class Search {
+        private final int[] prefix = new int[prefixLength];
+        private final char[] buffer = new char[length];
+        private final CharBuffer text = CharBuffer.wrap(buffer);
+        private final ExpressionEvaluator evaluator = new ExpressionEvaluator();
+        private final StringBuilder output = new StringBuilder();
+
+        Search(int prefixIndex) {
+            for (int i = prefixLength - 1; i >= 0; i--) {
+                prefix[i] = prefixIndex % Symbols.COUNT;
+                prefixIndex /= Symbols.COUNT;
+            }
+        }
+
+        /**
+         * Places every allowed symbol at pos and recurses.
+         *
+         * @param pos       The position to fill.
+         * @param equalsPos The position of '=', or -1 if not placed yet.
+         * @param leftValue The value of the left-hand side once '=' is placed.
+         */
+        void extend(int pos, int equalsPos, int leftValue) {
+            if (pos == length) {
+                if (evaluator.evaluate(text, equalsPos + 1, length) == ExpressionEvaluator.Result.OK
+                        && evaluator.value() == leftValue) {
+                    output.append(buffer).append('\n');
+                }
+                return;
+            }
+            boolean afterDigit = pos > 0 && Symbols.isDigit(Symbols.indexOf(buffer[pos - 1]));
+            boolean mustPlaceEquals = equalsPos < 0 && pos == length - 2;
+            if (equalsPos < 0 && pos > length - 2) {
+                return;
+            }
+            int from = pos < prefixLength ? prefix[pos] : 0;
+            int to = pos < prefixLength ? prefix[pos] + 1 : Symbols.COUNT;
+            for (int symbol = from; symbol < to; symbol++) {
+                buffer[pos] = Symbols.symbol(symbol);
+                if (symbol == Symbols.EQUALS) {
+                    if (equalsPos >= 0 || !afterDigit || pos > length - 2) {
+                        continue;
+                    }
+                    if (evaluator.evaluate(text, 0, pos) != ExpressionEvaluator.Result.OK) {
+                        continue;
+                    }
+                    int value = evaluator.value();
+                    int rightLength = length - pos - 1;
+                    if (value < minValue(rightLength) || value > maxValue(rightLength)) {
+                        continue;
+                    }
+                    extend(pos + 1, pos, value);
+                } else if (mustPlaceEquals) {
+                    continue;
+                } else if (Symbols.isDigit(symbol)) {
+                    extend(pos + 1, equalsPos, leftValue);
+                } else if (afterDigit && pos < length - 1) {
+                    extend(pos + 1, equalsPos, leftValue);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the largest value an expression of the given length can have: all nines.
+     */
+    private static long maxValue(int length) {
+        return length >= 10 ? Integer.MAX_VALUE : pow10(length) - 1;
+    }
+
+    /**
+     * Returns the smallest value an expression of the given length can have, which is
+     * reached by subtracting the largest number that fits from zero, as in "0-99".
+     */
+    private static long minValue(int length) {
+        if (length < 3) {
+            return 0;
+        }
+        return length >= 12 ? Integer.MIN_VALUE : -(pow10(length - 2) - 1);
+    }
+
+    private static long pow10(int exponent) {
+        long result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= 10;
+        }
+        return result;
+    }
+}
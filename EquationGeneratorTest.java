@@ -0,0 +1,63 @@
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class EquationGeneratorTest {
+
+    /**
+     * Generates all equations of length 5 and compares them with a brute-force search.
+     *
+     * @pre None
+     * @post The generator returns exactly the strings that pass the model's rules, in symbol order.
+     */
+    @Test
+    public void testGenerateMatchesModelRules() {
+        NumberleModel model = new NumberleModel();
+        int length = 5;
+        List<String> expected = new ArrayList<>();
+        char[] buffer = new char[length];
+        int total = (int) Math.pow(Symbols.COUNT, length);
+        for (int n = 0; n < total; n++) {
+            int rest = n;
+            for (int i = length - 1; i >= 0; i--) {
+                buffer[i] = Symbols.symbol(rest % Symbols.COUNT);
+                rest /= Symbols.COUNT;
+            }
+            String candidate = new String(buffer);
+            if (model.isMathExpression(candidate)
+                    && !model.isConsecutiveOperators(candidate)
+                    && model.compareExpressions(candidate)) {
+                expected.add(candidate);
+            }
+        }
+        assertEquals(expected, new EquationGenerator(length).generateAll());
+    }
+
+    /**
+     * Generates all equations of length 7.
+     *
+     * @pre None
+     * @post Every equation of equations.txt is part of the generated dictionary.
+     */
+    @Test
+    public void testGenerateContainsDictionary() throws IOException {
+        List<String> equations = new EquationGenerator(7).generateAll();
+        assertEquals(86230, equations.size());
+        Set<String> generated = new HashSet<>(equations);
+        for (String line : Files.readAllLines(Paths.get(EquationDictionary.DEFAULT_TEXT_FILE))) {
+            String equation = line.trim();
+            if (!equation.isEmpty()) {
+                assertTrue(equation, generated.contains(equation));
+            }
+        }
+        assertFalse(generated.contains("2+3*2=9"));
+    }
+}
@@ -0,0 +1,283 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A query over an equation dictionary: a pattern of known symbols, bounds on how often
+ * symbols occur, and a range for the value of the right-hand side.
+ *
+ * Queries are answered from a {@link PositionalIndex} without looking at the equations: the
+ * pattern selects one position bitset per known symbol, counts use the index's at-least
+ * bitsets, and the value range its bit-sliced value column. Each constraint costs one pass
+ * over n / 64 words, a few microseconds for a hundred thousand equations.
+ *
+ * A query is built by chaining its methods, or parsed from text with {@link #parse(String)},
+ * and may be run against any number of indexes. It is not thread-safe while being built.
+ */
+public final class EquationQuery {
+    /** The symbol of a pattern that stands for any symbol. */
+    public static final char ANY = '?';
+
+    private String pattern;
+    private final int[] minCounts = new int[Symbols.COUNT];
+    private final int[] maxCounts = new int[Symbols.COUNT];
+    private long minValue = Long.MIN_VALUE;
+    private long maxValue = Long.MAX_VALUE;
+
+    /**
+     * Creates a query matching every equation.
+     */
+    public EquationQuery() {
+        Arrays.fill(maxCounts, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Parses a query. Terms are separated by spaces:
+     * <pre>
+     *   3?+??=??      a pattern, where ? stands for any symbol
+     *   count:*=2     '*' occurs exactly twice; the operators =, &lt;, &lt;=, &gt; and &gt;= are allowed
+     *   no:79         neither 7 nor 9 occurs
+     *   value&gt;50      the right-hand side is greater than 50; the same operators are allowed
+     * </pre>
+     *
+     * @param text The query.
+     * @return The query.
+     * @throws IllegalArgumentException If a term cannot be parsed.
+     */
+    public static EquationQuery parse(String text) {
+        EquationQuery query = new EquationQuery();
+        for (String term : text.trim().split("\\s+")) {
+            if (term.isEmpty()) {
+                continue;
+            }
+            if (term.startsWith("count:") && term.length() > 7) {
+                char symbol = term.charAt(6);
+                long[] range = parseRange(term.substring(7), term);
+                query.count(symbol, (int) Math.max(range[0], 0), (int) Math.min(range[1], Integer.MAX_VALUE));
+            } else if (term.startsWith("no:")) {
+                for (int i = 3; i < term.length(); i++) {
+                    query.without(term.charAt(i));
+                }
+            } else if (term.startsWith("value")) {
+                long[] range = parseRange(term.substring(5), term);
+                query.valueBetween(range[0], range[1]);
+            } else {
+                query.matching(term);
+            }
+        }
+        return query;
+    }
+
+    /** Parses "op number" into the inclusive range it admits. */
+    private static long[] parseRange(String comparison, String term) {
+        int digits = comparison.startsWith("<=") || comparison.startsWith(">=") ? 2 : 1;
+        long bound;
+        try {
+            bound = Long.parseLong(comparison.substring(Math.min(digits, comparison.length())));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Expected a comparison with a number in " + term);
+        }
+        switch (comparison.substring(0, Math.min(digits, comparison.length()))) {
+            case "=":
+                return new long[]{bound, bound};
+            case "<":
+                return new long[]{Long.MIN_VALUE, bound - 1};
+            case "<=":
+                return new long[]{Long.MIN_VALUE, bound};
+            case ">":
+                return new long[]{bound + 1, Long.MAX_VALUE};
+            case ">=":
+                return new long[]{bound, Long.MAX_VALUE};
+            default:
+                throw new IllegalArgumentException("Unknown comparison in " + term);
+        }
+    }
+
+    private static int symbolIndex(char symbol) {
+        int index = Symbols.indexOf(symbol);
+        if (index < 0) {
+            throw new IllegalArgumentException("Not an equation symbol: " + symbol);
+        }
+        return index;
+    }
+
+    /**
+     * Requires equations to match a pattern, symbol for symbol, where {@link #ANY} matches
+     * any symbol. Equations of another length never match.
+     *
+     * @param pattern The pattern.
+     * @return This query.
+     * @throws IllegalArgumentException If the pattern holds another character.
+     */
+    public EquationQuery matching(String pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            if (pattern.charAt(i) != ANY) {
+                symbolIndex(pattern.charAt(i));
+            }
+        }
+        this.pattern = pattern;
+        return this;
+    }
+
+    /**
+     * Requires a symbol to occur between min and max times, inclusive.
+     *
+     * @param symbol The symbol.
+     * @param min    The minimum number of occurrences.
+     * @param max    The maximum number of occurrences.
+     * @return This query.
+     * @throws IllegalArgumentException If the symbol is not in {@link Symbols#ALPHABET}.
+     */
+    public EquationQuery count(char symbol, int min, int max) {
+        int index = symbolIndex(symbol);
+        minCounts[index] = Math.max(minCounts[index], min);
+        maxCounts[index] = Math.min(maxCounts[index], max);
+        return this;
+    }
+
+    /**
+     * Requires a symbol to occur exactly the given number of times.
+     *
+     * @param symbol The symbol.
+     * @param times  The number of occurrences.
+     * @return This query.
+     */
+    public EquationQuery containing(char symbol, int times) {
+        return count(symbol, times, times);
+    }
+
+    /**
+     * Requires a symbol not to occur.
+     *
+     * @param symbol The symbol.
+     * @return This query.
+     */
+    public EquationQuery without(char symbol) {
+        return count(symbol, 0, 0);
+    }
+
+    /**
+     * Requires the right-hand side to evaluate to a value between min and max, inclusive.
+     *
+     * @param min The smallest value.
+     * @param max The largest value.
+     * @return This query.
+     */
+    public EquationQuery valueBetween(long min, long max) {
+        minValue = Math.max(minValue, min);
+        maxValue = Math.min(maxValue, max);
+        return this;
+    }
+
+    /**
+     * Runs the query.
+     *
+     * @param index The index of the dictionary.
+     * @return A new bitset of the dictionary indices of the matching equations.
+     */
+    public long[] run(PositionalIndex index) {
+        long[] result = index.all().clone();
+        int length = index.length();
+        if (pattern != null) {
+            if (pattern.length() != length) {
+                Arrays.fill(result, 0);
+                return result;
+            }
+            for (int pos = 0; pos < length; pos++) {
+                if (pattern.charAt(pos) != ANY) {
+                    and(result, index.atPosition(pos, Symbols.indexOf(pattern.charAt(pos))));
+                }
+            }
+        }
+        for (int symbol = 0; symbol < Symbols.COUNT; symbol++) {
+            if (minCounts[symbol] > maxCounts[symbol] || minCounts[symbol] > length) {
+                Arrays.fill(result, 0);
+                return result;
+            }
+            if (minCounts[symbol] > 0) {
+                and(result, index.atLeast(symbol, minCounts[symbol]));
+            }
+            if (maxCounts[symbol] < length) {
+                andNot(result, index.atLeast(symbol, maxCounts[symbol] + 1));
+            }
+        }
+        if (minValue != Long.MIN_VALUE || maxValue != Long.MAX_VALUE) {
+            index.andValueBetween(minValue, maxValue, result);
+        }
+        return result;
+    }
+
+    /**
+     * Counts the matching equations.
+     *
+     * @param index The index of the dictionary.
+     * @return The number of matches.
+     */
+    public int count(PositionalIndex index) {
+        int count = 0;
+        for (long word : run(index)) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the matching equations in dictionary order.
+     *
+     * @param index The index of the dictionary.
+     * @param limit The maximum number of equations returned.
+     * @return The first matches.
+     */
+    public List<String> find(PositionalIndex index, int limit) {
+        long[] result = run(index);
+        List<String> matches = new ArrayList<>();
+        for (int word = 0; word < result.length && matches.size() < limit; word++) {
+            long bits = result[word];
+            while (bits != 0 && matches.size() < limit) {
+                matches.add(index.get(word << 6 | Long.numberOfTrailingZeros(bits)));
+                bits &= bits - 1;
+            }
+        }
+        return matches;
+    }
+
+    private static void and(long[] result, long[] mask) {
+        for (int i = 0; i < result.length; i++) {
+            result[i] &= mask[i];
+        }
+    }
+
+    private static void andNot(long[] result, long[] mask) {
+        for (int i = 0; i < result.length; i++) {
+            result[i] &= ~mask[i];
+        }
+    }
+
+    /**
+     * Prints the equations matching a query. Usage:
+     * {@code java EquationQuery "query" [dictionary]}, where the dictionary defaults to
+     * equations.txt; see {@link #parse(String)} for the query syntax.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: java EquationQuery \"query\" [dictionary]");
+            System.exit(2);
+        }
+        EquationDictionary dictionary;
+        if (args.length > 1) {
+            String file = args[1];
+            dictionary = EquationDictionary.load(file, file.endsWith(".bin") ? file : file + ".bin");
+        } else {
+            dictionary = EquationDictionary.getDefault();
+        }
+        if (dictionary.isEmpty()) {
+            System.err.println("No equations found; run from the directory holding equations.txt");
+            System.exit(2);
+        }
+        EquationQuery query = parse(args[0]);
+        for (String equation : query.find(dictionary.getIndex(), Integer.MAX_VALUE)) {
+            System.out.println(equation);
+        }
+    }
+}
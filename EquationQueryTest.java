@@ -0,0 +1,83 @@
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class EquationQueryTest {
+    private static final List<String> EQUATIONS = List.of(
+            "3*4+2=14", "35+21=56", "30+12=42", "3*3*3=27", "99-19=80", "7*7-9=40", "12/3=4");
+
+    /**
+     * Runs parsed queries over a small dictionary.
+     *
+     * @pre Seven equations, one of them shorter than the others.
+     * @post Patterns, counts, exclusions and value ranges select the expected equations in
+     *       dictionary order.
+     */
+    @Test
+    public void testParse() {
+        PositionalIndex index = new PositionalIndex(EQUATIONS);
+        assertEquals(List.of("35+21=56", "30+12=42"), EquationQuery.parse("3?+??=??").find(index, 10));
+        assertEquals(List.of("3*3*3=27"), EquationQuery.parse("count:*=2").find(index, 10));
+        assertEquals(List.of("3*4+2=14", "3*3*3=27", "7*7-9=40"), EquationQuery.parse("count:*>=1").find(index, 10));
+        assertEquals(List.of("3*3*3=27"), EquationQuery.parse("no:9 no:1 count:3>0").find(index, 10));
+        assertEquals(List.of("35+21=56", "99-19=80"), EquationQuery.parse("value>50").find(index, 10));
+        assertEquals(List.of("3*3*3=27", "7*7-9=40"), EquationQuery.parse("value>=14 value<=42 no:+").find(index, 10));
+        assertEquals(0, EquationQuery.parse("12/3=4").count(index));
+        assertEquals(1, new EquationQuery().containing('=', 1).valueBetween(80, 80).count(index));
+        try {
+            EquationQuery.parse("value~3");
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // the comparison is unknown
+        }
+    }
+
+    /**
+     * Runs random queries over every valid equation of length 6.
+     *
+     * @pre Random patterns, counts, exclusions and value ranges.
+     * @post The index answers the same as filtering the list.
+     */
+    @Test
+    public void testMatchesScan() {
+        List<String> equations = new EquationGenerator(6).generateAll();
+        PositionalIndex index = new PositionalIndex(equations);
+        ExpressionEvaluator evaluator = new ExpressionEvaluator();
+        Random random = new Random(3);
+        for (int i = 0; i < 300; i++) {
+            String equation = equations.get(random.nextInt(equations.size()));
+            char[] pattern = equation.toCharArray();
+            for (int pos = 0; pos < pattern.length; pos++) {
+                if (random.nextInt(3) > 0) {
+                    pattern[pos] = EquationQuery.ANY;
+                }
+            }
+            char counted = Symbols.symbol(random.nextInt(Symbols.COUNT));
+            int min = random.nextInt(3);
+            int max = min + random.nextInt(2);
+            char excluded = Symbols.symbol(random.nextInt(10));
+            long low = random.nextInt(200) - 20;
+            long high = low + random.nextInt(500);
+            EquationQuery query = new EquationQuery().matching(new String(pattern)).count(counted, min, max)
+                    .without(excluded).valueBetween(low, high);
+
+            List<String> expected = equations.stream().filter(e -> {
+                for (int pos = 0; pos < pattern.length; pos++) {
+                    if (pattern[pos] != EquationQuery.ANY && pattern[pos] != e.charAt(pos)) {
+                        return false;
+                    }
+                }
+                long occurrences = e.chars().filter(c -> c == counted).count();
+                int equals = e.indexOf('=');
+                evaluator.evaluate(e, equals + 1, e.length());
+                return occurrences >= min && occurrences <= max && e.indexOf(excluded) < 0
+                        && evaluator.value() >= low && evaluator.value() <= high;
+            }).collect(Collectors.toList());
+            assertEquals(new String(pattern), expected, query.find(index, Integer.MAX_VALUE));
+        }
+    }
+}
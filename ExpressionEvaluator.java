@@ -0,0 +1,262 @@
+/**
+ * Single-pass integer evaluator for the arithmetic used by Numberle equations.
+ *
+ * The evaluator reads the expression directly from a {@link CharSequence} and keeps its
+ * operands and operators in fixed-size int arrays, so evaluating an expression does not box
+ * values or allocate intermediate strings. Errors such as division by zero or overflow are
+ * reported as explicit {@link Result} values instead of exceptions.
+ *
+ * Instances are not thread-safe; use one evaluator per thread.
+ */
+public final class ExpressionEvaluator {
+
+    /**
+     * Outcome of an evaluation.
+     */
+    public enum Result {
+        /** The expression was evaluated (for equations: both sides are equal). */
+        OK,
+        /** The equation is well formed but its two sides differ. */
+        NOT_EQUAL,
+        /** A division by zero was attempted. */
+        DIVISION_BY_ZERO,
+        /** A number or an intermediate result does not fit in an int. */
+        OVERFLOW,
+        /** The input is not a well-formed expression or equation. */
+        MALFORMED
+    }
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private static final int PLUS = '+';
+    private static final int MINUS = '-';
+    private static final int TIMES = '*';
+    private static final int DIVIDE = '/';
+    private static final int OPEN = '(';
+
+    private int[] operands = new int[DEFAULT_CAPACITY];
+    private int[] operators = new int[DEFAULT_CAPACITY];
+    private int operandTop;
+    private int operatorTop;
+    private int value;
+    private int stop;
+
+    /**
+     * Evaluates the whole of the given expression.
+     *
+     * @param expression The expression to evaluate.
+     * @return OK if the expression was evaluated, otherwise the reason it could not be.
+     * @pre expression is not null.
+     * @post If OK is returned, {@link #value()} holds the result.
+     */
+    public Result evaluate(CharSequence expression) {
+        return evaluate(expression, 0, expression.length());
+    }
+
+    /**
+     * Evaluates the characters of the expression between start (inclusive) and end (exclusive).
+     *
+     * @param expression The text holding the expression.
+     * @param start      Index of the first character.
+     * @param end        Index after the last character.
+     * @return OK if the expression was evaluated, otherwise the reason it could not be.
+     * @pre 0 <= start <= end <= expression.length()
+     * @post If OK is returned, {@link #value()} holds the result.
+     */
+    public Result evaluate(CharSequence expression, int start, int end) {
+        Result result = parse(expression, start, end);
+        if (result == Result.OK && stop != end) {
+            return Result.MALFORMED; // '=' is not part of a plain expression
+        }
+        return result;
+    }
+
+    /**
+     * Evaluates both sides of an equation of the form {@code left=right} and compares them.
+     * Whitespace is ignored, as in {@link NumberleModel#compareExpressions(String)}.
+     *
+     * @param equation The equation to check.
+     * @return OK if both sides evaluate to the same value, NOT_EQUAL if they differ,
+     *         otherwise the reason the equation could not be evaluated.
+     * @pre equation is not null.
+     * @post The equation is not modified.
+     */
+    public Result compare(CharSequence equation) {
+        return compare(equation, 0, equation.length());
+    }
+
+    /**
+     * Compares both sides of the equation between start (inclusive) and end (exclusive).
+     *
+     * @param equation The text holding the equation.
+     * @param start    Index of the first character.
+     * @param end      Index after the last character.
+     * @return OK if both sides evaluate to the same value, NOT_EQUAL if they differ,
+     *         otherwise the reason the equation could not be evaluated.
+     * @pre 0 <= start <= end <= equation.length()
+     */
+    public Result compare(CharSequence equation, int start, int end) {
+        Result result = parse(equation, start, end);
+        if (result != Result.OK) {
+            return result;
+        }
+        if (stop == end) {
+            return Result.MALFORMED; // no '='
+        }
+        int left = value;
+        result = parse(equation, stop + 1, end);
+        if (result != Result.OK) {
+            return result;
+        }
+        if (stop != end) {
+            return Result.MALFORMED; // more than one '='
+        }
+        return left == value ? Result.OK : Result.NOT_EQUAL;
+    }
+
+    /**
+     * Returns the value produced by the last successful evaluation.
+     *
+     * @return The last computed value.
+     */
+    public int value() {
+        return value;
+    }
+
+    /**
+     * Parses and evaluates characters from start until end or the first '=' with the
+     * shunting-yard algorithm. The index where parsing stopped is left in {@code stop}.
+     */
+    private Result parse(CharSequence expression, int start, int end) {
+        ensureCapacity(end - start + 1);
+        operandTop = 0;
+        operatorTop = 0;
+        boolean expectOperand = true;
+        int i = start;
+        for (; i < end; i++) {
+            char c = expression.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (!expectOperand) {
+                    return Result.MALFORMED;
+                }
+                long number = 0;
+                while (i < end) {
+                    c = expression.charAt(i);
+                    if (c >= '0' && c <= '9') {
+                        number = number * 10 + (c - '0');
+                        if (number > Integer.MAX_VALUE) {
+                            return Result.OVERFLOW;
+                        }
+                    } else if (!Character.isWhitespace(c)) {
+                        break;
+                    }
+                    i++;
+                }
+                i--;
+                operands[operandTop++] = (int) number;
+                expectOperand = false;
+            } else if (c == '+' || c == '-' || c == '*' || c == '/') {
+                if (expectOperand) {
+                    return Result.MALFORMED;
+                }
+                while (operatorTop > 0 && precedence(operators[operatorTop - 1]) >= precedence(c)) {
+                    Result result = reduce();
+                    if (result != Result.OK) {
+                        return result;
+                    }
+                }
+                operators[operatorTop++] = c;
+                expectOperand = true;
+            } else if (c == '(') {
+                if (!expectOperand) {
+                    return Result.MALFORMED;
+                }
+                operators[operatorTop++] = OPEN;
+            } else if (c == ')') {
+                if (expectOperand) {
+                    return Result.MALFORMED;
+                }
+                while (operatorTop > 0 && operators[operatorTop - 1] != OPEN) {
+                    Result result = reduce();
+                    if (result != Result.OK) {
+                        return result;
+                    }
+                }
+                if (operatorTop == 0) {
+                    return Result.MALFORMED;
+                }
+                operatorTop--; // Discard '('
+            } else if (c == '=') {
+                break;
+            } else if (!Character.isWhitespace(c)) {
+                return Result.MALFORMED;
+            }
+        }
+        stop = i;
+        if (expectOperand) {
+            return Result.MALFORMED;
+        }
+        while (operatorTop > 0) {
+            if (operators[operatorTop - 1] == OPEN) {
+                return Result.MALFORMED;
+            }
+            Result result = reduce();
+            if (result != Result.OK) {
+                return result;
+            }
+        }
+        value = operands[0];
+        return Result.OK;
+    }
+
+    /**
+     * Applies the operator on top of the operator stack to the two topmost operands.
+     */
+    private Result reduce() {
+        int operator = operators[--operatorTop];
+        long operand2 = operands[--operandTop];
+        long operand1 = operands[operandTop - 1];
+        long result;
+        switch (operator) {
+            case PLUS:
+                result = operand1 + operand2;
+                break;
+            case MINUS:
+                result = operand1 - operand2;
+                break;
+            case TIMES:
+                result = operand1 * operand2;
+                break;
+            case DIVIDE:
+                if (operand2 == 0) {
+                    return Result.DIVISION_BY_ZERO;
+                }
+                result = operand1 / operand2;
+                break;
+            default:
+                return Result.MALFORMED;
+        }
+        if (result < Integer.MIN_VALUE || result > Integer.MAX_VALUE) {
+            return Result.OVERFLOW;
+        }
+        operands[operandTop - 1] = (int) result;
+        return Result.OK;
+    }
+
+    private static int precedence(int operator) {
+        if (operator == PLUS || operator == MINUS) {
+            return 1;
+        } else if (operator == TIMES || operator == DIVIDE) {
+            return 2;
+        } else {
+            return 0;
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (operands.length < capacity) {
+            operands = new int[capacity];
+            operators = new int[capacity];
+        }
+    }
+}
@@ -0,0 +1,73 @@
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ExpressionEvaluatorTest {
+
+    /**
+     * Evaluates expressions using operator precedence and left associativity.
+     *
+     * @pre The expressions are well formed.
+     * @post The evaluated values match integer arithmetic.
+     */
+    @Test
+    public void testEvaluatePrecedence() {
+        ExpressionEvaluator evaluator = new ExpressionEvaluator();
+        assertEquals(ExpressionEvaluator.Result.OK, evaluator.evaluate("2+3*2"));
+        assertEquals(8, evaluator.value());
+        assertEquals(ExpressionEvaluator.Result.OK, evaluator.evaluate("8-3-2"));
+        assertEquals(3, evaluator.value());
+        assertEquals(ExpressionEvaluator.Result.OK, evaluator.evaluate("7/2*2"));
+        assertEquals(6, evaluator.value());
+        assertEquals(ExpressionEvaluator.Result.OK, evaluator.evaluate("(1+2)*3"));
+        assertEquals(9, evaluator.value());
+    }
+
+    /**
+     * Compares both sides of an equation.
+     *
+     * @pre The equations contain exactly one '='.
+     * @post Returns OK only when both sides are equal.
+     */
+    @Test
+    public void testCompare() {
+        ExpressionEvaluator evaluator = new ExpressionEvaluator();
+        assertEquals(ExpressionEvaluator.Result.OK, evaluator.compare("2+3*2=8"));
+        assertEquals(ExpressionEvaluator.Result.OK, evaluator.compare("9/3=2+1"));
+        assertEquals(ExpressionEvaluator.Result.OK, evaluator.compare(" 1 2 + 3 = 15"));
+        assertEquals(ExpressionEvaluator.Result.NOT_EQUAL, evaluator.compare("2+3=6"));
+    }
+
+    /**
+     * Reports division by zero and overflow as explicit results.
+     *
+     * @pre None
+     * @post The corresponding result is returned instead of an exception.
+     */
+    @Test
+    public void testArithmeticErrors() {
+        ExpressionEvaluator evaluator = new ExpressionEvaluator();
+        assertEquals(ExpressionEvaluator.Result.DIVISION_BY_ZERO, evaluator.compare("5/0=1"));
+        assertEquals(ExpressionEvaluator.Result.DIVISION_BY_ZERO, evaluator.compare("1=5/(2-2)"));
+        assertEquals(ExpressionEvaluator.Result.OVERFLOW, evaluator.compare("99999*99999=1"));
+        assertEquals(ExpressionEvaluator.Result.OVERFLOW, evaluator.evaluate("99999999999"));
+    }
+
+    /**
+     * Rejects inputs that are not well-formed equations.
+     *
+     * @pre None
+     * @post MALFORMED is returned.
+     */
+    @Test
+    public void testMalformed() {
+        ExpressionEvaluator evaluator = new ExpressionEvaluator();
+        assertEquals(ExpressionEvaluator.Result.MALFORMED, evaluator.compare("1+2+3"));
+        assertEquals(ExpressionEvaluator.Result.MALFORMED, evaluator.compare("1=1=1"));
+        assertEquals(ExpressionEvaluator.Result.MALFORMED, evaluator.compare("=5"));
+        assertEquals(ExpressionEvaluator.Result.MALFORMED, evaluator.compare("5+=5"));
+        assertEquals(ExpressionEvaluator.Result.MALFORMED, evaluator.compare("-1+3=2"));
+        assertEquals(ExpressionEvaluator.Result.MALFORMED, evaluator.compare("(1+2=3"));
+        assertEquals(ExpressionEvaluator.Result.MALFORMED, evaluator.compare("1a+2=3"));
+    }
+}
@@ -0,0 +1,462 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * A bounded, thread-safe cache of feedback codes by (target, guess).
+ *
+ * Both equations of a pair are packed by {@link PackedEquations#pack(CharSequence)} into one
+ * long, so a lookup neither allocates nor hashes strings. Pairs that do not pack (longer than
+ * {@link #MAX_LENGTH} or with symbols outside {@link Symbols#ALPHABET}) are scored without
+ * the cache.
+ *
+ * The cache is split into segments, each guarded by its own lock and holding an
+ * open-addressing table over primitive arrays. A hit only reads the table optimistically and
+ * marks the pair as referenced, so it takes no lock. When a segment is full,
+ * {@link Policy#LRU} evicts a pair that has not been used recently, found by a CLOCK sweep
+ * over the reference marks, the usual approximation of LRU. {@link Policy#TINY_LFU} first
+ * compares access frequencies, estimated by a small count-min sketch of 4-bit
+ * counters that halves itself periodically, and only admits the new pair if it is used more
+ * often than the pair it would evict, so a burst of one-off guesses cannot flush the popular
+ * ones.
+ */
+public final class FeedbackCache {
+    /** Eviction and admission policies. */
+    public enum Policy {
+        /** Admit every pair and evict one that has not been used recently. */
+        LRU,
+        /** Admit a pair only if it is used more often than the one it would evict. */
+        TINY_LFU
+    }
+
+    /** Longest equation that is cached. */
+    public static final int MAX_LENGTH = PackedEquations.MAX_LENGTH;
+
+    private static final int BITS_PER_EQUATION = 4 * MAX_LENGTH;
+    private static final int MAX_SEGMENTS = 16;
+    private static final int MIN_SEGMENT_CAPACITY = 64;
+
+    private final Segment[] segments;
+    private final int segmentShift;
+    private final int capacity;
+    private final Policy policy;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    /**
+     * Creates a cache.
+     *
+     * @param capacity The maximum number of pairs held.
+     * @param policy   How pairs are admitted and evicted.
+     * @throws IllegalArgumentException If capacity is not positive.
+     */
+    public FeedbackCache(int capacity, Policy policy) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        int count = 1;
+        while (count < MAX_SEGMENTS && capacity / (count * 2) >= MIN_SEGMENT_CAPACITY) {
+            count *= 2;
+        }
+        this.segments = new Segment[count];
+        this.segmentShift = 64 - Integer.numberOfTrailingZeros(count);
+        int segmentCapacity = (capacity + count - 1) / count;
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(segmentCapacity, policy == Policy.TINY_LFU);
+        }
+        this.capacity = segmentCapacity * count;
+        this.policy = policy;
+    }
+
+    /**
+     * Creates a cache with the size and policy given by the system properties
+     * {@code numberle.feedbackCache} (the capacity, 0 or missing for no cache) and
+     * {@code numberle.feedbackCache.policy} (LRU or TINY_LFU, the default).
+     *
+     * @return The cache, or null if none is configured.
+     * @throws IllegalArgumentException If a property is malformed.
+     */
+    public static FeedbackCache fromSystemProperties() {
+        int capacity = Integer.getInteger("numberle.feedbackCache", 0);
+        if (capacity <= 0) {
+            return null;
+        }
+        return new FeedbackCache(capacity, Policy.valueOf(System.getProperty("numberle.feedbackCache.policy", "TINY_LFU")));
+    }
+
+    /**
+     * Scores a guess against the target, reusing the code of an earlier identical pair.
+     *
+     * @param target The target equation.
+     * @param guess  The guessed equation.
+     * @return The packed feedback code, see {@link FeedbackCode#score(CharSequence, CharSequence)}.
+     * @pre target and guess are not null and have the same length.
+     */
+    public int score(CharSequence target, CharSequence guess) {
+        long key = key(target, guess);
+        if (key < 0) {
+            return FeedbackCode.score(target, guess);
+        }
+        long hash = mix(key);
+        Segment segment = segments[(int) (hash >>> segmentShift) & (segments.length - 1)];
+        int code = segment.get(key, hash);
+        if (code >= 0) {
+            hits.increment();
+            return code;
+        }
+        misses.increment();
+        code = FeedbackCode.score(target, guess);
+        segment.put(key, hash, code, this);
+        return code;
+    }
+
+    /**
+     * Packs a pair of equations into a cache key.
+     *
+     * @param target The target equation.
+     * @param guess  The guessed equation.
+     * @return The key, or -1 if the pair cannot be packed.
+     */
+    static long key(CharSequence target, CharSequence guess) {
+        long t = PackedEquations.pack(target);
+        long g = PackedEquations.pack(guess);
+        return t < 0 || g < 0 ? -1 : t << BITS_PER_EQUATION | g;
+    }
+
+    /** The finalizer of MurmurHash3; segments use the high bits and tables the low bits. */
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xFF51AFD7ED558CCDL;
+        key ^= key >>> 33;
+        key *= 0xC4CEB9FE1A85EC53L;
+        return key ^ (key >>> 33);
+    }
+
+    /** Number of lookups answered from the cache. */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /** Number of lookups that had to score the pair. */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the fraction of lookups answered from the cache.
+     *
+     * @return The hit rate, or 0 before the first lookup.
+     */
+    public double getHitRate() {
+        long hits = getHits();
+        long total = hits + getMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /** Number of pairs evicted to make room for others. */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /** Number of scored pairs that {@link Policy#TINY_LFU} did not admit. */
+    public long getRejections() {
+        return rejections.sum();
+    }
+
+    /** Number of pairs held. */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /** Maximum number of pairs held, rounded up to a multiple of the segment count. */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    /** Removes every pair and resets the statistics. */
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+        rejections.reset();
+    }
+
+    /**
+     * Returns the statistics as "name value" lines, in the format of {@link GameMetrics#dump()}.
+     *
+     * @return The statistics.
+     */
+    public String dump() {
+        return "feedbackCache.size " + size() + '\n'
+                + "feedbackCache.hits " + getHits() + '\n'
+                + "feedbackCache.misses " + getMisses() + '\n'
+                + "feedbackCache.evictions " + getEvictions() + '\n'
+                + "feedbackCache.rejections " + getRejections() + '\n';
+    }
+
+    @Override
+    public String toString() {
+        return String.format("feedback cache (%s): %d/%d pairs, %d hits, %d misses, %.1f%% hit rate, %d evictions, %d rejections",
+                policy, size(), capacity, getHits(), getMisses(), 100 * getHitRate(), getEvictions(), getRejections());
+    }
+
+    /**
+     * One lock's share of the cache. Entries live in parallel arrays and the table maps hash
+     * slots to entry index + 1 with linear probing. Lookups read optimistically and only
+     * mark the entry as referenced; the clock hand clears those marks while it looks for an
+     * entry to evict, so pairs used since its last pass survive it.
+     */
+    private static final class Segment {
+        private final StampedLock lock = new StampedLock();
+        private final int capacity;
+        private final int[] table;
+        private final int mask;
+        private final long[] keys;
+        private final short[] codes;
+        private final boolean[] referenced;
+        private final FrequencySketch sketch;
+        private int size;
+        private int hand;
+
+        Segment(int capacity, boolean admission) {
+            this.capacity = capacity;
+            this.table = new int[Integer.highestOneBit(capacity) << 2];
+            this.mask = table.length - 1;
+            this.keys = new long[capacity];
+            this.codes = new short[capacity];
+            this.referenced = new boolean[capacity];
+            this.sketch = admission ? new FrequencySketch(capacity) : null;
+        }
+
+        int get(long key, long hash) {
+            long stamp = lock.tryOptimisticRead();
+            int entry = find(key, hash);
+            int code = entry < 0 ? -1 : codes[entry];
+            if (!lock.validate(stamp)) {
+                stamp = lock.readLock();
+                try {
+                    entry = find(key, hash);
+                    code = entry < 0 ? -1 : codes[entry];
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+            if (entry >= 0) {
+                // A racy write: at worst a pair that was just replaced keeps its mark.
+                referenced[entry] = true;
+                if (sketch != null) {
+                    sketch.increment(hash);
+                }
+            }
+            return code;
+        }
+
+        void put(long key, long hash, int code, FeedbackCache owner) {
+            long stamp = lock.writeLock();
+            try {
+                if (sketch != null) {
+                    sketch.increment(hash);
+                }
+                if (find(key, hash) >= 0) {
+                    // Another thread scored the same pair first.
+                    return;
+                }
+                int entry;
+                if (size < capacity) {
+                    entry = size++;
+                } else {
+                    entry = victim();
+                    if (sketch != null && sketch.frequency(hash) <= sketch.frequency(mix(keys[entry]))) {
+                        owner.rejections.increment();
+                        return;
+                    }
+                    remove(slotOf(keys[entry]));
+                    hand = (entry + 1) % capacity;
+                    owner.evictions.increment();
+                }
+                keys[entry] = key;
+                codes[entry] = (short) code;
+                referenced[entry] = false;
+                int slot = (int) hash & mask;
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = entry + 1;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        int size() {
+            long stamp = lock.readLock();
+            try {
+                return size;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        void clear() {
+            long stamp = lock.writeLock();
+            try {
+                Arrays.fill(table, 0);
+                size = 0;
+                hand = 0;
+                if (sketch != null) {
+                    sketch.clear();
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        /** Advances the clock hand to the first entry not referenced since its last pass. */
+        private int victim() {
+            while (referenced[hand]) {
+                referenced[hand] = false;
+                hand = (hand + 1) % capacity;
+            }
+            return hand;
+        }
+
+        /**
+         * Returns the entry of a key, or -1. The probe is bounded because an optimistic
+         * reader may see the table in the middle of a change.
+         */
+        private int find(long key, long hash) {
+            int slot = (int) hash & mask;
+            for (int probes = 0; probes < table.length; probes++) {
+                int entry = table[slot] - 1;
+                if (entry < 0) {
+                    return -1;
+                }
+                if (keys[entry] == key) {
+                    return entry;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        /** Returns the table slot of a cached key. */
+        private int slotOf(long key) {
+            int slot = (int) mix(key) & mask;
+            while (keys[table[slot] - 1] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        /** Empties a table slot, shifting later entries of its probe run back. */
+        private void remove(int slot) {
+            int hole = slot;
+            int probe = (slot + 1) & mask;
+            while (table[probe] != 0) {
+                int home = (int) mix(keys[table[probe] - 1]) & mask;
+                // The entry may fill the hole unless its home lies cyclically in (hole, probe].
+                boolean stays = hole <= probe ? hole < home && home <= probe : hole < home || home <= probe;
+                if (!stays) {
+                    table[hole] = table[probe];
+                    hole = probe;
+                }
+                probe = (probe + 1) & mask;
+            }
+            table[hole] = 0;
+        }
+    }
+
+    /**
+     * Count-min sketch with four 4-bit counters per key, sixteen counters to a long. After
+     * ten increments per cached pair all counters are halved, so old popularity fades. Hits
+     * increment it without the segment lock, so counters and the number of increments are
+     * only changed by compare-and-set, and the thread that takes the count past the sample
+     * size halves the counters.
+     */
+    private static final class FrequencySketch {
+        private static final long[] SEEDS = {
+                0x97CB3127B9F1D4A5L, 0xE2B5C9A1D3F47B69L, 0x9AE16A3B2F90404FL, 0xCBF29CE484222325L};
+        private static final long HALF_MASK = 0x7777777777777777L;
+
+        private final AtomicLongArray table;
+        private final int mask;
+        private final int sampleSize;
+        private final AtomicInteger additions = new AtomicInteger();
+
+        FrequencySketch(int capacity) {
+            int length = Integer.highestOneBit(Math.max(capacity, 16) - 1) << 1;
+            this.table = new AtomicLongArray(length);
+            this.mask = length - 1;
+            this.sampleSize = 10 * capacity;
+        }
+
+        int frequency(long hash) {
+            int frequency = 15;
+            for (long seed : SEEDS) {
+                long h = rehash(hash, seed);
+                frequency = Math.min(frequency, (int) (table.get((int) h & mask) >>> offset(h)) & 15);
+            }
+            return frequency;
+        }
+
+        void increment(long hash) {
+            boolean added = false;
+            for (long seed : SEEDS) {
+                long h = rehash(hash, seed);
+                int index = (int) h & mask;
+                int offset = offset(h);
+                long counters = table.get(index);
+                while (((counters >>> offset) & 15) < 15) {
+                    if (table.compareAndSet(index, counters, counters + (1L << offset))) {
+                        added = true;
+                        break;
+                    }
+                    counters = table.get(index);
+                }
+            }
+            if (added) {
+                int count = additions.incrementAndGet();
+                // >= rather than ==: if another increment gets in first, that thread halves.
+                if (count >= sampleSize && additions.compareAndSet(count, count / 2)) {
+                    for (int i = 0; i < table.length(); i++) {
+                        long counters = table.get(i);
+                        while (!table.compareAndSet(i, counters, (counters >>> 1) & HALF_MASK)) {
+                            counters = table.get(i);
+                        }
+                    }
+                }
+            }
+        }
+
+        void clear() {
+            for (int i = 0; i < table.length(); i++) {
+                table.set(i, 0);
+            }
+            additions.set(0);
+        }
+
+        private static long rehash(long hash, long seed) {
+            long h = (hash ^ seed) * 0x9E3779B97F4A7C15L;
+            return h ^ (h >>> 29);
+        }
+
+        /** Bit offset of the counter within its long, from the top four bits of the hash. */
+        private static int offset(long h) {
+            return (int) (h >>> 60) << 2;
+        }
+    }
+}
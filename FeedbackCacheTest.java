@@ -0,0 +1,116 @@
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class FeedbackCacheTest {
+    private static final List<String> EQUATIONS = List.of(
+            "2+3*2=8", "4-1*3=1", "9-3*2=3", "1+1+1=3", "8/2+1=5", "6*2-3=9", "7+2-4=5", "3*3-1=8");
+
+    /**
+     * Scores many pairs through a cache much smaller than their number.
+     *
+     * @pre Both policies; 64 distinct pairs and room for 16.
+     * @post Every code equals the uncached score, the cache never exceeds its capacity, and
+     *       hits and misses add up to the lookups.
+     */
+    @Test
+    public void testMatchesScore() {
+        for (FeedbackCache.Policy policy : FeedbackCache.Policy.values()) {
+            FeedbackCache cache = new FeedbackCache(16, policy);
+            Random random = new Random(7);
+            for (int i = 0; i < 5000; i++) {
+                String target = EQUATIONS.get(random.nextInt(EQUATIONS.size()));
+                String guess = EQUATIONS.get(random.nextInt(EQUATIONS.size()));
+                assertEquals(FeedbackCode.score(target, guess), cache.score(target, guess));
+            }
+            assertTrue(cache.size() <= cache.getCapacity());
+            assertEquals(5000, cache.getHits() + cache.getMisses());
+            assertTrue(cache.getHits() > 0);
+            assertTrue(cache.getEvictions() > 0);
+        }
+    }
+
+    /**
+     * Evicts from a full LRU cache.
+     *
+     * @pre Room for 2 pairs; A and B are cached and A is used again.
+     * @post Caching C evicts B, the least recently used pair, and keeps A.
+     */
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        FeedbackCache cache = new FeedbackCache(2, FeedbackCache.Policy.LRU);
+        cache.score(EQUATIONS.get(0), EQUATIONS.get(1));
+        cache.score(EQUATIONS.get(0), EQUATIONS.get(2));
+        cache.score(EQUATIONS.get(0), EQUATIONS.get(1));
+        cache.score(EQUATIONS.get(0), EQUATIONS.get(3));
+        assertEquals(1, cache.getEvictions());
+
+        long misses = cache.getMisses();
+        cache.score(EQUATIONS.get(0), EQUATIONS.get(1));
+        assertEquals(misses, cache.getMisses());
+        cache.score(EQUATIONS.get(0), EQUATIONS.get(2));
+        assertEquals(misses + 1, cache.getMisses());
+    }
+
+    /**
+     * Scans one-off pairs through a frequency-admitting cache holding popular pairs.
+     *
+     * @pre Room for 2 pairs, both used many times.
+     * @post The one-off pairs are rejected and the popular pairs stay cached.
+     */
+    @Test
+    public void testFrequentPairsSurviveScan() {
+        FeedbackCache cache = new FeedbackCache(2, FeedbackCache.Policy.TINY_LFU);
+        for (int i = 0; i < 5; i++) {
+            cache.score(EQUATIONS.get(0), EQUATIONS.get(1));
+            cache.score(EQUATIONS.get(0), EQUATIONS.get(2));
+        }
+        for (int i = 3; i < EQUATIONS.size(); i++) {
+            cache.score(EQUATIONS.get(0), EQUATIONS.get(i));
+        }
+        assertEquals(0, cache.getEvictions());
+        assertEquals(EQUATIONS.size() - 3, cache.getRejections());
+
+        long hits = cache.getHits();
+        cache.score(EQUATIONS.get(0), EQUATIONS.get(1));
+        cache.score(EQUATIONS.get(0), EQUATIONS.get(2));
+        assertEquals(hits + 2, cache.getHits());
+    }
+
+    /**
+     * Shares a cache between threads.
+     *
+     * @pre Four threads score random pairs through one small cache.
+     * @post Every thread gets the uncached scores.
+     */
+    @Test
+    public void testConcurrentLookups() throws Exception {
+        FeedbackCache cache = new FeedbackCache(32, FeedbackCache.Policy.TINY_LFU);
+        List<Thread> threads = new ArrayList<>();
+        boolean[] failed = new boolean[1];
+        for (int t = 0; t < 4; t++) {
+            Random random = new Random(t);
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 20000; i++) {
+                    String target = EQUATIONS.get(random.nextInt(EQUATIONS.size()));
+                    String guess = EQUATIONS.get(random.nextInt(EQUATIONS.size()));
+                    if (cache.score(target, guess) != FeedbackCode.score(target, guess)) {
+                        failed[0] = true;
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertFalse(failed[0]);
+        assertEquals(80000, cache.getHits() + cache.getMisses());
+    }
+}
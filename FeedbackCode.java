@@ -0,0 +1,221 @@
+import java.awt.Color;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Packed feedback for a guess.
+ *
+ * The colour of every position is stored as one base-3 digit of an int: position i
+ * contributes {@code color * 3^i}, with {@link #GRAY} = 0, {@link #ORANGE} = 1 and
+ * {@link #GREEN} = 2. A 7-symbol guess therefore maps to a code in [0, 2186].
+ *
+ * {@link #score(CharSequence, CharSequence)} computes the code in a linear pass with
+ * per-symbol counters packed into longs, and applies exactly the rules of the original
+ * {@link NumberleModel#getColor(String, String)}: when a guess repeats a symbol more often
+ * than the target holds it, only the first occurrence can be orange.
+ */
+public final class FeedbackCode {
+    public static final int GRAY = 0;
+    public static final int ORANGE = 1;
+    public static final int GREEN = 2;
+
+    /** Longest guess that can be scored; longer codes would not fit the packed counters. */
+    public static final int MAX_LENGTH = 15;
+
+    private static final int[] POW3 = new int[MAX_LENGTH + 1];
+
+    static {
+        POW3[0] = 1;
+        for (int i = 1; i < POW3.length; i++) {
+            POW3[i] = POW3[i - 1] * 3;
+        }
+    }
+
+    private FeedbackCode() {
+    }
+
+    /**
+     * Scores a guess against the target.
+     *
+     * @param target The target equation.
+     * @param guess  The guessed equation.
+     * @return The packed feedback code.
+     * @pre target and guess are not null, have the same length and are at most MAX_LENGTH long.
+     * @post Neither argument is modified.
+     */
+    public static int score(CharSequence target, CharSequence guess) {
+        int length = guess.length();
+        if (length != target.length() || length > MAX_LENGTH) {
+            throw new IllegalArgumentException("Cannot score a guess of length " + length
+                    + " against a target of length " + target.length());
+        }
+
+        // 4-bit counters per symbol: occurrences in target, in guess, and at matching positions.
+        long targetCounts = 0;
+        long guessCounts = 0;
+        long greenCounts = 0;
+        for (int i = 0; i < length; i++) {
+            int t = Symbols.indexOf(target.charAt(i));
+            int g = Symbols.indexOf(guess.charAt(i));
+            if (t >= 0) {
+                targetCounts += 1L << (t << 2);
+            }
+            if (g >= 0) {
+                guessCounts += 1L << (g << 2);
+                if (g == t) {
+                    greenCounts += 1L << (g << 2);
+                }
+            }
+        }
+
+        int code = 0;
+        int seen = 0;
+        for (int i = 0; i < length; i++) {
+            char c = guess.charAt(i);
+            int g = Symbols.indexOf(c);
+            int color;
+            if (c == target.charAt(i)) {
+                color = GREEN;
+            } else if (g < 0) {
+                color = scoreUnknownSymbol(target, guess, i, c);
+            } else {
+                int correct = field(targetCounts, g);
+                if (correct == 0) {
+                    color = GRAY;
+                } else if (field(guessCounts, g) > correct) {
+                    boolean first = (seen & (1 << g)) == 0;
+                    color = correct > field(greenCounts, g) && first ? ORANGE : GRAY;
+                } else {
+                    color = ORANGE;
+                }
+            }
+            if (g >= 0) {
+                seen |= 1 << g;
+            }
+            code += color * POW3[i];
+        }
+        return code;
+    }
+
+    /**
+     * Returns the colour of one position of a feedback code.
+     *
+     * @param code     The packed feedback code.
+     * @param position The position in the guess.
+     * @return GRAY, ORANGE or GREEN.
+     */
+    public static int colorAt(int code, int position) {
+        return code / POW3[position] % 3;
+    }
+
+    /**
+     * Checks if a feedback code marks every position green.
+     *
+     * @param code   The packed feedback code.
+     * @param length The length of the guess.
+     * @return True if the guess was correct.
+     */
+    public static boolean isSolved(int code, int length) {
+        return code == POW3[length] - 1;
+    }
+
+    /**
+     * Returns the number of distinct feedback codes for guesses of the given length.
+     *
+     * @param length The length of the guess.
+     * @return 3 to the power of length.
+     */
+    public static int patternCount(int length) {
+        return POW3[length];
+    }
+
+    /**
+     * Decodes a feedback code into the colours used by the grid.
+     *
+     * @param code   The packed feedback code.
+     * @param length The length of the guess.
+     * @return One colour per position.
+     */
+    public static Color[] toColors(int code, int length) {
+        Color[] colors = new Color[length];
+        for (int i = 0; i < length; i++) {
+            int color = code % 3;
+            code /= 3;
+            colors[i] = color == GREEN ? Color.GREEN : color == ORANGE ? Color.ORANGE : Color.GRAY;
+        }
+        return colors;
+    }
+
+    /**
+     * Decodes a feedback code into colour names per symbol, as used by the keyboard.
+     * When a symbol occurs more than once, its last occurrence wins.
+     *
+     * @param guess The guess the code was computed for.
+     * @param code  The packed feedback code.
+     * @return A map from each symbol of the guess to GREEN, ORANGE or GRAY.
+     */
+    public static Map<Character, String> toKeyColors(CharSequence guess, int code) {
+        Map<Character, String> colorMap = new HashMap<>();
+        for (int i = 0; i < guess.length(); i++) {
+            int color = code % 3;
+            code /= 3;
+            colorMap.put(guess.charAt(i), color == GREEN ? "GREEN" : color == ORANGE ? "ORANGE" : "GRAY");
+        }
+        return colorMap;
+    }
+
+    /**
+     * Decodes a feedback code into one letter per position: G for green, O for orange and
+     * - for gray. Used by the text front ends.
+     *
+     * @param code   The packed feedback code.
+     * @param length The length of the guess.
+     * @return The pattern, for example "GO--G-G".
+     */
+    public static String toPattern(int code, int length) {
+        char[] pattern = new char[length];
+        for (int i = 0; i < length; i++) {
+            int color = code % 3;
+            code /= 3;
+            pattern[i] = color == GREEN ? 'G' : color == ORANGE ? 'O' : '-';
+        }
+        return new String(pattern);
+    }
+
+    private static int field(long counts, int symbol) {
+        return (int) (counts >>> (symbol << 2)) & 0xF;
+    }
+
+    /**
+     * Scores one position holding a character outside the alphabet by counting it directly.
+     */
+    private static int scoreUnknownSymbol(CharSequence target, CharSequence guess, int position, char c) {
+        int correct = 0;
+        int guessCount = 0;
+        int have = 0;
+        int first = -1;
+        for (int j = 0; j < guess.length(); j++) {
+            boolean inTarget = target.charAt(j) == c;
+            boolean inGuess = guess.charAt(j) == c;
+            if (inTarget) {
+                correct++;
+            }
+            if (inGuess) {
+                guessCount++;
+                if (first < 0) {
+                    first = j;
+                }
+                if (inTarget) {
+                    have++;
+                }
+            }
+        }
+        if (correct == 0) {
+            return GRAY;
+        } else if (guessCount > correct) {
+            return correct > have && position == first ? ORANGE : GRAY;
+        } else {
+            return ORANGE;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+import org.junit.Test;
+
+import java.awt.Color;
+
+import static org.junit.Assert.*;
+
+public class FeedbackCodeTest {
+
+    /**
+     * Scores a guess that has the right symbols in partly wrong places.
+     *
+     * @pre target and guess have the same length.
+     * @post Matching positions are green and misplaced symbols are orange.
+     */
+    @Test
+    public void testScore() {
+        int code = FeedbackCode.score("2*3+2=8", "2+3*2=8");
+        assertEquals(2156, code);
+        assertEquals(FeedbackCode.GREEN, FeedbackCode.colorAt(code, 0));
+        assertEquals(FeedbackCode.ORANGE, FeedbackCode.colorAt(code, 1));
+        assertEquals(FeedbackCode.ORANGE, FeedbackCode.colorAt(code, 3));
+        assertFalse(FeedbackCode.isSolved(code, 7));
+        assertTrue(FeedbackCode.isSolved(FeedbackCode.score("2*3+2=8", "2*3+2=8"), 7));
+    }
+
+    /**
+     * Scores a guess that repeats a symbol more often than the target holds it.
+     *
+     * @pre The extra occurrence is not at a matching position.
+     * @post The extra occurrence is gray.
+     */
+    @Test
+    public void testScoreRepeatedSymbol() {
+        int code = FeedbackCode.score("12+3=15", "11+4=15");
+        assertEquals(FeedbackCode.GRAY, FeedbackCode.colorAt(code, 1));
+        assertEquals(2126, code);
+    }
+
+    /**
+     * Decodes a feedback code into grid colours and keyboard colour names.
+     *
+     * @pre The code was computed for the guess.
+     * @post The decoded colours match the code.
+     */
+    @Test
+    public void testDecode() {
+        int code = FeedbackCode.score("2*3+2=8", "2+3*2=8");
+        Color[] colors = FeedbackCode.toColors(code, 7);
+        assertEquals(Color.GREEN, colors[0]);
+        assertEquals(Color.ORANGE, colors[1]);
+        assertEquals("ORANGE", FeedbackCode.toKeyColors("2+3*2=8", code).get('*'));
+        assertEquals("GREEN", FeedbackCode.toKeyColors("2+3*2=8", code).get('='));
+    }
+}
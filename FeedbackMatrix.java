@@ -0,0 +1,373 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Precomputed feedback codes of every (guess, target) pair of a dictionary, held off the
+ * Java heap.
+ *
+ * Codes are stored row by row, one row per guess, in one byte per pair when the equations
+ * are short enough for 256 patterns and in two bytes otherwise. A dictionary of n equations
+ * needs n * n codes, 15 GB for the 86,230 equations of length 7, so the rows are spread over
+ * several buffers of at most 1 GB: direct buffers for a matrix computed in memory, or
+ * mappings of a file for a persisted one. Opening a file only maps it; pages are read when
+ * they are first used and shared with every other process mapping the same file.
+ *
+ * Rows are built in tiles of consecutive guesses, in parallel. A file records which tiles
+ * are complete, so a matrix can be built over several runs, a range of tiles at a time.
+ * Pairs in tiles that are not built yet are scored on the fly, so a partial matrix gives
+ * the same answers as a complete one, only slower.
+ *
+ * File layout, all integers big-endian:
+ * <pre>
+ *   header    64 bytes  magic "NUMF", version, equation count, code width, rows per tile,
+ *                       tile count, reserved, dictionary fingerprint (long), reserved
+ *   tiles     one byte per tile, 1 once the tile is complete
+ *   codes     from the next multiple of 4096: count * count codes, row by row
+ * </pre>
+ *
+ * Building a tile and scoring from it must not overlap on one instance; a matrix opened
+ * again after the build, in this or another process, sees every completed tile.
+ */
+public final class FeedbackMatrix implements EntropySolver.Scorer {
+    public static final int MAGIC = 0x4E554D46; // "NUMF"
+    public static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 64;
+    private static final int PAGE_SIZE = 4096;
+    private static final long MAX_BUFFER_SIZE = 1L << 30;
+    /** Tiles are sized to hold about this many bytes, unless the caller chooses otherwise. */
+    private static final long DEFAULT_TILE_SIZE = 8L << 20;
+
+    private final List<String> equations;
+    private final int[] packed;
+    private final int count;
+    private final int width;
+    private final int tileRows;
+    private final int tiles;
+    private final int bufferRows;
+    private final ByteBuffer[] buffers;
+    private final ByteBuffer tileMap;
+    private final int tileMapOffset;
+
+    private FeedbackMatrix(List<String> equations, int[] packed, int width, int tileRows, ByteBuffer[] buffers,
+                           ByteBuffer tileMap, int tileMapOffset) {
+        this.equations = equations;
+        this.packed = packed;
+        this.count = equations.size();
+        this.width = width;
+        this.tileRows = tileRows;
+        this.tiles = (count + tileRows - 1) / tileRows;
+        this.bufferRows = bufferRows(count, width, tileRows);
+        this.buffers = buffers;
+        this.tileMap = tileMap;
+        this.tileMapOffset = tileMapOffset;
+    }
+
+    /**
+     * Computes the complete matrix of a dictionary in direct memory, in parallel.
+     *
+     * @param equations The dictionary.
+     * @return The matrix.
+     * @pre equations is not empty and all equations have the same length.
+     */
+    public static FeedbackMatrix compute(List<String> equations) {
+        return compute(equations, PackedEquations.pack(equations));
+    }
+
+    /**
+     * Computes the complete matrix of a dictionary in direct memory, in parallel, scoring
+     * the equations the dictionary has already packed.
+     *
+     * @param dictionary The dictionary.
+     * @return The matrix.
+     * @pre dictionary is not empty and all equations have the same length.
+     */
+    public static FeedbackMatrix compute(EquationDictionary dictionary) {
+        return compute(dictionary.getEquations(), dictionary.getPacked());
+    }
+
+    private static FeedbackMatrix compute(List<String> equations, int[] packed) {
+        int width = widthOf(equations);
+        int tileRows = defaultTileRows(equations.size(), width);
+        int bufferRows = bufferRows(equations.size(), width, tileRows);
+        ByteBuffer[] buffers = new ByteBuffer[(equations.size() + bufferRows - 1) / bufferRows];
+        for (int i = 0; i < buffers.length; i++) {
+            int rows = Math.min(bufferRows, equations.size() - i * bufferRows);
+            buffers[i] = ByteBuffer.allocateDirect(rows * equations.size() * width);
+        }
+        FeedbackMatrix matrix = new FeedbackMatrix(equations, packed, width, tileRows, buffers,
+                ByteBuffer.allocate((equations.size() + tileRows - 1) / tileRows), 0);
+        matrix.buildAll();
+        return matrix;
+    }
+
+    /**
+     * Opens the matrix file of a dictionary, creating an empty one with tiles of about 8 MB
+     * if it does not exist. Nothing is built.
+     *
+     * @param file      The matrix file.
+     * @param equations The dictionary, in the order the matrix indexes it.
+     * @return The matrix.
+     * @throws IOException If the file cannot be mapped or belongs to another dictionary.
+     */
+    public static FeedbackMatrix open(Path file, List<String> equations) throws IOException {
+        return open(file, equations, defaultTileRows(equations.size(), widthOf(equations)));
+    }
+
+    /**
+     * Opens the matrix file of a dictionary, creating an empty one with tiles of about 8 MB
+     * if it does not exist, and scores unbuilt pairs from the equations the dictionary has
+     * already packed. Nothing is built.
+     *
+     * @param file       The matrix file.
+     * @param dictionary The dictionary.
+     * @return The matrix.
+     * @throws IOException If the file cannot be mapped or belongs to another dictionary.
+     */
+    public static FeedbackMatrix open(Path file, EquationDictionary dictionary) throws IOException {
+        List<String> equations = dictionary.getEquations();
+        return open(file, equations, dictionary.getPacked(), defaultTileRows(equations.size(), widthOf(equations)));
+    }
+
+    /**
+     * Opens the matrix file of a dictionary, creating an empty one if it does not exist.
+     *
+     * @param file      The matrix file.
+     * @param equations The dictionary, in the order the matrix indexes it.
+     * @param tileRows  The number of guesses per tile of a new file; an existing file keeps its own.
+     * @return The matrix.
+     * @throws IOException If the file cannot be mapped or belongs to another dictionary.
+     * @pre equations is not empty and all equations have the same length.
+     */
+    public static FeedbackMatrix open(Path file, List<String> equations, int tileRows) throws IOException {
+        return open(file, equations, PackedEquations.pack(equations), tileRows);
+    }
+
+    private static FeedbackMatrix open(Path file, List<String> equations, int[] packed, int tileRows)
+            throws IOException {
+        int count = equations.size();
+        int width = widthOf(equations);
+        long fingerprint = fingerprint(equations);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            boolean created = channel.size() == 0;
+            if (!created) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                channel.read(header, 0);
+                header.flip();
+                if (header.remaining() < HEADER_SIZE || header.getInt(0) != MAGIC) {
+                    throw new IOException("Not a feedback matrix: " + file);
+                }
+                if (header.getInt(4) != VERSION) {
+                    throw new IOException("Unsupported feedback matrix version " + header.getInt(4));
+                }
+                if (header.getInt(8) != count || header.getInt(12) != width || header.getLong(32) != fingerprint) {
+                    throw new IOException("The feedback matrix " + file + " was built for another dictionary");
+                }
+                tileRows = header.getInt(16);
+            }
+            int tiles = (count + tileRows - 1) / tileRows;
+            long dataOffset = align(HEADER_SIZE + tiles, PAGE_SIZE);
+            MappedByteBuffer head = channel.map(FileChannel.MapMode.READ_WRITE, 0, dataOffset);
+            if (created) {
+                head.putInt(0, MAGIC);
+                head.putInt(4, VERSION);
+                head.putInt(8, count);
+                head.putInt(12, width);
+                head.putInt(16, tileRows);
+                head.putInt(20, tiles);
+                head.putLong(32, fingerprint);
+            }
+            int bufferRows = bufferRows(count, width, tileRows);
+            ByteBuffer[] buffers = new ByteBuffer[(count + bufferRows - 1) / bufferRows];
+            for (int i = 0; i < buffers.length; i++) {
+                int rows = Math.min(bufferRows, count - i * bufferRows);
+                long offset = dataOffset + (long) i * bufferRows * count * width;
+                // Mapping past the end grows the file; the unbuilt rows take no disk space.
+                buffers[i] = channel.map(FileChannel.MapMode.READ_WRITE, offset, (long) rows * count * width);
+            }
+            if (created) {
+                head.force();
+            }
+            return new FeedbackMatrix(equations, packed, width, tileRows, buffers, head, HEADER_SIZE);
+        }
+    }
+
+    private static int widthOf(List<String> equations) {
+        return FeedbackCode.patternCount(equations.get(0).length()) <= 256 ? 1 : 2;
+    }
+
+    private static int defaultTileRows(int count, int width) {
+        return (int) Math.max(1, Math.min(count, DEFAULT_TILE_SIZE / ((long) count * width)));
+    }
+
+    /** Rows per buffer: whole tiles, as many as fit in MAX_BUFFER_SIZE. */
+    private static int bufferRows(int count, int width, int tileRows) {
+        long tileSize = (long) tileRows * count * width;
+        if (tileSize > MAX_BUFFER_SIZE) {
+            throw new IllegalArgumentException("A tile of " + tileRows + " rows exceeds " + MAX_BUFFER_SIZE + " bytes");
+        }
+        return (int) Math.min(count, tileRows * (MAX_BUFFER_SIZE / tileSize));
+    }
+
+    private static long align(long offset, int alignment) {
+        return (offset + alignment - 1) / alignment * alignment;
+    }
+
+    /** 64-bit FNV-1a over the equations, to tell a file's dictionary from another. */
+    private static long fingerprint(List<String> equations) {
+        long hash = 0xCBF29CE484222325L;
+        for (String equation : equations) {
+            for (int i = 0; i < equation.length(); i++) {
+                hash = (hash ^ equation.charAt(i)) * 0x100000001B3L;
+            }
+            hash = (hash ^ '\n') * 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Builds every tile that is not complete yet.
+     *
+     * @return The number of tiles built.
+     */
+    public int buildAll() {
+        return build(0, tiles);
+    }
+
+    /**
+     * Builds the incomplete tiles of a range, in parallel, and records them as complete once
+     * their codes are written, and for a file, flushed to disk.
+     *
+     * @param fromTile The first tile.
+     * @param toTile   The tile after the last.
+     * @return The number of tiles built.
+     * @pre 0 <= fromTile <= toTile <= getTileCount()
+     */
+    public int build(int fromTile, int toTile) {
+        int[] built = IntStream.range(fromTile, toTile).filter(tile -> !isTileBuilt(tile)).toArray();
+        Arrays.stream(built).parallel().forEach(this::buildTile);
+        for (ByteBuffer buffer : buffers) {
+            if (buffer instanceof MappedByteBuffer) {
+                ((MappedByteBuffer) buffer).force();
+            }
+        }
+        for (int tile : built) {
+            tileMap.put(tileMapOffset + tile, (byte) 1);
+        }
+        if (tileMap instanceof MappedByteBuffer) {
+            ((MappedByteBuffer) tileMap).force();
+        }
+        return built.length;
+    }
+
+    private void buildTile(int tile) {
+        int to = Math.min(count, (tile + 1) * tileRows);
+        for (int guess = tile * tileRows; guess < to; guess++) {
+            String guessed = equations.get(guess);
+            ByteBuffer buffer = buffers[guess / bufferRows];
+            int offset = (guess % bufferRows) * count * width;
+            for (int target = 0; target < count; target++) {
+                int code = packed != null ? PackedEquations.score(packed[target], packed[guess])
+                        : FeedbackCode.score(equations.get(target), guessed);
+                if (width == 1) {
+                    buffer.put(offset + target, (byte) code);
+                } else {
+                    buffer.putShort(offset + target * 2, (short) code);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the feedback code of a guess against a target, read from the matrix if the
+     * guess's tile is built and scored otherwise.
+     *
+     * @param guess  The dictionary index of the guess.
+     * @param target The dictionary index of the target.
+     * @return The packed feedback code.
+     */
+    @Override
+    public int score(int guess, int target) {
+        if (tileMap.get(tileMapOffset + guess / tileRows) == 0) {
+            return packed != null ? PackedEquations.score(packed[target], packed[guess])
+                    : FeedbackCode.score(equations.get(target), equations.get(guess));
+        }
+        ByteBuffer buffer = buffers[guess / bufferRows];
+        int index = (guess % bufferRows) * count + target;
+        return width == 1 ? buffer.get(index) & 0xFF : buffer.getShort(index * 2) & 0xFFFF;
+    }
+
+    /**
+     * Checks if the codes of a tile are stored.
+     *
+     * @param tile The tile.
+     * @return True if the tile is complete.
+     */
+    public boolean isTileBuilt(int tile) {
+        return tileMap.get(tileMapOffset + tile) != 0;
+    }
+
+    /** Number of tiles that are complete. */
+    public int getBuiltTiles() {
+        int built = 0;
+        for (int tile = 0; tile < tiles; tile++) {
+            built += isTileBuilt(tile) ? 1 : 0;
+        }
+        return built;
+    }
+
+    public int getTileCount() {
+        return tiles;
+    }
+
+    public int getTileRows() {
+        return tileRows;
+    }
+
+    /** Number of equations of the dictionary. */
+    public int size() {
+        return count;
+    }
+
+    /** Bytes the codes take once every tile is built. */
+    public long getCodeBytes() {
+        return (long) count * count * width;
+    }
+
+    /**
+     * Builds or extends a matrix file. Usage:
+     * {@code java FeedbackMatrix dictionary matrix-file [from-tile to-tile]}, where the
+     * dictionary is a text file or a compiled .bin file. Without a range every missing tile
+     * is built.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: java FeedbackMatrix dictionary matrix-file [from-tile to-tile]");
+            System.exit(2);
+        }
+        String file = args[0];
+        EquationDictionary dictionary = EquationDictionary.load(file, file.endsWith(".bin") ? file : file + ".bin");
+        if (dictionary.isEmpty()) {
+            System.err.println("No equations found in " + file);
+            System.exit(2);
+        }
+        FeedbackMatrix matrix = open(Paths.get(args[1]), dictionary);
+        int from = args.length > 3 ? Integer.parseInt(args[2]) : 0;
+        int to = args.length > 3 ? Math.min(Integer.parseInt(args[3]), matrix.getTileCount()) : matrix.getTileCount();
+        long start = System.nanoTime();
+        int built = matrix.build(from, to);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        System.out.printf("Built %d tiles of %d rows in %d ms; %d of %d tiles complete (%d MB of codes when complete)%n",
+                built, matrix.getTileRows(), millis, matrix.getBuiltTiles(), matrix.getTileCount(),
+                matrix.getCodeBytes() >> 20);
+    }
+}
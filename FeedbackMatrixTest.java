@@ -0,0 +1,68 @@
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class FeedbackMatrixTest {
+    private static final List<String> EQUATIONS = List.of(
+            "2+3*2=8", "4-1*3=1", "9-3*2=3", "1+1+1=3", "8/2+1=5", "6*2-3=9", "7+2-4=5");
+
+    /**
+     * Computes the matrix of a dictionary in memory.
+     *
+     * @pre Equations of length 5, whose codes fit a byte, and of length 7, which need two.
+     * @post Every stored code equals the score of the pair.
+     */
+    @Test
+    public void testCompute() {
+        List<String> shortEquations = new EquationGenerator(5).generateAll().subList(0, 300);
+        for (List<String> equations : List.of(shortEquations, EQUATIONS)) {
+            FeedbackMatrix matrix = FeedbackMatrix.compute(equations);
+            assertEquals(matrix.getTileCount(), matrix.getBuiltTiles());
+            for (int guess = 0; guess < equations.size(); guess++) {
+                for (int target = 0; target < equations.size(); target++) {
+                    assertEquals(FeedbackCode.score(equations.get(target), equations.get(guess)), matrix.score(guess, target));
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds a matrix file over two runs.
+     *
+     * @pre The file is empty; tiles hold 2 rows, and the first run builds tiles 0 and 1.
+     * @post After reopening, those tiles are complete and the rest is scored on the fly with
+     *       the same results; the second run builds the rest; another dictionary is refused.
+     */
+    @Test
+    public void testPartialBuild() throws IOException {
+        File file = File.createTempFile("feedback", ".matrix");
+        file.deleteOnExit();
+        FeedbackMatrix matrix = FeedbackMatrix.open(file.toPath(), EQUATIONS, 2);
+        assertEquals(4, matrix.getTileCount());
+        assertEquals(0, matrix.getBuiltTiles());
+        assertEquals(2, matrix.build(0, 2));
+
+        FeedbackMatrix reopened = FeedbackMatrix.open(file.toPath(), EQUATIONS);
+        assertEquals(2, reopened.getTileRows());
+        assertTrue(reopened.isTileBuilt(1));
+        assertFalse(reopened.isTileBuilt(2));
+        for (int guess = 0; guess < EQUATIONS.size(); guess++) {
+            for (int target = 0; target < EQUATIONS.size(); target++) {
+                assertEquals(FeedbackCode.score(EQUATIONS.get(target), EQUATIONS.get(guess)), reopened.score(guess, target));
+            }
+        }
+        assertEquals(2, reopened.buildAll());
+        assertEquals(4, FeedbackMatrix.open(file.toPath(), EQUATIONS).getBuiltTiles());
+
+        try {
+            FeedbackMatrix.open(file.toPath(), EQUATIONS.subList(1, EQUATIONS.size()));
+            fail("A matrix of another dictionary was opened");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage().contains("another dictionary"));
+        }
+    }
+}
@@ -1,20 +1,37 @@
 import javax.swing.*;
+import java.util.Arrays;
 
 public class GUIApp {
+    /**
+     * Opens the game window; with {@code --log} every game is also logged to standard output.
+     */
     public static void main(String[] args) {
+        EquationDictionary.preload();
+        boolean log = Arrays.asList(args).contains("--log");
 
         javax.swing.SwingUtilities.invokeLater(
                 new Runnable() {
                     public void run() {
-                        createAndShowGUI();
+                        createAndShowGUI(log ? AsyncGameLogger.getDefault() : GameLogger.NONE);
                     }
                 }
         );
     }
 
     public static void createAndShowGUI() {
-        INumberleModel model = new NumberleModel();
+        createAndShowGUI(GameLogger.NONE);
+    }
+
+    /**
+     * Opens the game window.
+     *
+     * @param logger The logger that records the games played in it.
+     * @pre logger is not null.
+     */
+    public static void createAndShowGUI(GameLogger logger) {
+        NumberleModel model = new NumberleModel();
+        model.setLogger(logger);
         NumberleController controller = new NumberleController(model);
         NumberleView view = new NumberleView(model, controller);
     }
-}
\ No newline at end of file
+}
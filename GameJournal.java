@@ -0,0 +1,356 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only binary journal of games, stored as a directory of segment files.
+ *
+ * Records are handed to an {@link AsyncGameLogger} and appended by its writer thread: each
+ * batch the thread drains is encoded into one buffer and written with a single
+ * {@link FileChannel#write}, and with {@code sync} enabled forced to disk once per batch, so
+ * concurrent games share the cost of a write (group commit). A segment is closed and the
+ * next one started before a record would grow it past the segment size. Existing segments
+ * are never reopened for writing.
+ *
+ * Segment layout, all integers big-endian:
+ * <pre>
+ *   header   16 bytes  magic "NUMJ", version, reserved
+ *   records  length int, CRC-32C int of the payload, then the payload:
+ *            type byte, timestamp long, game id long, attempt short, feedback short,
+ *            won byte, target and guess as UTF-8 with an unsigned short length
+ *            (0xFFFF for null)
+ * </pre>
+ *
+ * {@link #read(Path, Consumer)} maps the segments and decodes them in order. Reading a
+ * segment stops at the first record that is incomplete or fails its checksum, such as the
+ * last record of a segment that was being written when the process died.
+ */
+public final class GameJournal implements GameLogger {
+    public static final int MAGIC = 0x4E554D4A; // "NUMJ"
+    public static final int VERSION = 1;
+    /** Default size after which a new segment is started. */
+    public static final long DEFAULT_SEGMENT_SIZE = 64L << 20;
+    /** File name suffix of segment files. */
+    public static final String SUFFIX = ".journal";
+
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int FIXED_PAYLOAD_SIZE = 1 + 8 + 8 + 2 + 2 + 1 + 2 + 2;
+    private static final int NULL_LENGTH = 0xFFFF;
+    private static final GameLogRecord.Type[] TYPES = GameLogRecord.Type.values();
+
+    private final AsyncGameLogger logger;
+
+    /**
+     * Opens a journal in a directory, creating the directory if needed. New records go to a
+     * new segment after the existing ones.
+     *
+     * @param directory   The journal directory.
+     * @param segmentSize The size in bytes after which a new segment is started.
+     * @param sync        Whether each batch is forced to disk before it counts as written.
+     * @throws IOException If the directory or the first segment cannot be created.
+     * @pre segmentSize > 0
+     */
+    public GameJournal(Path directory, long segmentSize, boolean sync) throws IOException {
+        this.logger = new AsyncGameLogger(new SegmentWriter(directory, segmentSize, sync),
+                AsyncGameLogger.DEFAULT_CAPACITY, AsyncGameLogger.OverflowPolicy.BLOCK);
+    }
+
+    /**
+     * Opens a journal with the default segment size that leaves syncing to the OS.
+     *
+     * @param directory The journal directory.
+     * @throws IOException If the directory or the first segment cannot be created.
+     */
+    public GameJournal(Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_SIZE, false);
+    }
+
+    /**
+     * Queues a record for appending. Waits if the writer has fallen a full buffer behind,
+     * so no record is lost.
+     *
+     * @param record The record.
+     */
+    @Override
+    public void log(GameLogRecord record) {
+        logger.log(record);
+    }
+
+    /**
+     * Waits until every record logged so far has been appended.
+     *
+     * @param timeoutMillis How long to wait at most.
+     * @return True if all records were appended in time, false also if a batch failed to be
+     *         appended since the previous flush.
+     */
+    public boolean flush(long timeoutMillis) {
+        return logger.flush(timeoutMillis);
+    }
+
+    /**
+     * Appends the pending records and closes the current segment.
+     */
+    @Override
+    public void close() {
+        logger.close();
+    }
+
+    /**
+     * Lists the segments of a journal in the order they were written.
+     *
+     * @param directory The journal directory.
+     * @return The segment files.
+     * @throws IOException If the directory cannot be listed.
+     */
+    public static List<Path> segments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                segments.add(file);
+            }
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    /**
+     * Reads every record of a journal, segment by segment, in the order they were written.
+     *
+     * @param directory The journal directory.
+     * @param consumer  Receives the records.
+     * @return The number of records read.
+     * @throws IOException If a segment cannot be read or is not a journal segment.
+     */
+    public static long read(Path directory, Consumer<GameLogRecord> consumer) throws IOException {
+        long count = 0;
+        byte[] text = new byte[256];
+        CRC32C crc = new CRC32C();
+        for (Path segment : segments(directory)) {
+            ByteBuffer buffer = map(segment);
+            int position = HEADER_SIZE;
+            while (buffer.capacity() - position >= RECORD_HEADER_SIZE) {
+                int length = buffer.getInt(position);
+                int start = position + RECORD_HEADER_SIZE;
+                if (length < FIXED_PAYLOAD_SIZE || length > buffer.capacity() - start) {
+                    break;
+                }
+                crc.reset();
+                buffer.limit(start + length).position(start);
+                crc.update(buffer);
+                buffer.limit(buffer.capacity());
+                if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                    break;
+                }
+                buffer.position(start);
+                GameLogRecord.Type type = TYPES[buffer.get()];
+                long timestamp = buffer.getLong();
+                long gameId = buffer.getLong();
+                int attempt = buffer.getShort();
+                int feedback = buffer.getShort();
+                boolean won = buffer.get() != 0;
+                String target = getString(buffer, text);
+                String guess = getString(buffer, text);
+                consumer.accept(new GameLogRecord(type, timestamp, gameId, target, guess, attempt, feedback, won));
+                count++;
+                position = start + length;
+            }
+        }
+        return count;
+    }
+
+    private static ByteBuffer map(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.BIG_ENDIAN);
+            if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a game journal segment: " + segment);
+            }
+            if (buffer.getInt(4) != VERSION) {
+                throw new IOException("Unsupported journal version " + buffer.getInt(4) + " in " + segment);
+            }
+            return buffer;
+        }
+    }
+
+    private static String getString(ByteBuffer buffer, byte[] text) {
+        int length = buffer.getShort() & 0xFFFF;
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = length <= text.length ? text : new byte[length];
+        buffer.get(bytes, 0, length);
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Appends the batches of the writer thread to the current segment. A batch that fails
+     * may leave part of a record behind, where reading the segment stops, so the next batch
+     * starts a new segment.
+     */
+    static final class SegmentWriter implements AsyncGameLogger.Sink {
+        private final Path directory;
+        private final long segmentSize;
+        private final boolean sync;
+        private final CRC32C crc = new CRC32C();
+        private ByteBuffer buffer = ByteBuffer.allocate(64 << 10);
+        private FileChannel channel;
+        private Path file;
+        private long sequence;
+        private long size;
+        private boolean torn;
+
+        SegmentWriter(Path directory, long segmentSize, boolean sync) throws IOException {
+            this.directory = directory;
+            this.segmentSize = segmentSize;
+            this.sync = sync;
+            Files.createDirectories(directory);
+            List<Path> existing = segments(directory);
+            if (!existing.isEmpty()) {
+                String name = existing.get(existing.size() - 1).getFileName().toString();
+                sequence = Long.parseLong(name.substring(0, name.length() - SUFFIX.length())) + 1;
+            }
+            roll();
+        }
+
+        @Override
+        public void write(List<GameLogRecord> batch) throws IOException {
+            if (torn) {
+                roll();
+            }
+            try {
+                appendBatch(batch);
+            } catch (IOException e) {
+                torn = true;
+                throw e;
+            }
+        }
+
+        private void appendBatch(List<GameLogRecord> batch) throws IOException {
+            buffer.clear();
+            for (GameLogRecord record : batch) {
+                int start = buffer.position();
+                encode(record);
+                if (size + buffer.position() > segmentSize && size + start > HEADER_SIZE) {
+                    // Write the records before this one, then start a new segment with it.
+                    int end = buffer.position();
+                    buffer.flip().limit(start);
+                    append();
+                    buffer.limit(end);
+                    buffer.compact();
+                    roll();
+                }
+            }
+            buffer.flip();
+            append();
+            if (sync) {
+                channel.force(false);
+            }
+        }
+
+        private void append() throws IOException {
+            size += buffer.remaining();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+
+        /** The segment being written. */
+        Path segment() {
+            return file;
+        }
+
+        /** The channel of the segment being written. */
+        FileChannel channel() {
+            return channel;
+        }
+
+        private void encode(GameLogRecord record) {
+            byte[] target = toBytes(record.getTarget());
+            byte[] guess = toBytes(record.getGuess());
+            int length = FIXED_PAYLOAD_SIZE + (target == null ? 0 : target.length)
+                    + (guess == null ? 0 : guess.length);
+            if (buffer.remaining() < RECORD_HEADER_SIZE + length) {
+                int capacity = Math.max(buffer.capacity() * 2, buffer.position() + RECORD_HEADER_SIZE + length);
+                buffer = ByteBuffer.allocate(capacity).put(buffer.flip());
+            }
+            int start = buffer.position() + RECORD_HEADER_SIZE;
+            buffer.putInt(length).putInt(0);
+            buffer.put((byte) record.getType().ordinal())
+                    .putLong(record.getTimestamp())
+                    .putLong(record.getGameId())
+                    .putShort((short) record.getAttempt())
+                    .putShort((short) record.getFeedback())
+                    .put((byte) (record.isWon() ? 1 : 0));
+            putString(target);
+            putString(guess);
+            crc.reset();
+            crc.update(buffer.array(), start, length);
+            buffer.putInt(start - 4, (int) crc.getValue());
+        }
+
+        private void putString(byte[] text) {
+            if (text == null) {
+                buffer.putShort((short) NULL_LENGTH);
+            } else {
+                buffer.putShort((short) text.length).put(text);
+            }
+        }
+
+        private static byte[] toBytes(String text) {
+            if (text == null) {
+                return null;
+            }
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            return bytes.length < NULL_LENGTH ? bytes : Arrays.copyOf(bytes, NULL_LENGTH - 1);
+        }
+
+        /**
+         * Closes the current segment and starts the next one with its header. A torn segment
+         * is closed without forcing it, and an error closing it is ignored.
+         */
+        private void roll() throws IOException {
+            if (channel != null && channel.isOpen()) {
+                if (torn) {
+                    try {
+                        channel.close();
+                    } catch (IOException e) {
+                        // Nothing more can be saved of this segment.
+                    }
+                } else {
+                    if (sync) {
+                        channel.force(true);
+                    }
+                    channel.close();
+                }
+            }
+            file = directory.resolve(String.format("%016d%s", sequence++, SUFFIX));
+            channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION);
+            header.clear();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            size = HEADER_SIZE;
+            torn = false;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class GameJournalTest {
+    private static final String TARGET = "2+3*2=8";
+
+    /**
+     * Writes records across several segments and reads them back.
+     *
+     * @pre The segment size only fits a few records.
+     * @post Every record is read back in order with all its fields, and no segment outgrows the size.
+     */
+    @Test
+    public void testWriteAndRead() throws IOException {
+        Path directory = Files.createTempDirectory("journal");
+        try {
+            List<GameLogRecord> written = new ArrayList<>();
+            GameJournal journal = new GameJournal(directory, 256, true);
+            for (int game = 1; game <= 20; game++) {
+                written.add(GameLogRecord.gameStarted(game, TARGET));
+                written.add(GameLogRecord.guess(game, TARGET, "4-1*3=1", 1, FeedbackCode.score(TARGET, "4-1*3=1")));
+                written.add(GameLogRecord.gameEnded(game, TARGET, 1, game % 2 == 0));
+            }
+            for (GameLogRecord record : written) {
+                journal.log(record);
+            }
+            journal.close();
+
+            List<GameLogRecord> read = new ArrayList<>();
+            assertEquals(written.size(), GameJournal.read(directory, read::add));
+            for (int i = 0; i < written.size(); i++) {
+                assertEquals(written.get(i).toString(), read.get(i).toString());
+                assertEquals(written.get(i).getFeedback(), read.get(i).getFeedback());
+            }
+            assertNull(read.get(0).getGuess());
+            assertTrue(GameJournal.segments(directory).size() > 1);
+            for (Path segment : GameJournal.segments(directory)) {
+                assertTrue(Files.size(segment) <= 256);
+            }
+        } finally {
+            delete(directory);
+        }
+    }
+
+    /**
+     * Reads a journal whose last record was cut off, then appends to it again.
+     *
+     * @pre The last segment ends with half a record.
+     * @post The complete records are read, and new records go to a new segment after it.
+     */
+    @Test
+    public void testTornTail() throws IOException {
+        Path directory = Files.createTempDirectory("journal");
+        try {
+            GameJournal journal = new GameJournal(directory);
+            journal.log(GameLogRecord.gameStarted(1, TARGET));
+            journal.log(GameLogRecord.guess(1, TARGET, TARGET, 1, FeedbackCode.score(TARGET, TARGET)));
+            journal.close();
+            Path segment = GameJournal.segments(directory).get(0);
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                channel.write(ByteBuffer.allocate(12).putInt(0, 40));
+            }
+            assertEquals(2, GameJournal.read(directory, record -> { }));
+
+            journal = new GameJournal(directory);
+            journal.log(GameLogRecord.gameEnded(1, TARGET, 1, true));
+            journal.close();
+            List<GameLogRecord> read = new ArrayList<>();
+            GameJournal.read(directory, read::add);
+            assertEquals(2, GameJournal.segments(directory).size());
+            assertEquals(3, read.size());
+            assertEquals(GameLogRecord.Type.GAME_ENDED, read.get(2).getType());
+        } finally {
+            delete(directory);
+        }
+    }
+
+    /**
+     * Fails a batch partway through its write, then writes another one.
+     *
+     * @pre The segment ends with half a record and its channel is closed, so the second
+     *      batch fails.
+     * @post The third batch goes to a new segment, and the first and third batches are read
+     *       back.
+     */
+    @Test
+    public void testFailedWrite() throws IOException {
+        Path directory = Files.createTempDirectory("journal");
+        try {
+            GameJournal.SegmentWriter writer = new GameJournal.SegmentWriter(directory,
+                    GameJournal.DEFAULT_SEGMENT_SIZE, false);
+            writer.write(List.of(GameLogRecord.gameStarted(1, TARGET)));
+            Path torn = writer.segment();
+            try (FileChannel channel = FileChannel.open(torn, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                channel.write(ByteBuffer.allocate(12).putInt(0, 40));
+            }
+            writer.channel().close();
+            try {
+                writer.write(List.of(GameLogRecord.gameStarted(2, TARGET)));
+                fail("The write to a closed channel succeeded");
+            } catch (IOException e) {
+                // Expected: the batch is lost.
+            }
+            writer.write(List.of(GameLogRecord.gameEnded(1, TARGET, 1, true)));
+            writer.close();
+
+            assertFalse(torn.equals(writer.segment()));
+            List<GameLogRecord> read = new ArrayList<>();
+            GameJournal.read(directory, read::add);
+            assertEquals(2, read.size());
+            assertEquals(GameLogRecord.Type.GAME_ENDED, read.get(1).getType());
+        } finally {
+            delete(directory);
+        }
+    }
+
+    /**
+     * Journals games played on the model and replays them.
+     *
+     * @pre Two games are played, one of them won; then a record with wrong feedback is added.
+     * @post The played games replay cleanly, and the wrong feedback is reported.
+     */
+    @Test
+    public void testReplay() throws IOException {
+        Path directory = Files.createTempDirectory("journal");
+        try {
+            GameJournal journal = new GameJournal(directory);
+            NumberleModel model = new NumberleModel(EquationDictionary.of(List.of(TARGET)), new GameMetrics(false));
+            model.setLogger(journal);
+            model.startNewGame(TARGET);
+            model.processInput("4-1*3=1");
+            model.processInput(TARGET);
+            model.startNewGame("9-3*2=3");
+            for (int i = 0; i < INumberleModel.MAX_ATTEMPTS; i++) {
+                model.processInput("1+1+1=3");
+            }
+            journal.close();
+
+            JournalReplay.Report report = new JournalReplay().replay(directory);
+            assertTrue(report.toString(), report.isClean());
+            assertEquals(2, report.getGames());
+            assertEquals(2 + INumberleModel.MAX_ATTEMPTS, report.getGuesses());
+            assertEquals(0, report.getUnfinishedGames());
+
+            journal = new GameJournal(directory);
+            journal.log(GameLogRecord.gameStarted(7, TARGET));
+            journal.log(GameLogRecord.guess(7, TARGET, "4-1*3=1", 1, 0));
+            journal.close();
+            report = new JournalReplay().replay(directory);
+            assertEquals(1, report.getFeedbackMismatches());
+            assertEquals(1, report.getUnfinishedGames());
+            assertFalse(report.isClean());
+        } finally {
+            delete(directory);
+        }
+    }
+
+    private static void delete(Path directory) throws IOException {
+        for (Path segment : GameJournal.segments(directory)) {
+            Files.delete(segment);
+        }
+        Files.delete(directory);
+    }
+}
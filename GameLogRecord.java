@@ -0,0 +1,141 @@
+import java.time.Instant;
+
+/**
+ * One entry of a game log: a game starting, a guess being scored, or a game ending.
+ *
+ * Records are immutable and carry everything needed to replay a game: the game id, the
+ * target, each guess with its feedback code and the time it was made.
+ */
+public final class GameLogRecord {
+    /** What a record describes. */
+    public enum Type {
+        GAME_STARTED, GUESS, GAME_ENDED
+    }
+
+    private final Type type;
+    private final long timestamp;
+    private final long gameId;
+    private final String target;
+    private final String guess;
+    private final int attempt;
+    private final int feedback;
+    private final boolean won;
+
+    GameLogRecord(Type type, long timestamp, long gameId, String target, String guess, int attempt,
+                  int feedback, boolean won) {
+        this.type = type;
+        this.timestamp = timestamp;
+        this.gameId = gameId;
+        this.target = target;
+        this.guess = guess;
+        this.attempt = attempt;
+        this.feedback = feedback;
+        this.won = won;
+    }
+
+    /**
+     * Creates the record of a new game.
+     *
+     * @param gameId The game id.
+     * @param target The target equation.
+     * @return The record, stamped with the current time.
+     */
+    public static GameLogRecord gameStarted(long gameId, String target) {
+        return new GameLogRecord(Type.GAME_STARTED, System.currentTimeMillis(), gameId, target, null, 0, -1, false);
+    }
+
+    /**
+     * Creates the record of a scored guess.
+     *
+     * @param gameId   The game id.
+     * @param target   The target equation.
+     * @param guess    The guess.
+     * @param attempt  The number of the guess in the game, starting at 1.
+     * @param feedback The feedback code of the guess, or -1 if it could not be scored.
+     * @return The record, stamped with the current time.
+     */
+    public static GameLogRecord guess(long gameId, String target, String guess, int attempt, int feedback) {
+        return new GameLogRecord(Type.GUESS, System.currentTimeMillis(), gameId, target, guess, attempt, feedback, false);
+    }
+
+    /**
+     * Creates the record of a finished game.
+     *
+     * @param gameId   The game id.
+     * @param target   The target equation.
+     * @param attempts The number of guesses made.
+     * @param won      Whether the game was won.
+     * @return The record, stamped with the current time.
+     */
+    public static GameLogRecord gameEnded(long gameId, String target, int attempts, boolean won) {
+        return new GameLogRecord(Type.GAME_ENDED, System.currentTimeMillis(), gameId, target, null, attempts, -1, won);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /** Time of the event in milliseconds since the epoch. */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public long getGameId() {
+        return gameId;
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    /** The guess of a GUESS record, null otherwise. */
+    public String getGuess() {
+        return guess;
+    }
+
+    /** The number of the guess for GUESS records, the number of guesses made for GAME_ENDED. */
+    public int getAttempt() {
+        return attempt;
+    }
+
+    /** The feedback code of a GUESS record, -1 otherwise. */
+    public int getFeedback() {
+        return feedback;
+    }
+
+    /** Whether a GAME_ENDED record is a win. */
+    public boolean isWon() {
+        return won;
+    }
+
+    /**
+     * Appends the record as one line of text, without the line separator.
+     *
+     * @param out The text to append to.
+     */
+    public void appendTo(StringBuilder out) {
+        out.append(Instant.ofEpochMilli(timestamp)).append(" game=").append(Long.toHexString(gameId))
+                .append(' ').append(type);
+        switch (type) {
+            case GUESS:
+                out.append(" attempt=").append(attempt).append(" guess=").append(guess);
+                if (feedback >= 0) {
+                    out.append(" feedback=").append(FeedbackCode.toPattern(feedback, guess.length()));
+                }
+                break;
+            case GAME_ENDED:
+                out.append(won ? " won" : " lost").append(" attempts=").append(attempt)
+                        .append(" target=").append(target);
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder(96);
+        appendTo(out);
+        return out.toString();
+    }
+}
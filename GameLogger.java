@@ -0,0 +1,22 @@
+/**
+ * Receives the log records of games. Implementations must not block the caller on I/O.
+ */
+public interface GameLogger extends AutoCloseable {
+    /** Logger that discards every record. */
+    GameLogger NONE = record -> {
+    };
+
+    /**
+     * Logs a record.
+     *
+     * @param record The record.
+     */
+    void log(GameLogRecord record);
+
+    /**
+     * Writes out pending records and releases the logger's resources.
+     */
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,284 @@
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histograms for the game.
+ *
+ * Timing an operation costs two {@link System#nanoTime()} calls and a few uncontended
+ * {@link LongAdder} increments; counting costs one increment. When the metrics are
+ * disabled, every recording method returns after reading one volatile flag. The shared
+ * instance starts enabled unless the system property {@code numberle.metrics} is "false",
+ * and is published over JMX under the domain "numberle".
+ */
+public final class GameMetrics implements GameMetricsMXBean {
+    /** Timed operations. */
+    public enum Operation {
+        PROCESS_INPUT("processInput"),
+        VALIDATE("validateGuess"),
+        GET_COLOR("getColor"),
+        HINT("getHint");
+
+        private final String label;
+
+        Operation(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    /** Value returned by {@link #start()} while the metrics are disabled. */
+    private static final long NOT_TIMED = Long.MIN_VALUE;
+
+    private volatile boolean enabled;
+    private final LatencyHistogram[] latencies = new LatencyHistogram[Operation.values().length];
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder[] rejected = new LongAdder[GuessValidator.Reason.values().length];
+    private final LongAdder[] wins = new LongAdder[INumberleModel.MAX_ATTEMPTS + 1];
+    private final LongAdder losses = new LongAdder();
+
+    private static final class DefaultHolder {
+        private static final GameMetrics DEFAULT = createDefault();
+    }
+
+    /**
+     * Creates enabled, unregistered metrics.
+     */
+    public GameMetrics() {
+        this(true);
+    }
+
+    /**
+     * Creates unregistered metrics.
+     *
+     * @param enabled Whether recording starts enabled.
+     */
+    public GameMetrics(boolean enabled) {
+        this.enabled = enabled;
+        for (Operation operation : Operation.values()) {
+            latencies[operation.ordinal()] = new LatencyHistogram(operation.getLabel());
+        }
+        for (int i = 0; i < rejected.length; i++) {
+            rejected[i] = new LongAdder();
+        }
+        for (int i = 0; i < wins.length; i++) {
+            wins[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Returns the metrics shared by all models in this JVM, registering them with the
+     * platform MBean server on first use.
+     *
+     * @return The shared metrics.
+     */
+    public static GameMetrics getDefault() {
+        return DefaultHolder.DEFAULT;
+    }
+
+    private static GameMetrics createDefault() {
+        GameMetrics metrics = new GameMetrics(!"false".equals(System.getProperty("numberle.metrics")));
+        try {
+            metrics.register(ManagementFactory.getPlatformMBeanServer());
+        } catch (JMException | SecurityException e) {
+            System.err.println("Game metrics are not available over JMX: " + e);
+        }
+        return metrics;
+    }
+
+    /**
+     * Registers these metrics and their histograms with an MBean server.
+     *
+     * @param server The MBean server.
+     * @throws JMException If a bean cannot be registered.
+     */
+    public void register(MBeanServer server) throws JMException {
+        server.registerMBean(this, new ObjectName("numberle:type=GameMetrics"));
+        for (LatencyHistogram latency : latencies) {
+            server.registerMBean(latency, new ObjectName("numberle:type=Latency,operation=" + latency.getName()));
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Starts timing an operation.
+     *
+     * @return The start time to pass to {@link #stop(Operation, long)}.
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : NOT_TIMED;
+    }
+
+    /**
+     * Records the time since {@link #start()}.
+     *
+     * @param operation The timed operation.
+     * @param start     The value returned by start().
+     */
+    public void stop(Operation operation, long start) {
+        if (start != NOT_TIMED && enabled) {
+            latencies[operation.ordinal()].record(System.nanoTime() - start);
+        }
+    }
+
+    /** Counts a guess that was played. */
+    public void recordAccepted() {
+        if (enabled) {
+            accepted.increment();
+        }
+    }
+
+    /**
+     * Counts a guess that was rejected.
+     *
+     * @param reason Why it was rejected.
+     */
+    public void recordRejected(GuessValidator.Reason reason) {
+        if (enabled) {
+            rejected[reason.ordinal()].increment();
+        }
+    }
+
+    /**
+     * Counts a finished game.
+     *
+     * @param won      Whether the game was won.
+     * @param attempts The number of guesses made.
+     */
+    public void recordGameEnded(boolean won, int attempts) {
+        if (enabled) {
+            if (won) {
+                wins[Math.min(attempts, wins.length - 1)].increment();
+            } else {
+                losses.increment();
+            }
+        }
+    }
+
+    /**
+     * Returns the latency histogram of an operation.
+     *
+     * @param operation The operation.
+     * @return Its histogram.
+     */
+    public LatencyHistogram getLatency(Operation operation) {
+        return latencies[operation.ordinal()];
+    }
+
+    @Override
+    public long getAcceptedGuesses() {
+        return accepted.sum();
+    }
+
+    @Override
+    public long getRejectedGuesses() {
+        long total = 0;
+        for (LongAdder count : rejected) {
+            total += count.sum();
+        }
+        return total;
+    }
+
+    /**
+     * Returns the number of guesses rejected for one reason.
+     *
+     * @param reason The reason.
+     * @return The count.
+     */
+    public long getRejectedGuesses(GuessValidator.Reason reason) {
+        return rejected[reason.ordinal()].sum();
+    }
+
+    @Override
+    public Map<String, Long> getRejectedGuessesByReason() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (GuessValidator.Reason reason : GuessValidator.Reason.values()) {
+            if (reason != GuessValidator.Reason.VALID) {
+                counts.put(reason.name(), rejected[reason.ordinal()].sum());
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public long getWins() {
+        long total = 0;
+        for (LongAdder count : wins) {
+            total += count.sum();
+        }
+        return total;
+    }
+
+    /**
+     * Returns the number of games won with the given number of guesses.
+     *
+     * @param attempts The number of guesses, 1 to MAX_ATTEMPTS.
+     * @return The count.
+     */
+    public long getWins(int attempts) {
+        return wins[attempts].sum();
+    }
+
+    @Override
+    public Map<Integer, Long> getWinsByAttempts() {
+        Map<Integer, Long> counts = new LinkedHashMap<>();
+        for (int attempts = 1; attempts < wins.length; attempts++) {
+            counts.put(attempts, wins[attempts].sum());
+        }
+        return counts;
+    }
+
+    @Override
+    public long getLosses() {
+        return losses.sum();
+    }
+
+    @Override
+    public String dump() {
+        StringBuilder text = new StringBuilder();
+        text.append("enabled ").append(enabled).append('\n');
+        text.append("guesses.accepted ").append(getAcceptedGuesses()).append('\n');
+        for (Map.Entry<String, Long> entry : getRejectedGuessesByReason().entrySet()) {
+            text.append("guesses.rejected.").append(entry.getKey()).append(' ').append(entry.getValue()).append('\n');
+        }
+        for (Map.Entry<Integer, Long> entry : getWinsByAttempts().entrySet()) {
+            text.append("games.won.").append(entry.getKey()).append(' ').append(entry.getValue()).append('\n');
+        }
+        text.append("games.lost ").append(getLosses()).append('\n');
+        for (LatencyHistogram latency : latencies) {
+            text.append(latency).append('\n');
+        }
+        return text.toString();
+    }
+
+    @Override
+    public void reset() {
+        for (LatencyHistogram latency : latencies) {
+            latency.reset();
+        }
+        accepted.reset();
+        for (LongAdder count : rejected) {
+            count.reset();
+        }
+        for (LongAdder count : wins) {
+            count.reset();
+        }
+        losses.reset();
+    }
+}
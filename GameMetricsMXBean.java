@@ -0,0 +1,29 @@
+import java.util.Map;
+
+/**
+ * Management view of {@link GameMetrics}.
+ */
+public interface GameMetricsMXBean {
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    long getAcceptedGuesses();
+
+    long getRejectedGuesses();
+
+    /** Rejected guesses per {@link GuessValidator.Reason}. */
+    Map<String, Long> getRejectedGuessesByReason();
+
+    long getWins();
+
+    /** Won games per number of attempts used. */
+    Map<Integer, Long> getWinsByAttempts();
+
+    long getLosses();
+
+    /** All metrics as plain text. */
+    String dump();
+
+    void reset();
+}
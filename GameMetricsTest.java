@@ -0,0 +1,81 @@
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class GameMetricsTest {
+
+    /**
+     * Records values into a latency histogram.
+     *
+     * @pre Values span several orders of magnitude.
+     * @post Every bucket bound is within 25% of the values it holds and percentiles are ordered.
+     */
+    @Test
+    public void testHistogram() {
+        for (long value : new long[]{0, 1, 3, 4, 7, 8, 9, 100, 1000, 123456789L, Long.MAX_VALUE}) {
+            long upper = LatencyHistogram.upperBound(LatencyHistogram.bucket(value));
+            assertTrue(value + " <= " + upper, value <= upper);
+            assertTrue(value + " ~ " + upper, upper - value <= Math.max(1, value / 4));
+        }
+        LatencyHistogram histogram = new LatencyHistogram("test");
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500.5, histogram.getMeanNanos(), 1e-9);
+        assertEquals(1000, histogram.getMaxNanos());
+        long p50 = histogram.getP50Nanos();
+        assertTrue(p50 >= 500 && p50 <= 625);
+        assertTrue(histogram.getP99Nanos() >= histogram.getP90Nanos());
+        assertTrue(histogram.getP99Nanos() <= 1000);
+    }
+
+    /**
+     * Plays a game with a model that records to fresh metrics.
+     *
+     * @pre The fixed target is guessed on the second attempt after one rejected guess.
+     * @post The rejection, both accepted guesses, the win and the timings are recorded.
+     */
+    @Test
+    public void testModelMetrics() {
+        GameMetrics metrics = new GameMetrics();
+        NumberleModel model = new NumberleModel(EquationDictionary.of(Arrays.asList("2*3+2=8", "4-1*3=1")), metrics);
+        model.toggleRandomEquationMode();
+        assertFalse(model.validateGuess("1+1=3").isValid());
+        model.processInput("4-1*3=1");
+        model.getColor(model.getTargetNumber(), "4-1*3=1");
+        model.processInput("2*3+2=8");
+
+        assertEquals(1, metrics.getRejectedGuesses());
+        assertEquals(1, metrics.getRejectedGuesses(GuessValidator.Reason.WRONG_LENGTH));
+        assertEquals(2, metrics.getAcceptedGuesses());
+        assertEquals(1, metrics.getWins());
+        assertEquals(1, metrics.getWins(2));
+        assertEquals(0, metrics.getLosses());
+        assertEquals(2, metrics.getLatency(GameMetrics.Operation.PROCESS_INPUT).getCount());
+        assertEquals(1, metrics.getLatency(GameMetrics.Operation.GET_COLOR).getCount());
+        assertTrue(metrics.dump().contains("games.won.2 1"));
+    }
+
+    /**
+     * Records while the metrics are disabled.
+     *
+     * @pre The metrics are switched off.
+     * @post Nothing is recorded.
+     */
+    @Test
+    public void testDisabled() {
+        GameMetrics metrics = new GameMetrics(false);
+        long start = metrics.start();
+        metrics.stop(GameMetrics.Operation.VALIDATE, start);
+        metrics.recordAccepted();
+        metrics.recordRejected(GuessValidator.Reason.NOT_EQUAL);
+        metrics.recordGameEnded(false, 6);
+        assertEquals(0, metrics.getLatency(GameMetrics.Operation.VALIDATE).getCount());
+        assertEquals(0, metrics.getAcceptedGuesses());
+        assertEquals(0, metrics.getRejectedGuesses());
+        assertEquals(0, metrics.getLosses());
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * State of one headless game: the target, the guesses made so far and their feedback.
+ *
+ * The state is kept in a few fields and two small arrays so that thousands of sessions fit in
+ * memory. Each session guards itself; there is no lock shared between sessions.
+ */
+public final class GameSession {
+    private final String id;
+    private final String target;
+    private final String[] guesses = new String[INumberleModel.MAX_ATTEMPTS];
+    private final int[] feedback = new int[INumberleModel.MAX_ATTEMPTS];
+    private int attempts;
+    private boolean won;
+    private volatile long lastAccess;
+    // Rules revealed so far in hard mode, null otherwise
+    private final HardModeConstraints constraints;
+
+    GameSession(String id, String target) {
+        this(id, target, false);
+    }
+
+    GameSession(String id, String target, boolean hardMode) {
+        this.id = id;
+        this.target = target;
+        this.constraints = hardMode ? new HardModeConstraints(target.length()) : null;
+        this.lastAccess = System.currentTimeMillis();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Returns the target equation. Callers should only reveal it once the game is over.
+     *
+     * @return The target equation.
+     */
+    public String getTarget() {
+        return target;
+    }
+
+    public synchronized int getAttempts() {
+        return attempts;
+    }
+
+    public synchronized int getRemainingAttempts() {
+        return INumberleModel.MAX_ATTEMPTS - attempts;
+    }
+
+    public synchronized boolean isGameWon() {
+        return won;
+    }
+
+    public synchronized boolean isGameOver() {
+        return won || attempts >= INumberleModel.MAX_ATTEMPTS;
+    }
+
+    /** Whether every guess must use the feedback of the earlier ones. */
+    public boolean isHardMode() {
+        return constraints != null;
+    }
+
+    /**
+     * Checks a valid guess against the rules of hard mode.
+     *
+     * @param guess The guess, of the target's length.
+     * @return The first rule the guess breaks, or null if it breaks none or the game is not
+     *         in hard mode.
+     */
+    synchronized HardModeConstraints.Violation checkHardMode(String guess) {
+        return constraints == null ? null : constraints.check(guess);
+    }
+
+    public synchronized String getGuess(int attempt) {
+        return guesses[attempt];
+    }
+
+    public synchronized int getFeedback(int attempt) {
+        return feedback[attempt];
+    }
+
+    long getLastAccess() {
+        return lastAccess;
+    }
+
+    void touch() {
+        lastAccess = System.currentTimeMillis();
+    }
+
+    /**
+     * Records a validated guess.
+     *
+     * @param guess The guess, already validated.
+     * @param code  The feedback code of the guess.
+     * @return The number of the guess in the game, starting at 1, 0 if the game was
+     *         already over, or -1 if the guess breaks a rule of hard mode revealed by a
+     *         guess recorded since it was checked; the guess is not recorded then.
+     */
+    synchronized int record(String guess, int code) {
+        if (isGameOver()) {
+            return 0;
+        }
+        if (constraints != null) {
+            if (constraints.check(guess) != null) {
+                return -1;
+            }
+            constraints.record(guess, code);
+        }
+        guesses[attempts] = guess;
+        feedback[attempts] = code;
+        attempts++;
+        if (FeedbackCode.isSolved(code, guess.length())) {
+            won = true;
+        }
+        return attempts;
+    }
+}
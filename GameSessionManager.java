@@ -0,0 +1,295 @@
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Hosts many concurrent headless games, keyed by session id.
+ *
+ * Guesses are checked with {@link GuessValidator}, as in the desktop game, and in hard mode
+ * with {@link HardModeConstraints}, then scored with {@link FeedbackCode}. Sessions live in a
+ * {@link ConcurrentHashMap} and each one guards its own state, so requests for different
+ * sessions never wait on each other.
+ */
+public class GameSessionManager {
+
+    /**
+     * Outcome of a guess.
+     */
+    public enum Status {
+        ACCEPTED, INVALID, GAME_OVER, UNKNOWN_SESSION
+    }
+
+    /**
+     * Result of submitting a guess to a session.
+     */
+    public static final class GuessResult {
+        private final Status status;
+        private final GuessValidator.Reason reason;
+        private final String message;
+        private final int feedback;
+        private final GameSession session;
+
+        GuessResult(Status status, GuessValidator.Reason reason, String message, int feedback, GameSession session) {
+            this.status = status;
+            this.reason = reason;
+            this.message = message;
+            this.feedback = feedback;
+            this.session = session;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        /** Why an INVALID guess was rejected, or null for other statuses. */
+        public GuessValidator.Reason getReason() {
+            return reason;
+        }
+
+        /** Why the guess was not accepted, or null if it was. */
+        public String getMessage() {
+            return message;
+        }
+
+        /** The feedback code of an accepted guess. */
+        public int getFeedback() {
+            return feedback;
+        }
+
+        /** The session after the guess, or null if it does not exist. */
+        public GameSession getSession() {
+            return session;
+        }
+    }
+
+    private final ConcurrentHashMap<String, GameSession> sessions = new ConcurrentHashMap<>();
+    private final int length;
+    private final GuessValidator validator;
+    private final GameMetrics metrics;
+    private volatile GameLogger logger = AsyncGameLogger.getDefault();
+    private volatile FeedbackCache feedbackCache;
+    private volatile TargetScheduler targets;
+    private volatile boolean hardMode;
+
+    /**
+     * Creates a manager that draws targets from the given dictionary.
+     *
+     * @param dictionary The shared equation dictionary.
+     * @pre dictionary is not empty.
+     */
+    public GameSessionManager(EquationDictionary dictionary) {
+        this(dictionary, GameMetrics.getDefault());
+    }
+
+    /**
+     * Creates a manager that records its guesses and games in the given metrics.
+     *
+     * @param dictionary The shared equation dictionary.
+     * @param metrics    The metrics to record to.
+     * @pre dictionary is not empty.
+     */
+    public GameSessionManager(EquationDictionary dictionary, GameMetrics metrics) {
+        this.metrics = metrics;
+        this.length = dictionary.isEmpty() ? GuessValidator.DEFAULT_LENGTH : dictionary.get(0).length();
+        this.validator = new GuessValidator(length);
+        this.targets = new TargetScheduler.RandomTargets(dictionary.getEquations());
+    }
+
+    /**
+     * Starts a new game with a target chosen by the scheduler, by default at random.
+     *
+     * @return The new session.
+     */
+    public GameSession start() {
+        return start(targets.nextTarget(), hardMode);
+    }
+
+    /**
+     * Starts a new game with a target chosen by the scheduler.
+     *
+     * @param hardMode Whether every guess must use the feedback of the earlier ones.
+     * @return The new session.
+     */
+    public GameSession start(boolean hardMode) {
+        return start(targets.nextTarget(), hardMode);
+    }
+
+    /**
+     * Starts a new game with the given target.
+     *
+     * @param target The target equation.
+     * @return The new session.
+     * @throws IllegalArgumentException If the target is not as long as the dictionary's equations.
+     */
+    public GameSession start(String target) {
+        return start(target, hardMode);
+    }
+
+    /**
+     * Starts a new game with the given target.
+     *
+     * @param target   The target equation.
+     * @param hardMode Whether every guess must use the feedback of the earlier ones.
+     * @return The new session.
+     * @throws IllegalArgumentException If the target is not as long as the dictionary's equations.
+     */
+    public GameSession start(String target, boolean hardMode) {
+        if (target.length() != length) {
+            throw new IllegalArgumentException("Target must have " + length + " symbols: " + target);
+        }
+        while (true) {
+            String id = Long.toHexString(ThreadLocalRandom.current().nextLong());
+            GameSession session = new GameSession(id, target, hardMode);
+            if (sessions.putIfAbsent(id, session) == null) {
+                logger.log(GameLogRecord.gameStarted(gameIdOf(session), target));
+                return session;
+            }
+        }
+    }
+
+    /**
+     * Returns a session.
+     *
+     * @param id The session id.
+     * @return The session, or null if it does not exist.
+     */
+    public GameSession get(String id) {
+        GameSession session = sessions.get(id);
+        if (session != null) {
+            session.touch();
+        }
+        return session;
+    }
+
+    /**
+     * Validates a guess, scores it against the session's target and records it.
+     *
+     * @param id    The session id.
+     * @param guess The guess.
+     * @return The outcome of the guess.
+     * @pre guess is not null.
+     */
+    public GuessResult guess(String id, String guess) {
+        GameSession session = get(id);
+        if (session == null) {
+            return new GuessResult(Status.UNKNOWN_SESSION, null, "No such game.", -1, null);
+        }
+        if (session.isGameOver()) {
+            return new GuessResult(Status.GAME_OVER, null, "The game is over.", -1, session);
+        }
+        long start = metrics.start();
+        GuessValidator.Reason reason = validator.validate(guess);
+        metrics.stop(GameMetrics.Operation.VALIDATE, start);
+        if (!reason.isValid()) {
+            metrics.recordRejected(reason);
+            return new GuessResult(Status.INVALID, reason, reason.getMessage(length), -1, session);
+        }
+        HardModeConstraints.Violation violation = session.checkHardMode(guess);
+        if (violation != null) {
+            return rejected(violation, session);
+        }
+        FeedbackCache cache = feedbackCache;
+        int code = cache == null ? FeedbackCode.score(session.getTarget(), guess) : cache.score(session.getTarget(), guess);
+        int attempt = session.record(guess, code);
+        if (attempt == 0) {
+            return new GuessResult(Status.GAME_OVER, null, "The game is over.", -1, session);
+        }
+        if (attempt < 0) {
+            // A concurrent guess of the same session revealed a rule this guess breaks
+            return rejected(session.checkHardMode(guess), session);
+        }
+        metrics.recordAccepted();
+        logger.log(GameLogRecord.guess(gameIdOf(session), session.getTarget(), guess, attempt, code));
+        boolean won = FeedbackCode.isSolved(code, guess.length());
+        if (won || attempt == INumberleModel.MAX_ATTEMPTS) {
+            metrics.recordGameEnded(won, attempt);
+            logger.log(GameLogRecord.gameEnded(gameIdOf(session), session.getTarget(), attempt, won));
+        }
+        return new GuessResult(Status.ACCEPTED, null, null, code, session);
+    }
+
+    private GuessResult rejected(HardModeConstraints.Violation violation, GameSession session) {
+        metrics.recordRejected(violation.getReason());
+        return new GuessResult(Status.INVALID, violation.getReason(), violation.getMessage(), -1, session);
+    }
+
+    /**
+     * Ends a session and forgets it.
+     *
+     * @param id The session id.
+     * @return True if the session existed.
+     */
+    public boolean end(String id) {
+        return sessions.remove(id) != null;
+    }
+
+    /**
+     * Forgets sessions that have not been used for a while.
+     *
+     * @param maxIdleMillis How long a session may stay unused.
+     * @return The number of sessions removed.
+     */
+    public int evictIdle(long maxIdleMillis) {
+        long cutoff = System.currentTimeMillis() - maxIdleMillis;
+        int before = sessions.size();
+        sessions.values().removeIf(session -> session.getLastAccess() < cutoff);
+        return before - sessions.size();
+    }
+
+    /**
+     * Replaces the logger that records the games of all sessions.
+     *
+     * @param logger The logger.
+     * @pre logger is not null.
+     */
+    public void setLogger(GameLogger logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * Sets whether new games started without saying otherwise are in hard mode.
+     *
+     * @param hardMode True for hard mode.
+     */
+    public void setHardMode(boolean hardMode) {
+        this.hardMode = hardMode;
+    }
+
+    /**
+     * Replaces how the targets of new games are chosen.
+     *
+     * @param targets The scheduler.
+     * @pre targets is not null.
+     */
+    public void setTargetScheduler(TargetScheduler targets) {
+        this.targets = targets;
+    }
+
+    /**
+     * Scores the guesses of all sessions through a cache. Many players guess the same
+     * popular equations against the same targets, so their feedback is computed once.
+     *
+     * @param feedbackCache The cache, or null to score every guess.
+     */
+    public void setFeedbackCache(FeedbackCache feedbackCache) {
+        this.feedbackCache = feedbackCache;
+    }
+
+    /**
+     * Returns the cache that scores guesses.
+     *
+     * @return The cache, or null if there is none.
+     */
+    public FeedbackCache getFeedbackCache() {
+        return feedbackCache;
+    }
+
+    /** Session ids are 64-bit numbers in hex; the log records them as numbers. */
+    private static long gameIdOf(GameSession session) {
+        return Long.parseUnsignedLong(session.getId(), 16);
+    }
+
+    /** Number of live sessions. */
+    public int size() {
+        return sessions.size();
+    }
+}
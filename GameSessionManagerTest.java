@@ -0,0 +1,93 @@
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class GameSessionManagerTest {
+
+    private static final EquationDictionary DICTIONARY =
+            EquationDictionary.of(Arrays.asList("2+3*2=8", "4-1*3=1", "5/1+2=7"));
+
+    /**
+     * Plays a game to a win.
+     *
+     * @pre The session was started with a known target.
+     * @post Invalid guesses are rejected without using an attempt and the correct guess wins.
+     */
+    @Test
+    public void testGuess() {
+        GameSessionManager manager = new GameSessionManager(DICTIONARY);
+        GameSession session = manager.start("2+3*2=8");
+
+        GameSessionManager.GuessResult invalid = manager.guess(session.getId(), "1+1=3");
+        assertEquals(GameSessionManager.Status.INVALID, invalid.getStatus());
+        assertEquals(GuessValidator.Reason.WRONG_LENGTH, invalid.getReason());
+        assertEquals(GameSessionManager.Status.INVALID, manager.guess(session.getId(), "1+1+1=4").getStatus());
+        assertEquals(GameSessionManager.Status.INVALID, manager.guess(session.getId(), "1++1=22").getStatus());
+        assertEquals(INumberleModel.MAX_ATTEMPTS, session.getRemainingAttempts());
+
+        GameSessionManager.GuessResult wrong = manager.guess(session.getId(), "4-1*3=1");
+        assertEquals(GameSessionManager.Status.ACCEPTED, wrong.getStatus());
+        assertEquals(FeedbackCode.score("2+3*2=8", "4-1*3=1"), wrong.getFeedback());
+        assertFalse(session.isGameOver());
+
+        GameSessionManager.GuessResult right = manager.guess(session.getId(), "2+3*2=8");
+        assertEquals(GameSessionManager.Status.ACCEPTED, right.getStatus());
+        assertTrue(session.isGameWon());
+        assertEquals(2, session.getAttempts());
+        assertEquals(GameSessionManager.Status.GAME_OVER, manager.guess(session.getId(), "2+3*2=8").getStatus());
+    }
+
+    /**
+     * Looks up, ends and evicts sessions.
+     *
+     * @pre Sessions were started.
+     * @post Unknown ids are reported and idle sessions are removed.
+     */
+    @Test
+    public void testSessionLifecycle() {
+        GameSessionManager manager = new GameSessionManager(DICTIONARY);
+        GameSession first = manager.start();
+        GameSession second = manager.start();
+        assertFalse(first.getId().equals(second.getId()));
+        assertEquals(2, manager.size());
+        assertTrue(manager.end(first.getId()));
+        assertEquals(GameSessionManager.Status.UNKNOWN_SESSION, manager.guess(first.getId(), "2+3*2=8").getStatus());
+        assertEquals(0, manager.evictIdle(60_000));
+        assertEquals(1, manager.evictIdle(-1));
+        assertEquals(0, manager.size());
+    }
+
+    /**
+     * Plays many games at once.
+     *
+     * @pre Every task owns one session.
+     * @post Every game is won after the same number of guesses.
+     */
+    @Test
+    public void testConcurrentSessions() throws Exception {
+        GameSessionManager manager = new GameSessionManager(DICTIONARY);
+        ExecutorService executor = NumberleServer.newRequestExecutor();
+        List<Future<GameSession>> games = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            games.add(executor.submit(() -> {
+                GameSession session = manager.start("5/1+2=7");
+                manager.guess(session.getId(), "2+3*2=8");
+                manager.guess(session.getId(), "5/1+2=7");
+                return session;
+            }));
+        }
+        for (Future<GameSession> game : games) {
+            GameSession session = game.get();
+            assertTrue(session.isGameWon());
+            assertEquals(2, session.getAttempts());
+        }
+        executor.shutdown();
+        assertEquals(200, manager.size());
+    }
+}
@@ -0,0 +1,252 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Plays many games headlessly with a {@link GuessStrategy} and reports how it fares.
+ *
+ * Games are played by the real {@link NumberleModel}, with its validation and
+ * {@link INumberleModel#MAX_ATTEMPTS}. Each worker thread owns a model, so the workers share
+ * nothing but the dictionary and the strategy; they claim games in blocks from a shared
+ * counter and merge their counts at the end. The models neither log nor record metrics.
+ */
+public final class GameSimulator {
+    private static final int BLOCK_SIZE = 64;
+
+    private final EquationDictionary dictionary;
+    private final GuessStrategy strategy;
+    private final int threads;
+    private FeedbackMatrix feedbackMatrix;
+
+    /**
+     * Creates a simulator.
+     *
+     * @param dictionary The dictionary the games use.
+     * @param strategy   The strategy that makes the guesses.
+     * @param threads    The number of worker threads.
+     * @pre dictionary is not empty and threads > 0
+     */
+    public GameSimulator(EquationDictionary dictionary, GuessStrategy strategy, int threads) {
+        this.dictionary = dictionary;
+        this.strategy = strategy;
+        this.threads = threads;
+    }
+
+    /**
+     * Lets the models read feedback for their hints from a precomputed matrix.
+     *
+     * @param feedbackMatrix The matrix of the dictionary, or null to score every pair.
+     */
+    public void setFeedbackMatrix(FeedbackMatrix feedbackMatrix) {
+        this.feedbackMatrix = feedbackMatrix;
+    }
+
+    /**
+     * Plays one game for every equation of the dictionary as the target.
+     *
+     * @return The counts of the games.
+     */
+    public Result playAllTargets() {
+        List<String> equations = dictionary.getEquations();
+        return play(equations.size(), game -> equations.get((int) game));
+    }
+
+    /**
+     * Plays games with targets drawn at random from the dictionary.
+     *
+     * @param games The number of games.
+     * @return The counts of the games.
+     */
+    public Result playRandomTargets(long games) {
+        TargetScheduler targets = new TargetScheduler.RandomTargets(dictionary.getEquations());
+        return play(games, game -> targets.nextTarget());
+    }
+
+    private interface Targets {
+        String target(long game);
+    }
+
+    private Result play(long games, Targets targets) {
+        AtomicLong next = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "simulator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long start = System.nanoTime();
+        try {
+            List<Future<Result>> workers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                workers.add(executor.submit(() -> {
+                    NumberleModel model = new NumberleModel(dictionary, new GameMetrics(false));
+                    model.setLogger(GameLogger.NONE);
+                    model.setFeedbackMatrix(feedbackMatrix);
+                    Result result = new Result();
+                    for (long from = next.getAndAdd(BLOCK_SIZE); from < games; from = next.getAndAdd(BLOCK_SIZE)) {
+                        long to = Math.min(games, from + BLOCK_SIZE);
+                        for (long game = from; game < to; game++) {
+                            playGame(model, targets.target(game), result);
+                        }
+                    }
+                    return result;
+                }));
+            }
+            Result total = new Result();
+            for (Future<Result> worker : workers) {
+                total.add(worker.get());
+            }
+            total.nanos = System.nanoTime() - start;
+            return total;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Simulation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulation failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Plays one game to its end. Guesses the model rejects are counted and do not use an
+     * attempt, as in the front ends; a strategy that keeps making them gives the game up.
+     */
+    private void playGame(INumberleModel model, String target, Result result) {
+        model.startNewGame(target);
+        int rejected = 0;
+        while (!model.isGameOver()) {
+            String guess = strategy.nextGuess(model);
+            if (guess == null) {
+                break;
+            }
+            if (!model.validateGuess(guess).isValid()) {
+                result.rejectedGuesses++;
+                if (++rejected > INumberleModel.MAX_ATTEMPTS) {
+                    break;
+                }
+                continue;
+            }
+            model.processInput(guess);
+        }
+        result.games++;
+        if (model.isGameWon()) {
+            result.wins[INumberleModel.MAX_ATTEMPTS - model.getRemainingAttempts()]++;
+        }
+    }
+
+    /**
+     * Counts of a simulation.
+     */
+    public static final class Result {
+        private final long[] wins = new long[INumberleModel.MAX_ATTEMPTS + 1];
+        private long games;
+        private long rejectedGuesses;
+        private long nanos;
+
+        void add(Result other) {
+            for (int i = 0; i < wins.length; i++) {
+                wins[i] += other.wins[i];
+            }
+            games += other.games;
+            rejectedGuesses += other.rejectedGuesses;
+        }
+
+        public long getGames() {
+            return games;
+        }
+
+        /** Number of games won with exactly the given number of guesses. */
+        public long getWins(int guesses) {
+            return wins[guesses];
+        }
+
+        public long getWins() {
+            long total = 0;
+            for (long count : wins) {
+                total += count;
+            }
+            return total;
+        }
+
+        /** Fraction of the games that were won. */
+        public double getWinRate() {
+            return games == 0 ? 0 : (double) getWins() / games;
+        }
+
+        /** Average number of guesses of the games that were won. */
+        public double getAverageGuesses() {
+            long guesses = 0;
+            for (int i = 0; i < wins.length; i++) {
+                guesses += i * wins[i];
+            }
+            long won = getWins();
+            return won == 0 ? 0 : (double) guesses / won;
+        }
+
+        /** Guesses the strategy made that the model rejected. */
+        public long getRejectedGuesses() {
+            return rejectedGuesses;
+        }
+
+        public double getGamesPerSecond() {
+            return nanos == 0 ? 0 : games / (nanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder();
+            for (int i = 1; i < wins.length; i++) {
+                text.append(String.format("%-6d %,12d  %5.1f%%%n", i, wins[i], percent(wins[i])));
+            }
+            long lost = games - getWins();
+            text.append(String.format("%-6s %,12d  %5.1f%%%n", "lost", lost, percent(lost)));
+            text.append(String.format("%,d games, %.1f%% won in %.2f guesses on average, %,d rejected guesses%n",
+                    games, 100 * getWinRate(), getAverageGuesses(), rejectedGuesses));
+            return text.append(String.format("in %,d ms, %,.0f games/s%n", nanos / 1_000_000, getGamesPerSecond()))
+                    .toString();
+        }
+
+        private double percent(long count) {
+            return games == 0 ? 0 : 100.0 * count / games;
+        }
+    }
+
+    /**
+     * Runs a simulation and prints its result. Usage:
+     * {@code java GameSimulator [random|greedy|entropy] [all|games] [threads] [dictionary [matrix]]},
+     * where the dictionary is a text file or a compiled .bin file and defaults to the game's,
+     * and the matrix is a {@link FeedbackMatrix} file of that dictionary for the hints.
+     */
+    public static void main(String[] args) throws IOException {
+        EquationDictionary dictionary;
+        if (args.length > 3) {
+            String file = args[3];
+            dictionary = EquationDictionary.load(file, file.endsWith(".bin") ? file : file + ".bin");
+        } else {
+            dictionary = EquationDictionary.preload();
+        }
+        if (dictionary.isEmpty()) {
+            System.err.println("No equations found; run from the directory holding equations.txt");
+            System.exit(2);
+        }
+        String name = args.length > 0 ? args[0] : "greedy";
+        String games = args.length > 1 ? args[1] : "all";
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        GuessStrategy strategy = GuessStrategy.forName(name, dictionary.getEquations());
+        GameSimulator simulator = new GameSimulator(dictionary, strategy, threads);
+        if (args.length > 4) {
+            simulator.setFeedbackMatrix(FeedbackMatrix.open(Paths.get(args[4]), dictionary));
+        }
+        System.out.println("Playing " + (games.equals("all") ? "every target" : games + " games") + " with the "
+                + strategy + " strategy on " + threads + " threads");
+        Result result = games.equals("all") ? simulator.playAllTargets()
+                : simulator.playRandomTargets(Long.parseLong(games));
+        System.out.print(result);
+    }
+}
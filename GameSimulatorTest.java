@@ -0,0 +1,49 @@
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class GameSimulatorTest {
+    private static final List<String> EQUATIONS = Arrays.asList(
+            "1+2+3=6", "2*3+2=8", "9-3*2=3", "4-1*3=1", "8/2+1=5", "7+1-2=6");
+
+    /**
+     * Plays every target with candidate guesses on several threads.
+     *
+     * @pre The dictionary has no more equations than a game has attempts.
+     * @post Every game is played once and won, since each guess rules out at least itself.
+     */
+    @Test
+    public void testPlayAllTargets() {
+        EquationDictionary dictionary = EquationDictionary.of(EQUATIONS);
+        GameSimulator simulator = new GameSimulator(dictionary,
+                GuessStrategy.forName("greedy", dictionary.getEquations()), 3);
+        GameSimulator.Result result = simulator.playAllTargets();
+        assertEquals(EQUATIONS.size(), result.getGames());
+        assertEquals(EQUATIONS.size(), result.getWins());
+        assertEquals(1.0, result.getWinRate(), 0);
+        assertEquals(0, result.getRejectedGuesses());
+        long total = 0;
+        for (int guesses = 1; guesses <= INumberleModel.MAX_ATTEMPTS; guesses++) {
+            total += result.getWins(guesses);
+        }
+        assertEquals(result.getWins(), total);
+    }
+
+    /**
+     * Plays with a strategy whose guesses the model rejects.
+     *
+     * @pre Every guess breaks the rules of the game.
+     * @post The rejected guesses are counted, use no attempts, and the games are given up.
+     */
+    @Test
+    public void testRejectedGuesses() {
+        GameSimulator simulator = new GameSimulator(EquationDictionary.of(EQUATIONS), model -> "1+1=3+1", 2);
+        GameSimulator.Result result = simulator.playRandomTargets(10);
+        assertEquals(10, result.getGames());
+        assertEquals(0, result.getWins());
+        assertEquals(10 * (INumberleModel.MAX_ATTEMPTS + 1), result.getRejectedGuesses());
+    }
+}
@@ -0,0 +1,117 @@
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Chooses the guesses of a simulated player.
+ *
+ * A strategy only sees the game through {@link INumberleModel}. Implementations must be
+ * thread-safe: {@link GameSimulator} calls one strategy concurrently, with a different model
+ * on every thread.
+ */
+public interface GuessStrategy {
+    /**
+     * Chooses the next guess of the game the model is playing.
+     *
+     * @param model The model, with a game in progress.
+     * @return The guess, or null to give up the game.
+     * @post The game state is not changed.
+     */
+    String nextGuess(INumberleModel model);
+
+    /**
+     * Returns the strategy with the given name: "random", "greedy" or "entropy".
+     *
+     * @param name      The name of the strategy.
+     * @param equations The equations of the dictionary the game uses.
+     * @return The strategy.
+     * @throws IllegalArgumentException If there is no strategy with that name.
+     */
+    static GuessStrategy forName(String name, List<String> equations) {
+        switch (name) {
+            case "random":
+                return new RandomGuess(equations);
+            case "greedy":
+                return new CandidateGuess(equations);
+            case "entropy":
+                return new EntropyGuess();
+            default:
+                throw new IllegalArgumentException("Unknown strategy " + name
+                        + "; expected random, greedy or entropy");
+        }
+    }
+
+    /**
+     * Guesses a random equation of the dictionary every time, ignoring the feedback. The
+     * baseline the other strategies are measured against.
+     */
+    final class RandomGuess implements GuessStrategy {
+        private final List<String> equations;
+
+        public RandomGuess(List<String> equations) {
+            this.equations = equations;
+        }
+
+        @Override
+        public String nextGuess(INumberleModel model) {
+            return equations.get(ThreadLocalRandom.current().nextInt(equations.size()));
+        }
+
+        @Override
+        public String toString() {
+            return "random";
+        }
+    }
+
+    /**
+     * Guesses a random equation that is still consistent with all feedback of the game.
+     */
+    final class CandidateGuess implements GuessStrategy {
+        private final List<String> equations;
+
+        public CandidateGuess(List<String> equations) {
+            this.equations = equations;
+        }
+
+        @Override
+        public String nextGuess(INumberleModel model) {
+            if (model.getRemainingAttempts() == INumberleModel.MAX_ATTEMPTS) {
+                // Before the first guess every equation is a candidate.
+                return equations.get(ThreadLocalRandom.current().nextInt(equations.size()));
+            }
+            List<String> candidates = model.getRemainingCandidates();
+            return candidates.isEmpty() ? null : candidates.get(ThreadLocalRandom.current().nextInt(candidates.size()));
+        }
+
+        @Override
+        public String toString() {
+            return "greedy";
+        }
+    }
+
+    /**
+     * Guesses the model's hint, the equation with the highest expected information gain.
+     * The opening guess only depends on the dictionary, so it is computed once and shared;
+     * use one instance per dictionary.
+     */
+    final class EntropyGuess implements GuessStrategy {
+        private volatile String opening;
+
+        @Override
+        public String nextGuess(INumberleModel model) {
+            if (model.getRemainingAttempts() != INumberleModel.MAX_ATTEMPTS) {
+                return model.getHint();
+            }
+            String guess = opening;
+            if (guess == null) {
+                guess = model.getHint();
+                opening = guess;
+            }
+            return guess;
+        }
+
+        @Override
+        public String toString() {
+            return "entropy";
+        }
+    }
+}
@@ -0,0 +1,361 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Checks guesses against the rules of the game and reports the first rule a guess breaks.
+ *
+ * The alphabet, length, presence of numbers and operators, and operator adjacency are all
+ * checked in one scan of the guess, which also packs a guess of up to
+ * {@link PackedEquations#MAX_LENGTH} symbols. A guess that passes them is checked by
+ * {@link PackedEquations#isValid(int)}, and evaluated by {@link ExpressionEvaluator} only to
+ * tell why it is not valid, or if it is too long to pack, so accepting a guess that packs
+ * does not allocate.
+ *
+ * A validator holds nothing but the guess length, so one instance may be shared by any
+ * number of threads. The batch methods {@link #validateAll(Stream, int)} and
+ * {@link #validateFile(Path, int)} validate in parallel.
+ */
+public final class GuessValidator {
+    /** Length of the guesses in the standard game. */
+    public static final int DEFAULT_LENGTH = 7;
+
+    /** Lines longer than this in a validated file are reported as WRONG_LENGTH. */
+    private static final int MAX_LINE_LENGTH = 4096;
+    private static final int CHUNK_SIZE = 16 << 20;
+
+    /**
+     * The outcome of validating a guess, in the order the rules are checked.
+     */
+    public enum Reason {
+        VALID("The guess is valid."),
+        EMPTY("Please enter a guess."),
+        INVALID_SYMBOL("Your guess may only contain digits and + - * / =."),
+        WRONG_LENGTH("Your guess must contain exactly %d characters."),
+        NO_NUMBER_OR_OPERATOR("Your guess must contain both numbers and operators and = ."),
+        CONSECUTIVE_OPERATORS("Your guess contain consecutive operators."),
+        MALFORMED("Your guess must be one equation with numbers on both sides of = ."),
+        DIVISION_BY_ZERO("Your guess divides by zero."),
+        OVERFLOW("The numbers in your guess are too large."),
+        NOT_EQUAL("The left side does not match the right side."),
+        MISSING_GREEN("Hard mode: every green symbol must stay in its place."),
+        MISSING_ORANGE("Hard mode: every revealed symbol must be used.");
+
+        private final String message;
+
+        Reason(String message) {
+            this.message = message;
+        }
+
+        public boolean isValid() {
+            return this == VALID;
+        }
+
+        /** Whether the guess is a valid equation that breaks a rule of hard mode. */
+        public boolean isHardMode() {
+            return this == MISSING_GREEN || this == MISSING_ORANGE;
+        }
+
+        /**
+         * Returns the message shown to the player.
+         *
+         * @param length The required guess length, used by WRONG_LENGTH.
+         * @return The message.
+         */
+        public String getMessage(int length) {
+            return this == WRONG_LENGTH ? String.format(message, length) : message;
+        }
+    }
+
+    private final int length;
+
+    /**
+     * Creates a validator for guesses of the given length.
+     *
+     * @param length The required number of symbols.
+     * @pre length > 0
+     */
+    public GuessValidator(int length) {
+        this.length = length;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Validates a guess.
+     *
+     * @param guess The guess.
+     * @return VALID, or the first rule the guess breaks.
+     * @pre guess is not null.
+     */
+    public Reason validate(CharSequence guess) {
+        return validate(guess, 0, guess.length());
+    }
+
+    /**
+     * Validates the guess between start (inclusive) and end (exclusive).
+     *
+     * @param text  The text holding the guess.
+     * @param start Index of the first character.
+     * @param end   Index after the last character.
+     * @return VALID, or the first rule the guess breaks.
+     * @pre 0 <= start <= end <= text.length()
+     */
+    public Reason validate(CharSequence text, int start, int end) {
+        if (start == end) {
+            return Reason.EMPTY;
+        }
+        boolean containsNumber = false;
+        boolean containsOperator = false;
+        boolean previousOperator = false;
+        boolean consecutiveOperators = false;
+        boolean packable = end - start <= PackedEquations.MAX_LENGTH;
+        int packed = 0;
+        for (int i = start; i < end; i++) {
+            int symbol = Symbols.indexOf(text.charAt(i));
+            if (symbol < 0) {
+                return Reason.INVALID_SYMBOL;
+            }
+            if (packable) {
+                packed = PackedEquations.append(packed, symbol);
+            }
+            boolean operator = !Symbols.isDigit(symbol);
+            containsNumber |= !operator;
+            containsOperator |= operator;
+            consecutiveOperators |= operator && previousOperator;
+            previousOperator = operator;
+        }
+        if (end - start != length) {
+            return Reason.WRONG_LENGTH;
+        }
+        if (!containsNumber || !containsOperator) {
+            return Reason.NO_NUMBER_OR_OPERATOR;
+        }
+        if (consecutiveOperators) {
+            return Reason.CONSECUTIVE_OPERATORS;
+        }
+        if (packable && PackedEquations.isValid(packed)) {
+            return Reason.VALID;
+        }
+        // Only guesses that fail or are too long to pack get here, so an evaluator per call
+        // keeps the validator free of mutable state at little cost.
+        switch (new ExpressionEvaluator().compare(text, start, end)) {
+            case OK:
+                return Reason.VALID;
+            case NOT_EQUAL:
+                return Reason.NOT_EQUAL;
+            case DIVISION_BY_ZERO:
+                return Reason.DIVISION_BY_ZERO;
+            case OVERFLOW:
+                return Reason.OVERFLOW;
+            default:
+                return Reason.MALFORMED;
+        }
+    }
+
+    /**
+     * Validates every guess of a stream in parallel.
+     *
+     * @param guesses The guesses.
+     * @param length  The required guess length.
+     * @return How many guesses ended with each reason.
+     */
+    public static Tally validateAll(Stream<? extends CharSequence> guesses, int length) {
+        return guesses.parallel().collect(() -> new Tally(length), Tally::accept, Tally::add);
+    }
+
+    /**
+     * Validates a file of guesses, one per line, in parallel. The file is mapped and
+     * scanned in place; no line is copied into a string.
+     *
+     * @param file   The file, in ASCII or UTF-8.
+     * @param length The required guess length.
+     * @return How many lines ended with each reason. Empty lines count as EMPTY.
+     * @throws IOException If the file cannot be read.
+     */
+    public static Tally validateFile(Path file, int length) throws IOException {
+        return validateFile(file, length, CHUNK_SIZE);
+    }
+
+    /**
+     * Validates a file in chunks of the given size, one parallel task per chunk.
+     */
+    static Tally validateFile(Path file, int length, int chunkSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int chunks = (int) ((size + chunkSize - 1) / chunkSize);
+            try {
+                return IntStream.range(0, chunks).parallel()
+                        .mapToObj(chunk -> validateChunk(channel, size, (long) chunk * chunkSize, chunkSize, length))
+                        .reduce(Tally::add)
+                        .orElseGet(() -> new Tally(length));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * Validates the lines that start in [from, from + chunkSize) of the file. The mapping
+     * begins one byte early, to see whether a line starts exactly at from, and runs past
+     * the chunk to finish its last line.
+     */
+    private static Tally validateChunk(FileChannel channel, long size, long from, int chunkSize, int length) {
+        long mapStart = Math.max(0, from - 1);
+        long to = Math.min(size, from + chunkSize);
+        long mapEnd = Math.min(size, to + MAX_LINE_LENGTH);
+        AsciiSequence text;
+        try {
+            text = new AsciiSequence(channel.map(FileChannel.MapMode.READ_ONLY, mapStart, mapEnd - mapStart));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Tally tally = new Tally(length);
+        int limit = (int) (to - mapStart);
+        int position = 0;
+        if (from > 0) {
+            // A line that started in the previous chunk belongs to that chunk.
+            position = text.indexOf('\n', 0) + 1;
+            if (position == 0) {
+                return tally;
+            }
+        }
+        while (position < limit) {
+            int newline = text.indexOf('\n', position);
+            if (newline < 0 && mapEnd < size) {
+                tally.count(Reason.WRONG_LENGTH); // longer than MAX_LINE_LENGTH
+                break;
+            }
+            int end = newline < 0 ? text.length() : newline;
+            if (end > position && text.charAt(end - 1) == '\r') {
+                end--;
+            }
+            tally.count(tally.validator.validate(text, position, end));
+            if (newline < 0) {
+                break;
+            }
+            position = newline + 1;
+        }
+        return tally;
+    }
+
+    /**
+     * Counts of validation results.
+     */
+    public static final class Tally {
+        private final long[] counts = new long[Reason.values().length];
+        private final GuessValidator validator;
+
+        Tally(int length) {
+            this.validator = new GuessValidator(length);
+        }
+
+        void accept(CharSequence guess) {
+            count(validator.validate(guess));
+        }
+
+        void count(Reason reason) {
+            counts[reason.ordinal()]++;
+        }
+
+        Tally add(Tally other) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += other.counts[i];
+            }
+            return this;
+        }
+
+        /** Number of guesses that ended with the given reason. */
+        public long get(Reason reason) {
+            return counts[reason.ordinal()];
+        }
+
+        /** Number of guesses validated. */
+        public long total() {
+            long total = 0;
+            for (long count : counts) {
+                total += count;
+            }
+            return total;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder();
+            for (Reason reason : Reason.values()) {
+                if (get(reason) > 0) {
+                    text.append(String.format("%-22s %,d%n", reason, get(reason)));
+                }
+            }
+            return text.append(String.format("%-22s %,d%n", "TOTAL", total())).toString();
+        }
+    }
+
+    /**
+     * Read-only view of ASCII bytes as characters.
+     */
+    private static final class AsciiSequence implements CharSequence {
+        private final ByteBuffer buffer;
+
+        AsciiSequence(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int length() {
+            return buffer.limit();
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (buffer.get(index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            StringBuilder text = new StringBuilder(end - start);
+            for (int i = start; i < end; i++) {
+                text.append(charAt(i));
+            }
+            return text;
+        }
+
+        @Override
+        public String toString() {
+            return subSequence(0, length()).toString();
+        }
+
+        int indexOf(char c, int from) {
+            for (int i = from; i < buffer.limit(); i++) {
+                if (buffer.get(i) == c) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Validates a file of guesses and prints how many ended with each reason.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: java GuessValidator guesses.txt [length]");
+            System.exit(2);
+        }
+        int length = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_LENGTH;
+        long start = System.nanoTime();
+        Tally tally = validateFile(Paths.get(args[0]), length);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        System.out.print(tally);
+        System.out.println("in " + millis + " ms");
+    }
+}
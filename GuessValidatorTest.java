@@ -0,0 +1,122 @@
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class GuessValidatorTest {
+
+    /**
+     * Validates guesses that break one rule each.
+     *
+     * @pre The validator expects 7 symbols.
+     * @post The first broken rule is reported.
+     */
+    @Test
+    public void testValidate() {
+        GuessValidator validator = new GuessValidator(7);
+        assertEquals(GuessValidator.Reason.VALID, validator.validate("2+3*2=8"));
+        assertEquals(GuessValidator.Reason.EMPTY, validator.validate(""));
+        assertEquals(GuessValidator.Reason.INVALID_SYMBOL, validator.validate("2+3x2=8"));
+        assertEquals(GuessValidator.Reason.INVALID_SYMBOL, validator.validate("(1+1)=2"));
+        assertEquals(GuessValidator.Reason.WRONG_LENGTH, validator.validate("2+3=5"));
+        assertEquals(GuessValidator.Reason.NO_NUMBER_OR_OPERATOR, validator.validate("1234567"));
+        assertEquals(GuessValidator.Reason.CONSECUTIVE_OPERATORS, validator.validate("2++3=05"));
+        assertEquals(GuessValidator.Reason.MALFORMED, validator.validate("1+2+3+4"));
+        assertEquals(GuessValidator.Reason.MALFORMED, validator.validate("1=1=1+0"));
+        assertEquals(GuessValidator.Reason.DIVISION_BY_ZERO, validator.validate("5/0+1=1"));
+        assertEquals(GuessValidator.Reason.NOT_EQUAL, validator.validate("2+3*2=9"));
+        assertEquals("Your guess must contain exactly 7 characters.",
+                GuessValidator.Reason.WRONG_LENGTH.getMessage(7));
+    }
+
+    /**
+     * Validates every guess of 5 symbols, and random longer ones.
+     *
+     * @pre The guesses are drawn from the alphabet of the game.
+     * @post Each reason is the first rule of the scan the guess breaks, or otherwise the
+     *       result of ExpressionEvaluator.compare, whether or not the guess was packed.
+     */
+    @Test
+    public void testReasonsMatchEvaluator() {
+        ExpressionEvaluator evaluator = new ExpressionEvaluator();
+        Random random = new Random(11);
+        for (int length : new int[] {5, 7, 9}) {
+            GuessValidator validator = new GuessValidator(length);
+            char[] guess = new char[length];
+            int count = length == 5 ? (int) Math.pow(Symbols.COUNT, length) : 200000;
+            for (int i = 0; i < count; i++) {
+                int rest = i;
+                for (int j = 0; j < length; j++) {
+                    int symbol = length == 5 ? rest % Symbols.COUNT : random.nextInt(Symbols.COUNT);
+                    rest /= Symbols.COUNT;
+                    guess[j] = Symbols.symbol(symbol);
+                }
+                String text = new String(guess);
+                GuessValidator.Reason expected;
+                if (!text.matches(".*[0-9].*") || !text.matches(".*[-+*/=].*")) {
+                    expected = GuessValidator.Reason.NO_NUMBER_OR_OPERATOR;
+                } else if (text.matches(".*[-+*/=]{2}.*")) {
+                    expected = GuessValidator.Reason.CONSECUTIVE_OPERATORS;
+                } else {
+                    ExpressionEvaluator.Result result = evaluator.compare(text);
+                    expected = result == ExpressionEvaluator.Result.OK ? GuessValidator.Reason.VALID
+                            : GuessValidator.Reason.valueOf(result.name());
+                }
+                assertEquals(text, expected, validator.validate(text));
+            }
+        }
+    }
+
+    /**
+     * Validates guesses with the model and compares with its separate checks.
+     *
+     * @pre The guesses are 7 symbols long.
+     * @post validateGuess accepts exactly the guesses all separate checks accept.
+     */
+    @Test
+    public void testMatchesModelChecks() {
+        NumberleModel model = new NumberleModel();
+        for (String guess : Arrays.asList("2+3*2=8", "2+3*2=9", "1234567", "12+3=15", "5/0+1=1", "+12=0+1", "10-3=07")) {
+            boolean expected = model.checkLength(guess) && model.isMathExpression(guess)
+                    && !model.isConsecutiveOperators(guess) && model.compareExpressions(guess);
+            assertEquals(guess, expected, model.validateGuess(guess).isValid());
+        }
+    }
+
+    /**
+     * Validates a stream and a file of guesses in parallel.
+     *
+     * @pre The file uses mixed line endings, has an empty line and no final newline, and is
+     *      split into chunks much smaller than the file.
+     * @post Both batches count the same reasons as validating line by line.
+     */
+    @Test
+    public void testBatch() throws Exception {
+        List<String> lines = Arrays.asList("2+3*2=8", "2+3*2=9", "", "1+1=2", "4-1*3=1\r", "12+3=15", "x", "9*1-1=8");
+        GuessValidator validator = new GuessValidator(7);
+        GuessValidator.Tally tally = GuessValidator.validateAll(lines.stream().map(String::trim), 7);
+        assertEquals(lines.size(), tally.total());
+        assertEquals(4, tally.get(GuessValidator.Reason.VALID));
+        assertEquals(1, tally.get(GuessValidator.Reason.EMPTY));
+
+        File file = File.createTempFile("guesses", ".txt");
+        file.deleteOnExit();
+        Files.write(file.toPath(), String.join("\n", lines).getBytes(StandardCharsets.US_ASCII));
+        for (int chunkSize : new int[]{1, 3, 8, 17, 1 << 20}) {
+            GuessValidator.Tally fromFile = GuessValidator.validateFile(file.toPath(), 7, chunkSize);
+            assertEquals("chunk " + chunkSize, lines.size(), fromFile.total());
+            for (GuessValidator.Reason reason : GuessValidator.Reason.values()) {
+                long expected = Stream.of(lines.toArray(new String[0]))
+                        .filter(line -> validator.validate(line.trim()) == reason).count();
+                assertEquals("chunk " + chunkSize + " " + reason, expected, fromFile.get(reason));
+            }
+        }
+    }
+}
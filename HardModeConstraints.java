@@ -0,0 +1,196 @@
+import java.util.Arrays;
+
+/**
+ * The rules of hard mode: every later guess must keep each GREEN symbol in its place and use
+ * each ORANGE or GREEN symbol at least as often as the feedback has shown it.
+ *
+ * The constraints revealed so far are folded into a mask of allowed symbols per position and
+ * a minimum count per symbol, so checking a guess takes one pass over its symbols and the few
+ * symbols with a minimum, however many guesses came before. Recording feedback and checking
+ * a guess that keeps the constraints do not allocate.
+ *
+ * Instances are not thread-safe.
+ */
+public final class HardModeConstraints {
+    private static final int ALL_SYMBOLS = (1 << Symbols.COUNT) - 1;
+
+    /**
+     * A rule of hard mode that a guess breaks.
+     */
+    public static final class Violation {
+        private final GuessValidator.Reason reason;
+        private final int position;
+        private final char symbol;
+        private final int required;
+
+        Violation(GuessValidator.Reason reason, int position, char symbol, int required) {
+            this.reason = reason;
+            this.position = position;
+            this.symbol = symbol;
+            this.required = required;
+        }
+
+        /** MISSING_GREEN or MISSING_ORANGE. */
+        public GuessValidator.Reason getReason() {
+            return reason;
+        }
+
+        /** The position of a missing green symbol, or -1 for a missing orange one. */
+        public int getPosition() {
+            return position;
+        }
+
+        /** The symbol the guess lacks. */
+        public char getSymbol() {
+            return symbol;
+        }
+
+        /** How often the guess must contain the symbol. */
+        public int getRequired() {
+            return required;
+        }
+
+        /**
+         * Returns the message shown to the player, naming the position or symbol.
+         *
+         * @return The message.
+         */
+        public String getMessage() {
+            if (position >= 0) {
+                return "Hard mode: position " + (position + 1) + " must be " + symbol + ".";
+            }
+            return "Hard mode: your guess must contain " + symbol
+                    + (required == 1 ? "." : " at least " + required + " times.");
+        }
+
+        @Override
+        public String toString() {
+            return getMessage();
+        }
+    }
+
+    private final int[] allowed;
+    private final int[] minCounts = new int[Symbols.COUNT];
+    private final int[] required;
+    private int requiredCount;
+
+    /**
+     * Creates constraints for guesses of the given length, allowing every guess.
+     *
+     * @param length The length of the guesses.
+     * @pre 0 < length <= {@link FeedbackCode#MAX_LENGTH}
+     */
+    public HardModeConstraints(int length) {
+        this.allowed = new int[length];
+        this.required = new int[length];
+        reset();
+    }
+
+    /**
+     * Forgets every constraint, for a new game.
+     */
+    public void reset() {
+        Arrays.fill(allowed, ALL_SYMBOLS);
+        Arrays.fill(minCounts, 0);
+        requiredCount = 0;
+    }
+
+    /**
+     * Adds the constraints revealed by the feedback of a guess.
+     *
+     * @param guess The scored guess.
+     * @param code  Its feedback code.
+     * @pre guess has the constraints' length and only symbols of {@link Symbols#ALPHABET}.
+     */
+    public void record(CharSequence guess, int code) {
+        // 4-bit counter per symbol of the green and orange positions
+        long revealed = 0;
+        for (int i = 0; i < allowed.length; i++) {
+            int symbol = Symbols.indexOf(guess.charAt(i));
+            int color = FeedbackCode.colorAt(code, i);
+            if (color == FeedbackCode.GREEN) {
+                allowed[i] = 1 << symbol;
+            }
+            if (color != FeedbackCode.GRAY) {
+                revealed += 1L << (symbol << 2);
+            }
+        }
+        while (revealed != 0) {
+            int symbol = Long.numberOfTrailingZeros(revealed) >>> 2;
+            int count = (int) (revealed >>> (symbol << 2)) & 15;
+            if (minCounts[symbol] == 0) {
+                required[requiredCount++] = symbol;
+            }
+            minCounts[symbol] = Math.max(minCounts[symbol], count);
+            revealed &= ~(15L << (symbol << 2));
+        }
+    }
+
+    /**
+     * Checks a guess against the constraints revealed so far.
+     *
+     * @param guess The guess.
+     * @return null if the guess keeps every constraint, otherwise the first one it breaks:
+     *         green positions from left to right, then orange symbols in the order revealed.
+     * @pre guess has the constraints' length and only symbols of {@link Symbols#ALPHABET}.
+     */
+    public Violation check(CharSequence guess) {
+        long counts = 0;
+        for (int i = 0; i < allowed.length; i++) {
+            int symbol = Symbols.indexOf(guess.charAt(i));
+            if ((allowed[i] & 1 << symbol) == 0) {
+                int green = Integer.numberOfTrailingZeros(allowed[i]);
+                return new Violation(GuessValidator.Reason.MISSING_GREEN, i, Symbols.symbol(green), 1);
+            }
+            counts += 1L << (symbol << 2);
+        }
+        for (int r = 0; r < requiredCount; r++) {
+            int symbol = required[r];
+            if (((int) (counts >>> (symbol << 2)) & 15) < minCounts[symbol]) {
+                return new Violation(GuessValidator.Reason.MISSING_ORANGE, -1, Symbols.symbol(symbol),
+                        minCounts[symbol]);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns a query for the equations that keep the constraints, to count or list them
+     * over a {@link PositionalIndex}.
+     *
+     * @return A new query.
+     */
+    public EquationQuery toQuery() {
+        char[] pattern = new char[allowed.length];
+        for (int i = 0; i < pattern.length; i++) {
+            char green = getGreen(i);
+            pattern[i] = green == 0 ? EquationQuery.ANY : green;
+        }
+        EquationQuery query = new EquationQuery().matching(new String(pattern));
+        for (int r = 0; r < requiredCount; r++) {
+            query.count(Symbols.symbol(required[r]), minCounts[required[r]], Integer.MAX_VALUE);
+        }
+        return query;
+    }
+
+    /**
+     * Returns the minimum number of times a guess must contain a symbol.
+     *
+     * @param symbol The symbol.
+     * @return The minimum count.
+     */
+    public int getMinCount(char symbol) {
+        int index = Symbols.indexOf(symbol);
+        return index < 0 ? 0 : minCounts[index];
+    }
+
+    /**
+     * Returns the symbol a position must hold.
+     *
+     * @param position The position.
+     * @return The green symbol, or 0 if the position is still open.
+     */
+    public char getGreen(int position) {
+        return allowed[position] == ALL_SYMBOLS ? 0 : Symbols.symbol(Integer.numberOfTrailingZeros(allowed[position]));
+    }
+}
@@ -0,0 +1,85 @@
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class HardModeConstraintsTest {
+    private static final String TARGET = "2+3*2=8";
+
+    /**
+     * Checks guesses against the feedback of earlier ones.
+     *
+     * @pre Against 2+3*2=8, 4-1*3=1 shows * and = green and 3 orange; 2+2*1=4 then shows
+     *      2 twice.
+     * @post Moving a green symbol or leaving out an orange one is a violation naming the
+     *       position or the symbol and its count; a guess using all of them is not, and the
+     *       query of the constraints finds only such guesses.
+     */
+    @Test
+    public void testCheck() {
+        HardModeConstraints constraints = new HardModeConstraints(7);
+        assertNull(constraints.check("6*1-2=4"));
+        constraints.record("4-1*3=1", FeedbackCode.score(TARGET, "4-1*3=1"));
+        assertEquals('*', constraints.getGreen(3));
+        assertEquals(0, constraints.getGreen(0));
+        assertEquals(1, constraints.getMinCount('3'));
+
+        assertNull(constraints.check("9-3*2=3"));
+        HardModeConstraints.Violation moved = constraints.check("6*1-2=4");
+        assertEquals(GuessValidator.Reason.MISSING_GREEN, moved.getReason());
+        assertEquals(3, moved.getPosition());
+        assertEquals('*', moved.getSymbol());
+        assertEquals("Hard mode: position 4 must be *.", moved.getMessage());
+        HardModeConstraints.Violation missing = constraints.check("1+5*1=6");
+        assertEquals(GuessValidator.Reason.MISSING_ORANGE, missing.getReason());
+        assertEquals('3', missing.getSymbol());
+
+        constraints.record("2+2*1=4", FeedbackCode.score(TARGET, "2+2*1=4"));
+        assertEquals(2, constraints.getMinCount('2'));
+        HardModeConstraints.Violation once = constraints.check("2+3*1=5");
+        assertEquals("Hard mode: your guess must contain 2 at least 2 times.", once.getMessage());
+        assertNull(constraints.check(TARGET));
+        assertEquals(List.of(TARGET), constraints.toQuery().find(
+                new PositionalIndex(List.of("2+3*1=5", TARGET, "9-3*2=3")), 10));
+
+        constraints.reset();
+        assertNull(constraints.check("6*1-2=4"));
+    }
+
+    /**
+     * Plays hard mode in the model and in a headless session.
+     *
+     * @pre Both start 2+3*2=8 in hard mode and accept 4-1*3=1.
+     * @post A guess leaving out the orange 3 is rejected without using an attempt, with a
+     *       message naming it; the model accepts it again once hard mode is off.
+     */
+    @Test
+    public void testModelAndSessions() {
+        EquationDictionary dictionary = EquationDictionary.of(List.of(TARGET, "4-1*3=1", "9-3*2=3"));
+        NumberleModel model = new NumberleModel(dictionary, new GameMetrics(false));
+        model.setLogger(GameLogger.NONE);
+        model.startNewGame(TARGET);
+        model.setHardMode(true);
+        assertEquals(GuessValidator.Reason.VALID, model.validateGuess("4-1*3=1"));
+        model.processInput("4-1*3=1");
+        assertEquals(GuessValidator.Reason.MISSING_ORANGE, model.validateGuess("1+5*1=6"));
+        assertEquals('3', model.checkHardMode("1+5*1=6").getSymbol());
+        assertEquals(GuessValidator.Reason.VALID, model.validateGuess("9-3*2=3"));
+        model.setHardMode(false);
+        assertEquals(GuessValidator.Reason.VALID, model.validateGuess("1+5*1=6"));
+
+        GameSessionManager manager = new GameSessionManager(dictionary, new GameMetrics(false));
+        manager.setLogger(GameLogger.NONE);
+        GameSession session = manager.start(TARGET, true);
+        assertTrue(session.isHardMode());
+        assertEquals(GameSessionManager.Status.ACCEPTED, manager.guess(session.getId(), "4-1*3=1").getStatus());
+        GameSessionManager.GuessResult rejected = manager.guess(session.getId(), "1+5*1=6");
+        assertEquals(GameSessionManager.Status.INVALID, rejected.getStatus());
+        assertEquals(GuessValidator.Reason.MISSING_ORANGE, rejected.getReason());
+        assertEquals("Hard mode: your guess must contain 3.", rejected.getMessage());
+        assertEquals(INumberleModel.MAX_ATTEMPTS - 1, session.getRemainingAttempts());
+        assertEquals(GameSessionManager.Status.ACCEPTED, manager.guess(session.getId(), "9-3*2=3").getStatus());
+        assertFalse(manager.start(TARGET).isHardMode());
+    }
+}
@@ -2,6 +2,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.awt.Color;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 public interface INumberleModel {
     int MAX_ATTEMPTS = 6;
@@ -13,6 +14,7 @@ public interface INumberleModel {
     StringBuilder getCurrentGuess();
     int getRemainingAttempts();
     void startNewGame();
+    void startNewGame(String target);
     boolean  compareExpressions(String input);
     boolean checkLength(String input);
     void toggleRandomEquationMode();
@@ -21,4 +23,16 @@ public interface INumberleModel {
     boolean isMathExpression(String input);
     Color[] getColor(String targetNumber, String currentGuess);
     Map<Character, String> getOperatorColor(String targetStr, String guessStr);
+    KeyboardState getKeyboardState();
+    int getFeedbackCode(String targetNumber, String currentGuess);
+    String getHint();
+    int getCandidateCount();
+    List<String> getRemainingCandidates();
+    GuessValidator.Reason validateGuess(String input);
+    void setHardMode(boolean hardMode);
+    boolean isHardMode();
+    HardModeConstraints.Violation checkHardMode(String input);
+    void addModelListener(ModelListener listener);
+    void addModelListener(ModelListener listener, Executor executor);
+    void removeModelListener(ModelListener listener);
 }
@@ -0,0 +1,232 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replays a {@link GameJournal} through the game model and reports where the current rules
+ * disagree with what was recorded.
+ *
+ * Every journaled game is started on an {@link INumberleModel} with its recorded target and
+ * every guess is validated and processed again. The feedback code the model computes is
+ * compared with the recorded one, and the outcome of the game with the recorded result, so
+ * a scoring or validation change can be checked against real traffic.
+ *
+ * Replaying is meant to be fast: the models have no dictionary, so they do not narrow
+ * candidates, and they neither log nor record metrics. Games that are interleaved in the
+ * journal each get a model, taken from a pool of models of finished games.
+ *
+ * Instances are not thread-safe.
+ */
+public final class JournalReplay implements ModelListener {
+    private static final EquationDictionary NO_EQUATIONS = EquationDictionary.of(Collections.emptyList());
+    private static final int MAX_SAMPLES = 10;
+
+    private final GameMetrics metrics = new GameMetrics(false);
+    private final Map<Long, NumberleModel> games = new HashMap<>();
+    private final ArrayDeque<NumberleModel> idle = new ArrayDeque<>();
+    private Report report;
+    private int lastCode;
+
+    /**
+     * Replays every game of a journal.
+     *
+     * @param directory The journal directory.
+     * @return What the replay found.
+     * @throws IOException If the journal cannot be read.
+     */
+    public Report replay(Path directory) throws IOException {
+        report = new Report();
+        games.clear();
+        long start = System.nanoTime();
+        report.records = GameJournal.read(directory, this::replay);
+        report.nanos = System.nanoTime() - start;
+        report.unfinishedGames += games.size();
+        return report;
+    }
+
+    /**
+     * Replays one record.
+     *
+     * @param record The record.
+     */
+    void replay(GameLogRecord record) {
+        switch (record.getType()) {
+            case GAME_STARTED:
+                startGame(record);
+                break;
+            case GUESS:
+                replayGuess(record);
+                break;
+            default:
+                endGame(record);
+                break;
+        }
+    }
+
+    private void startGame(GameLogRecord record) {
+        NumberleModel model = idle.poll();
+        if (model == null) {
+            model = new NumberleModel(NO_EQUATIONS, metrics);
+            model.setLogger(GameLogger.NONE);
+            model.addModelListener(this);
+        }
+        INumberleModel previous = games.put(record.getGameId(), model);
+        if (previous != null) {
+            report.unfinishedGames++;
+        }
+        model.startNewGame(record.getTarget());
+        report.games++;
+    }
+
+    private void replayGuess(GameLogRecord record) {
+        INumberleModel model = games.get(record.getGameId());
+        if (model == null || model.isGameOver()) {
+            report.orphanRecords++;
+            return;
+        }
+        String guess = record.getGuess();
+        GuessValidator.Reason reason = model.validateGuess(guess);
+        if (!reason.isValid()) {
+            report.rejectedGuesses++;
+            report.sample(record, "now rejected: " + reason);
+        }
+        lastCode = -1;
+        model.processInput(guess);
+        report.guesses++;
+        if (lastCode != record.getFeedback()) {
+            report.feedbackMismatches++;
+            report.sample(record, "feedback now " + (lastCode < 0 ? "none"
+                    : FeedbackCode.toPattern(lastCode, guess.length())));
+        }
+    }
+
+    private void endGame(GameLogRecord record) {
+        NumberleModel model = games.remove(record.getGameId());
+        if (model == null) {
+            report.orphanRecords++;
+            return;
+        }
+        int attempts = INumberleModel.MAX_ATTEMPTS - model.getRemainingAttempts();
+        if (!model.isGameOver() || model.isGameWon() != record.isWon() || attempts != record.getAttempt()) {
+            report.resultMismatches++;
+            report.sample(record, "now " + (model.isGameOver() ? model.isGameWon() ? "won" : "lost" : "unfinished")
+                    + " after " + attempts);
+        }
+        idle.push(model);
+    }
+
+    @Override
+    public void modelChanged(ModelEvent event) {
+        if (event instanceof ModelEvent.GuessScored) {
+            lastCode = ((ModelEvent.GuessScored) event).getCode();
+        }
+    }
+
+    /**
+     * Counts of a replay.
+     */
+    public static final class Report {
+        private long records;
+        private long games;
+        private long guesses;
+        private long rejectedGuesses;
+        private long feedbackMismatches;
+        private long resultMismatches;
+        private long orphanRecords;
+        private long unfinishedGames;
+        private long nanos;
+        private final List<String> samples = new ArrayList<>();
+
+        private void sample(GameLogRecord record, String problem) {
+            if (samples.size() < MAX_SAMPLES) {
+                samples.add(record + ": " + problem);
+            }
+        }
+
+        public long getRecords() {
+            return records;
+        }
+
+        public long getGames() {
+            return games;
+        }
+
+        public long getGuesses() {
+            return guesses;
+        }
+
+        /** Recorded guesses the current validator rejects. */
+        public long getRejectedGuesses() {
+            return rejectedGuesses;
+        }
+
+        /** Guesses whose feedback differs from the recorded feedback. */
+        public long getFeedbackMismatches() {
+            return feedbackMismatches;
+        }
+
+        /** Games whose outcome or number of guesses differs from the recorded result. */
+        public long getResultMismatches() {
+            return resultMismatches;
+        }
+
+        /** Guesses and results of games that were not started in the journal or already over. */
+        public long getOrphanRecords() {
+            return orphanRecords;
+        }
+
+        /** Games that were started but have no recorded result. */
+        public long getUnfinishedGames() {
+            return unfinishedGames;
+        }
+
+        /** The first few records that did not replay cleanly, with what differed. */
+        public List<String> getSamples() {
+            return Collections.unmodifiableList(samples);
+        }
+
+        /** Whether every record replayed as recorded. */
+        public boolean isClean() {
+            return rejectedGuesses == 0 && feedbackMismatches == 0 && resultMismatches == 0;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder();
+            text.append(String.format("%-22s %,d%n", "records", records));
+            text.append(String.format("%-22s %,d%n", "games", games));
+            text.append(String.format("%-22s %,d%n", "guesses", guesses));
+            text.append(String.format("%-22s %,d%n", "rejected guesses", rejectedGuesses));
+            text.append(String.format("%-22s %,d%n", "feedback mismatches", feedbackMismatches));
+            text.append(String.format("%-22s %,d%n", "result mismatches", resultMismatches));
+            text.append(String.format("%-22s %,d%n", "orphan records", orphanRecords));
+            text.append(String.format("%-22s %,d%n", "unfinished games", unfinishedGames));
+            for (String sample : samples) {
+                text.append("  ").append(sample).append(System.lineSeparator());
+            }
+            double seconds = nanos / 1e9;
+            return text.append(String.format("in %,d ms, %,.0f guesses/s%n", nanos / 1_000_000,
+                    seconds > 0 ? guesses / seconds : 0)).toString();
+        }
+    }
+
+    /**
+     * Replays a journal directory and prints the report. Exits with status 1 if any record
+     * did not replay as recorded.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: java JournalReplay journal-directory");
+            System.exit(2);
+        }
+        Report report = new JournalReplay().replay(Paths.get(args[0]));
+        System.out.print(report);
+        System.exit(report.isClean() ? 0 : 1);
+    }
+}
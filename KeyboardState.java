@@ -0,0 +1,100 @@
+import java.util.Arrays;
+
+/**
+ * The colour of every key of the keyboard, accumulated over the guesses of a game.
+ *
+ * One colour per symbol of {@link Symbols} is kept in a fixed array. A key only ever moves
+ * up from {@link #UNKNOWN} through {@link FeedbackCode#GRAY} and {@link FeedbackCode#ORANGE}
+ * to {@link FeedbackCode#GREEN}: merging a guess keeps the best colour any occurrence of
+ * the symbol has had so far, so a later guess can never hide what an earlier one revealed.
+ * Merging a guess costs one step per position and reports which keys changed.
+ *
+ * Instances are not thread-safe; {@link #copy()} takes a snapshot that can be handed to
+ * another thread.
+ */
+public final class KeyboardState {
+    /** Colour of a key whose symbol has not been guessed yet. */
+    public static final int UNKNOWN = -1;
+
+    private final byte[] colors = new byte[Symbols.COUNT];
+
+    public KeyboardState() {
+        reset();
+    }
+
+    private KeyboardState(KeyboardState other) {
+        System.arraycopy(other.colors, 0, colors, 0, colors.length);
+    }
+
+    /**
+     * Marks every key as not guessed yet.
+     */
+    public void reset() {
+        Arrays.fill(colors, (byte) UNKNOWN);
+    }
+
+    /**
+     * Merges the feedback of a guess into the key colours.
+     *
+     * @param guess The guess.
+     * @param code  The feedback code of the guess.
+     * @return A mask with bit i set for every symbol index i whose colour changed.
+     * @pre code is the feedback code of guess.
+     * @post No key has a lower colour than before.
+     */
+    public int merge(CharSequence guess, int code) {
+        int changed = 0;
+        for (int i = 0; i < guess.length(); i++) {
+            int color = code % 3;
+            code /= 3;
+            int symbol = Symbols.indexOf(guess.charAt(i));
+            if (symbol >= 0 && color > colors[symbol]) {
+                colors[symbol] = (byte) color;
+                changed |= 1 << symbol;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Returns the colour of a key.
+     *
+     * @param symbol The symbol index of the key, see {@link Symbols}.
+     * @return GRAY, ORANGE or GREEN of {@link FeedbackCode}, or UNKNOWN.
+     */
+    public int colorOf(int symbol) {
+        return colors[symbol];
+    }
+
+    /**
+     * Returns the colour of a key.
+     *
+     * @param c The symbol of the key.
+     * @return GRAY, ORANGE or GREEN of {@link FeedbackCode}, or UNKNOWN for symbols that have
+     *         not been guessed or are not part of the alphabet.
+     */
+    public int colorOf(char c) {
+        int symbol = Symbols.indexOf(c);
+        return symbol < 0 ? UNKNOWN : colors[symbol];
+    }
+
+    /**
+     * Returns a copy that does not change when this state does.
+     *
+     * @return The snapshot.
+     */
+    public KeyboardState copy() {
+        return new KeyboardState(this);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(Symbols.COUNT);
+        for (int symbol = 0; symbol < Symbols.COUNT; symbol++) {
+            int color = colors[symbol];
+            text.append(color == FeedbackCode.GREEN ? 'G' : color == FeedbackCode.ORANGE ? 'O'
+                    : color == FeedbackCode.GRAY ? '-' : '.');
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,86 @@
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class KeyboardStateTest {
+
+    /**
+     * Merges two guesses and checks the reported changes.
+     *
+     * @pre The keyboard is new and the target is 2+3*2=8.
+     * @post Every guessed symbol gets a colour, and only keys that move up are reported.
+     */
+    @Test
+    public void testMerge() {
+        KeyboardState keyboard = new KeyboardState();
+        int changed = keyboard.merge("4-1*3=1", FeedbackCode.score("2+3*2=8", "4-1*3=1"));
+        assertEquals(mask("4-1*3="), changed);
+        assertEquals(FeedbackCode.GRAY, keyboard.colorOf('4'));
+        assertEquals(FeedbackCode.ORANGE, keyboard.colorOf('3'));
+        assertEquals(FeedbackCode.GREEN, keyboard.colorOf('*'));
+        assertEquals(KeyboardState.UNKNOWN, keyboard.colorOf('8'));
+
+        // '3' moves up to green, '+' and '8' are new, the rest keep their colour.
+        changed = keyboard.merge("4+3*1=8", FeedbackCode.score("2+3*2=8", "4+3*1=8"));
+        assertEquals(mask("+38"), changed);
+        assertEquals(".-.G-...G.G-G.G", keyboard.toString());
+    }
+
+    /**
+     * Merges feedback that would lower a key.
+     *
+     * @pre A symbol is green, then guessed twice where the second occurrence is gray.
+     * @post The key stays green and is not reported as changed.
+     */
+    @Test
+    public void testMonotonic() {
+        KeyboardState keyboard = new KeyboardState();
+        keyboard.merge("2+3*2=8", FeedbackCode.score("2+3*2=8", "2+3*2=8"));
+        KeyboardState snapshot = keyboard.copy();
+        int changed = keyboard.merge("1+1+1=3", FeedbackCode.score("2+3*2=8", "1+1+1=3"));
+        assertEquals(0, changed & mask("+=3"));
+        assertEquals(FeedbackCode.GREEN, keyboard.colorOf('+'));
+        assertEquals(FeedbackCode.GREEN, keyboard.colorOf('3'));
+        assertEquals(FeedbackCode.GRAY, keyboard.colorOf('1'));
+        assertEquals(KeyboardState.UNKNOWN, snapshot.colorOf('1'));
+        keyboard.reset();
+        assertEquals(KeyboardState.UNKNOWN, keyboard.colorOf('+'));
+    }
+
+    /**
+     * Plays guesses on the model.
+     *
+     * @pre A game with a fixed target.
+     * @post The model accumulates the key colours, publishes the changed keys and clears
+     *       them for a new game.
+     */
+    @Test
+    public void testModelKeyboard() {
+        NumberleModel model = new NumberleModel(EquationDictionary.of(List.of("2+3*2=8")), new GameMetrics(false));
+        model.setLogger(GameLogger.NONE);
+        int[] changed = new int[1];
+        model.addModelListener(event -> {
+            if (event instanceof ModelEvent.GuessScored) {
+                changed[0] = ((ModelEvent.GuessScored) event).getChangedKeys();
+            }
+        });
+        model.startNewGame("2+3*2=8");
+        model.processInput("4-1*3=1");
+        assertEquals(mask("4-1*3="), changed[0]);
+        model.processInput("4-1*3=1");
+        assertEquals(0, changed[0]);
+        assertEquals(FeedbackCode.ORANGE, model.getKeyboardState().colorOf('3'));
+        model.startNewGame("2+3*2=8");
+        assertEquals(KeyboardState.UNKNOWN, model.getKeyboardState().colorOf('3'));
+    }
+
+    private static int mask(String symbols) {
+        int mask = 0;
+        for (int i = 0; i < symbols.length(); i++) {
+            mask |= 1 << Symbols.indexOf(symbols.charAt(i));
+        }
+        return mask;
+    }
+}
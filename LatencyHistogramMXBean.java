@@ -0,0 +1,19 @@
+/**
+ * Management view of a {@link LatencyHistogram}. All times are in nanoseconds; percentiles
+ * are accurate to within 25%.
+ */
+public interface LatencyHistogramMXBean {
+    long getCount();
+
+    double getMeanNanos();
+
+    long getP50Nanos();
+
+    long getP90Nanos();
+
+    long getP99Nanos();
+
+    long getP999Nanos();
+
+    long getMaxNanos();
+}
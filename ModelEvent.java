@@ -0,0 +1,121 @@
+/**
+ * Something that happened in a {@link NumberleModel}. Events carry everything the model
+ * already computed, so listeners do not have to query the model or rescore guesses.
+ */
+public abstract class ModelEvent {
+
+    ModelEvent() {
+    }
+
+    /**
+     * A new game has started; all earlier guesses are void.
+     */
+    public static final class GameStarted extends ModelEvent {
+        private final int attempts;
+
+        public GameStarted(int attempts) {
+            this.attempts = attempts;
+        }
+
+        /** Number of attempts available in the new game. */
+        public int getAttempts() {
+            return attempts;
+        }
+
+        @Override
+        public String toString() {
+            return "GameStarted[attempts=" + attempts + "]";
+        }
+    }
+
+    /**
+     * A guess has been processed and scored.
+     */
+    public static final class GuessScored extends ModelEvent {
+        private final int row;
+        private final String guess;
+        private final int code;
+        private final int remainingAttempts;
+        private final int changedKeys;
+        private final KeyboardState keyboard;
+
+        /**
+         * Creates the event of a scored guess.
+         *
+         * @param row               Zero-based index of the guess in the game.
+         * @param guess             The guess.
+         * @param code              Feedback code of the guess, or -1.
+         * @param remainingAttempts Attempts left after the guess.
+         * @param changedKeys       Mask of the symbol indices whose key colour the guess changed.
+         * @param keyboard          Snapshot of the key colours after the guess.
+         */
+        public GuessScored(int row, String guess, int code, int remainingAttempts, int changedKeys,
+                           KeyboardState keyboard) {
+            this.row = row;
+            this.guess = guess;
+            this.code = code;
+            this.remainingAttempts = remainingAttempts;
+            this.changedKeys = changedKeys;
+            this.keyboard = keyboard;
+        }
+
+        /** Zero-based index of the guess in the game. */
+        public int getRow() {
+            return row;
+        }
+
+        public String getGuess() {
+            return guess;
+        }
+
+        /** Feedback code of the guess, see {@link FeedbackCode}, or -1 if it could not be scored. */
+        public int getCode() {
+            return code;
+        }
+
+        public int getRemainingAttempts() {
+            return remainingAttempts;
+        }
+
+        /** Mask with bit i set if the colour of the key of symbol index i changed. */
+        public int getChangedKeys() {
+            return changedKeys;
+        }
+
+        /** The key colours after the guess. */
+        public KeyboardState getKeyboard() {
+            return keyboard;
+        }
+
+        @Override
+        public String toString() {
+            return "GuessScored[row=" + row + ", guess=" + guess + ", code=" + code + "]";
+        }
+    }
+
+    /**
+     * The game has been won or all attempts are used.
+     */
+    public static final class GameEnded extends ModelEvent {
+        private final boolean won;
+        private final String target;
+
+        public GameEnded(boolean won, String target) {
+            this.won = won;
+            this.target = target;
+        }
+
+        public boolean isWon() {
+            return won;
+        }
+
+        public String getTarget() {
+            return target;
+        }
+
+        @Override
+        public String toString() {
+            return "GameEnded[won=" + won + "]";
+        }
+    }
+}
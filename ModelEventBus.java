@@ -0,0 +1,112 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Delivers model events to listeners.
+ *
+ * Synchronous listeners are called on the publishing thread, before
+ * {@link #publish(ModelEvent)} returns. Asynchronous listeners are called on their own
+ * executor, for example {@code SwingUtilities::invokeLater}: events published while a
+ * delivery is pending are delivered together, in order, by a single task, and events that
+ * precede a later {@link ModelEvent.GameStarted} in the same burst are dropped, since the
+ * new game replaces everything they describe. A listener is never called concurrently
+ * with itself.
+ */
+public class ModelEventBus {
+    private final List<ModelListener> listeners = new CopyOnWriteArrayList<>();
+    private final List<AsyncListener> asyncListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Adds a listener that is called on the publishing thread.
+     *
+     * @param listener The listener.
+     */
+    public void addListener(ModelListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Adds a listener that is called on the given executor, with bursts coalesced.
+     *
+     * @param listener The listener.
+     * @param executor Runs the deliveries.
+     */
+    public void addListener(ModelListener listener, Executor executor) {
+        asyncListeners.add(new AsyncListener(listener, executor));
+    }
+
+    /**
+     * Removes a listener however it was added.
+     *
+     * @param listener The listener.
+     */
+    public void removeListener(ModelListener listener) {
+        listeners.remove(listener);
+        asyncListeners.removeIf(async -> async.listener == listener);
+    }
+
+    /**
+     * Publishes an event to all listeners.
+     *
+     * @param event The event.
+     */
+    public void publish(ModelEvent event) {
+        for (ModelListener listener : listeners) {
+            listener.modelChanged(event);
+        }
+        for (AsyncListener listener : asyncListeners) {
+            listener.offer(event);
+        }
+    }
+
+    /**
+     * Queues events for one asynchronous listener and delivers them in batches.
+     */
+    private static final class AsyncListener implements Runnable {
+        private final ModelListener listener;
+        private final Executor executor;
+        private final ConcurrentLinkedQueue<ModelEvent> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        AsyncListener(ModelListener listener, Executor executor) {
+            this.listener = listener;
+            this.executor = executor;
+        }
+
+        void offer(ModelEvent event) {
+            pending.add(event);
+            schedule();
+        }
+
+        private void schedule() {
+            if (!pending.isEmpty() && scheduled.compareAndSet(false, true)) {
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                List<ModelEvent> batch = new ArrayList<>();
+                int from = 0;
+                for (ModelEvent event; (event = pending.poll()) != null; ) {
+                    if (event instanceof ModelEvent.GameStarted) {
+                        from = batch.size();
+                    }
+                    batch.add(event);
+                }
+                for (int i = from; i < batch.size(); i++) {
+                    listener.modelChanged(batch.get(i));
+                }
+            } finally {
+                scheduled.set(false);
+                // Events published during delivery are picked up by the next task.
+                schedule();
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+import static org.junit.Assert.*;
+
+public class ModelEventBusTest {
+
+    /**
+     * Delivers to a synchronous listener.
+     *
+     * @pre A listener is added without an executor.
+     * @post Every event is delivered before publish returns.
+     */
+    @Test
+    public void testSynchronousDelivery() {
+        ModelEventBus bus = new ModelEventBus();
+        List<ModelEvent> received = new ArrayList<>();
+        bus.addListener(received::add);
+        ModelEvent started = new ModelEvent.GameStarted(6);
+        bus.publish(started);
+        assertEquals(1, received.size());
+        assertSame(started, received.get(0));
+    }
+
+    /**
+     * Coalesces a burst for an asynchronous listener.
+     *
+     * @pre Several events are published before the executor runs.
+     * @post One task delivers the events after the last GameStarted, in order.
+     */
+    @Test
+    public void testAsynchronousCoalescing() {
+        ModelEventBus bus = new ModelEventBus();
+        Queue<Runnable> tasks = new ArrayDeque<>();
+        List<ModelEvent> received = new ArrayList<>();
+        bus.addListener(received::add, tasks::add);
+
+        bus.publish(scored("2+3*2=8", 0));
+        bus.publish(new ModelEvent.GameEnded(false, "1+1+1=3"));
+        ModelEvent started = new ModelEvent.GameStarted(6);
+        bus.publish(started);
+        ModelEvent scored = scored("4-1*3=1", 3);
+        bus.publish(scored);
+
+        assertEquals(1, tasks.size());
+        tasks.poll().run();
+        assertEquals(2, received.size());
+        assertSame(started, received.get(0));
+        assertSame(scored, received.get(1));
+        assertTrue(tasks.isEmpty());
+
+        bus.publish(new ModelEvent.GameEnded(true, "4-1*3=1"));
+        assertEquals(1, tasks.size());
+    }
+
+    /**
+     * Publishes from inside an asynchronous listener.
+     *
+     * @pre The listener starts a new game when the game ends.
+     * @post The new event is delivered by a later task, not re-entrantly.
+     */
+    @Test
+    public void testPublishDuringDelivery() {
+        ModelEventBus bus = new ModelEventBus();
+        Queue<Runnable> tasks = new ArrayDeque<>();
+        List<ModelEvent> received = new ArrayList<>();
+        bus.addListener(event -> {
+            received.add(event);
+            if (event instanceof ModelEvent.GameEnded) {
+                bus.publish(new ModelEvent.GameStarted(6));
+            }
+        }, tasks::add);
+
+        bus.publish(new ModelEvent.GameEnded(true, "4-1*3=1"));
+        tasks.poll().run();
+        assertEquals(1, received.size());
+        assertEquals(1, tasks.size());
+        tasks.poll().run();
+        assertTrue(received.get(1) instanceof ModelEvent.GameStarted);
+    }
+
+    private static ModelEvent scored(String guess, int code) {
+        KeyboardState keyboard = new KeyboardState();
+        int changedKeys = keyboard.merge(guess, code);
+        return new ModelEvent.GuessScored(0, guess, code, 5, changedKeys, keyboard);
+    }
+}
@@ -0,0 +1,11 @@
+/**
+ * Receives the events of a {@link NumberleModel}.
+ */
+public interface ModelListener {
+    /**
+     * Called for every event that is not superseded by a later {@link ModelEvent.GameStarted}.
+     *
+     * @param event The event.
+     */
+    void modelChanged(ModelEvent event);
+}
@@ -1,13 +1,46 @@
 import java.awt.*;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 // NumberleController.java
+/**
+ * Connects the view to the model.
+ *
+ * Work that can take long, validating and scoring guesses, hints and new games, runs on a
+ * single worker thread instead of the caller's, so the Swing event dispatch thread never
+ * waits for the model; the asynchronous methods return a future that completes on the
+ * worker. One worker keeps the model confined to a single thread and the requests in the
+ * order they were made.
+ */
 public class NumberleController {
     private INumberleModel model;
     private NumberleView view;
+    private final Executor worker;
 
     public NumberleController(INumberleModel model) {
+        this(model, newWorker());
+    }
+
+    /**
+     * Creates a controller that runs its asynchronous requests on the given executor.
+     *
+     * @param model  The model.
+     * @param worker Runs the requests; it must run them one at a time, in order.
+     */
+    public NumberleController(INumberleModel model, Executor worker) {
         this.model = model;
+        this.worker = worker;
+    }
+
+    private static ExecutorService newWorker() {
+        return Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "numberle-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     public void setView(NumberleView view) {
@@ -18,6 +51,83 @@ public class NumberleController {
         model.processInput(input);
     }
 
+    /**
+     * Validates a guess on the worker and, if it is valid, processes it. The model publishes
+     * the feedback before the future completes.
+     *
+     * @param input The guess.
+     * @return The validation result: VALID if the guess was processed.
+     */
+    public CompletableFuture<GuessValidator.Reason> submitGuess(String input) {
+        return CompletableFuture.supplyAsync(() -> {
+            GuessValidator.Reason reason = model.validateGuess(input);
+            if (reason.isValid()) {
+                model.processInput(input);
+            }
+            return reason;
+        }, worker);
+    }
+
+    /**
+     * Computes a hint on the worker.
+     *
+     * @return The hint, or null if no equation fits the feedback.
+     */
+    public CompletableFuture<String> requestHint() {
+        return CompletableFuture.supplyAsync(model::getHint, worker);
+    }
+
+    /**
+     * Reads the target of the current game on the worker, after the requests made before.
+     *
+     * @return The target equation.
+     */
+    public CompletableFuture<String> requestTargetWord() {
+        return CompletableFuture.supplyAsync(model::getTargetNumber, worker);
+    }
+
+    /**
+     * Toggles between random and fixed targets on the worker, which starts a new game.
+     *
+     * @return Whether random equation mode is on afterwards.
+     */
+    public CompletableFuture<Boolean> toggleRandomEquationMode() {
+        return CompletableFuture.supplyAsync(() -> {
+            model.toggleRandomEquationMode();
+            return model.isRandomEquationMode();
+        }, worker);
+    }
+
+    /**
+     * Turns hard mode on or off on the worker, after the requests made before.
+     *
+     * @param hardMode True for hard mode.
+     * @return Completes once the mode is set.
+     */
+    public CompletableFuture<Void> setHardMode(boolean hardMode) {
+        return CompletableFuture.runAsync(() -> model.setHardMode(hardMode), worker);
+    }
+
+    /**
+     * Explains on the worker which rule of hard mode a rejected guess breaks.
+     *
+     * @param input The guess.
+     * @return The rule, or null if the guess breaks none.
+     */
+    public CompletableFuture<HardModeConstraints.Violation> checkHardMode(String input) {
+        return CompletableFuture.supplyAsync(() -> model.checkHardMode(input), worker);
+    }
+
+    /**
+     * Builds the automaton of valid equation prefixes on a pool thread rather than the
+     * worker, so guesses are not held up while it is built.
+     *
+     * @return The shared automaton of {@link PrefixAutomaton#getDefault()}.
+     */
+    public CompletableFuture<PrefixAutomaton> requestPrefixAutomaton() {
+        return CompletableFuture.supplyAsync(PrefixAutomaton::getDefault);
+    }
+
     public boolean isGameOver() {
         return model.isGameOver();
     }
@@ -38,8 +148,11 @@ public class NumberleController {
         return model.getRemainingAttempts();
     }
 
+    /**
+     * Starts a new game on the worker. The model announces it with a GameStarted event.
+     */
     public void startNewGame() {
-        model.startNewGame();
+        worker.execute(model::startNewGame);
     }
 
     public Color[] getColor() {
@@ -48,6 +161,10 @@ public class NumberleController {
         return model.getColor(targetNumber, currentGuess.toString());
     }
 
+    public String getHint() {
+        return model.getHint();
+    }
+
     public Map<Character, String> getOperatorColor(String targetStr, String guessStr) {
         return model.getOperatorColor(targetStr, guessStr);
     }
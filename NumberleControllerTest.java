@@ -0,0 +1,53 @@
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class NumberleControllerTest {
+    private static final String TARGET = "2+3*2=8";
+
+    /**
+     * Submits an invalid and a valid guess.
+     *
+     * @pre A game with a fixed target is running.
+     * @post The invalid guess is reported without using an attempt; the valid one is
+     *       processed on the worker thread, which also publishes its feedback.
+     */
+    @Test
+    public void testSubmitGuess() throws Exception {
+        NumberleModel model = new NumberleModel(EquationDictionary.of(List.of(TARGET)), new GameMetrics(false));
+        model.setLogger(GameLogger.NONE);
+        model.startNewGame(TARGET);
+        Thread[] publisher = new Thread[1];
+        model.addModelListener(event -> publisher[0] = Thread.currentThread());
+        NumberleController controller = new NumberleController(model);
+
+        assertEquals(GuessValidator.Reason.NOT_EQUAL, controller.submitGuess("1+1=3+1").get(5, TimeUnit.SECONDS));
+        assertEquals(INumberleModel.MAX_ATTEMPTS, model.getRemainingAttempts());
+        assertNull(publisher[0]);
+
+        assertEquals(GuessValidator.Reason.VALID, controller.submitGuess("4-1*3=1").get(5, TimeUnit.SECONDS));
+        assertEquals(INumberleModel.MAX_ATTEMPTS - 1, model.getRemainingAttempts());
+        assertNotNull(publisher[0]);
+        assertFalse(publisher[0] == Thread.currentThread());
+    }
+
+    /**
+     * Queues a new game, a guess and a target request without waiting in between.
+     *
+     * @pre The model has not started a game.
+     * @post The requests run in the order they were made.
+     */
+    @Test
+    public void testRequestsInOrder() throws Exception {
+        NumberleModel model = new NumberleModel(EquationDictionary.of(List.of(TARGET)), new GameMetrics(false));
+        model.setLogger(GameLogger.NONE);
+        NumberleController controller = new NumberleController(model);
+        controller.startNewGame();
+        controller.submitGuess(TARGET);
+        assertEquals(TARGET, controller.requestTargetWord().get(5, TimeUnit.SECONDS));
+        assertTrue(model.isGameWon());
+    }
+}
@@ -1,38 +1,76 @@
 import java.awt.Color;
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
 
-public class NumberleModel extends Observable implements INumberleModel {
+public class NumberleModel implements INumberleModel {
     private String targetNumber;
     private StringBuilder currentGuess;
     private int remainingAttempts;
     private boolean gameWon;
-    private List<String> equationList;
-    private boolean randomEquationMode  = true;
-    private String fixedEquation = "2*3+2=8";
+    private final List<String> equationList;
+    private static final TargetScheduler FIXED_EQUATION = new TargetScheduler.FixedTarget("2*3+2=8");
+    private TargetScheduler randomTargets;
+    private TargetScheduler targets;
+    private final ExpressionEvaluator evaluator = new ExpressionEvaluator();
+    private final GuessValidator validator = new GuessValidator(GuessValidator.DEFAULT_LENGTH);
+    private final HardModeConstraints constraints = new HardModeConstraints(GuessValidator.DEFAULT_LENGTH);
+    private boolean hardMode;
+    private CandidateIndex candidates;
+    private EntropySolver solver;
+    private final ModelEventBus events = new ModelEventBus();
+    private final KeyboardState keyboard = new KeyboardState();
+    private final GameMetrics metrics;
+    private GameLogger logger = GameLogger.NONE;
+    private FeedbackCache feedbackCache;
+    private FeedbackMatrix feedbackMatrix;
+    private final EquationDictionary dictionary;
+    private long gameId;
 
     public NumberleModel() {
-        equationList = new ArrayList<>();
-        loadEquationsFromFile("equations.txt");
+        this(EquationDictionary.getDefault());
     }
 
-    private void loadEquationsFromFile(String filename) {
-        try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                equationList.add(line.trim());
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
+    /**
+     * Creates a model that picks its equations from the given dictionary.
+     *
+     * @param dictionary The shared equation dictionary.
+     * @pre dictionary is not null.
+     */
+    public NumberleModel(EquationDictionary dictionary) {
+        this(dictionary, GameMetrics.getDefault());
+    }
+
+    /**
+     * Creates a model that picks its equations from the given dictionary and records its
+     * latencies and outcomes in the given metrics.
+     *
+     * @param dictionary The shared equation dictionary.
+     * @param metrics    The metrics to record to.
+     * @pre dictionary and metrics are not null.
+     */
+    public NumberleModel(EquationDictionary dictionary, GameMetrics metrics) {
+        this.metrics = metrics;
+        equationList = dictionary.getEquations();
+        this.dictionary = dictionary;
+        randomTargets = new TargetScheduler.RandomTargets(equationList);
+        targets = randomTargets;
+        if (!dictionary.isEmpty()) {
+            candidates = new CandidateIndex(dictionary.getIndex());
         }
     }
 
-    private String selectRandomEquation() {
-        Random rand = new Random();
-        int index = rand.nextInt(equationList.size());
-        return equationList.get(index);
+    /**
+     * Replaces how targets are chosen in random equation mode, for example with a
+     * {@link TargetScheduler.ShuffleBag} that does not repeat targets, or a
+     * {@link TargetScheduler.DailyTarget}. Switches to random equation mode.
+     *
+     * @param scheduler The scheduler; it takes effect with the next game.
+     * @pre scheduler is not null.
+     */
+    public void setTargetScheduler(TargetScheduler scheduler) {
+        randomTargets = scheduler;
+        targets = scheduler;
     }
 
 
@@ -44,18 +82,22 @@ public class NumberleModel extends Observable implements INumberleModel {
      */
     @Override
     public void initialize() {
-        if ( !randomEquationMode ) {
-            targetNumber = fixedEquation;
-        } else {
-            targetNumber = selectRandomEquation();
-        }
+        start(targets.nextTarget());
+    }
 
+    private void start(String target) {
+        targetNumber = target;
         remainingAttempts = MAX_ATTEMPTS;
         gameWon = false;
         currentGuess = new StringBuilder("       ");
-        setChanged();
-        notifyObservers();
-
+        if (candidates != null) {
+            candidates.reset();
+        }
+        keyboard.reset();
+        constraints.reset();
+        gameId = ThreadLocalRandom.current().nextLong();
+        logger.log(GameLogRecord.gameStarted(gameId, targetNumber));
+        events.publish(new ModelEvent.GameStarted(MAX_ATTEMPTS));
     }
 
 
@@ -72,6 +114,7 @@ public class NumberleModel extends Observable implements INumberleModel {
      */
     @Override
     public boolean processInput(String input) {
+        long start = metrics.start();
         remainingAttempts--;
         currentGuess = new StringBuilder(input);
         assert remainingAttempts >= 0 : "Remaining attempts must be non-negative";
@@ -79,12 +122,139 @@ public class NumberleModel extends Observable implements INumberleModel {
         if (input.equals(targetNumber)) {
             gameWon = true;
         }
-        setChanged();
-        notifyObservers();
-        printLatestInput(); // Print latest input data
+        int code = recordGuess(input);
+        int changedKeys = code >= 0 ? keyboard.merge(input, code) : 0;
+        int attempt = MAX_ATTEMPTS - remainingAttempts;
+        logger.log(GameLogRecord.guess(gameId, targetNumber, input, attempt, code));
+        events.publish(new ModelEvent.GuessScored(attempt - 1, input, code, remainingAttempts, changedKeys,
+                keyboard.copy()));
+        metrics.recordAccepted();
+        if (isGameOver()) {
+            metrics.recordGameEnded(gameWon, attempt);
+            logger.log(GameLogRecord.gameEnded(gameId, targetNumber, attempt, gameWon));
+            events.publish(new ModelEvent.GameEnded(gameWon, targetNumber));
+        }
+        metrics.stop(GameMetrics.Operation.PROCESS_INPUT, start);
         return true;
     }
 
+    /**
+     * Scores a guess and narrows the remaining candidates with its feedback. Guesses that
+     * cannot be scored against the target are ignored.
+     *
+     * @param input The processed guess.
+     * @return The feedback code of the guess, or -1 if it cannot be scored.
+     */
+    private int recordGuess(String input) {
+        if (targetNumber == null || input.length() != targetNumber.length()) {
+            return -1;
+        }
+        int code = getFeedbackCode(targetNumber, input);
+        if (candidates != null) {
+            candidates.narrow(input, code);
+        }
+        if (input.length() == GuessValidator.DEFAULT_LENGTH) {
+            constraints.record(input, code);
+        }
+        return code;
+    }
+
+    /**
+     * Registers a listener that is called on the thread that changes the model.
+     *
+     * @param listener The listener.
+     * @pre listener is not null.
+     */
+    @Override
+    public void addModelListener(ModelListener listener) {
+        events.addListener(listener);
+    }
+
+    /**
+     * Registers a listener that is called on the given executor. Bursts of events are
+     * delivered together, without the events superseded by a new game.
+     *
+     * @param listener The listener.
+     * @param executor Runs the deliveries, for example SwingUtilities::invokeLater.
+     * @pre listener and executor are not null.
+     */
+    @Override
+    public void addModelListener(ModelListener listener, Executor executor) {
+        events.addListener(listener, executor);
+    }
+
+    @Override
+    public void removeModelListener(ModelListener listener) {
+        events.removeListener(listener);
+    }
+
+    /**
+     * Recommends the next guess from the equation list, based on the feedback of the
+     * guesses made so far in this game.
+     *
+     * @return The recommended equation, or null if no equation fits the feedback.
+     * @pre The game has been initialized.
+     * @post The game state is not changed.
+     */
+    @Override
+    public String getHint() {
+        if (candidates == null) {
+            return null;
+        }
+        long start = metrics.start();
+        if (solver == null) {
+            solver = newSolver();
+        }
+        List<EntropySolver.Suggestion> ranking = solver.rank(candidates.candidateIndices(), 1);
+        metrics.stop(GameMetrics.Operation.HINT, start);
+        return ranking.isEmpty() ? null : ranking.get(0).getEquation();
+    }
+
+    /**
+     * Creates the hint solver, reading codes from the feedback matrix if there is one and
+     * otherwise scoring the packed dictionary, which keeps its scans within one int array.
+     */
+    private EntropySolver newSolver() {
+        EntropySolver.Scorer scorer = feedbackMatrix;
+        int[] packed = scorer == null ? dictionary.getPacked() : null;
+        if (packed != null) {
+            scorer = (guess, target) -> PackedEquations.score(packed[target], packed[guess]);
+        }
+        return scorer == null ? new EntropySolver(this, equationList)
+                : new EntropySolver(this, equationList, scorer,
+                        EntropySolver.DEFAULT_MAX_GUESSES, EntropySolver.DEFAULT_MAX_TARGETS);
+    }
+
+    /**
+     * Returns the key colours accumulated over the guesses of this game.
+     *
+     * @return A snapshot of the key colours; it does not change with later guesses.
+     */
+    @Override
+    public KeyboardState getKeyboardState() {
+        return keyboard.copy();
+    }
+
+    /**
+     * Returns the number of equations still consistent with the feedback of this game.
+     *
+     * @return The number of remaining candidates.
+     */
+    @Override
+    public int getCandidateCount() {
+        return candidates == null ? 0 : candidates.candidateCount();
+    }
+
+    /**
+     * Returns the equations still consistent with the feedback of this game.
+     *
+     * @return The remaining candidates in equation list order.
+     */
+    @Override
+    public List<String> getRemainingCandidates() {
+        return candidates == null ? new ArrayList<>() : candidates.candidates();
+    }
+
     /**
      * Toggles the random equation mode.
      *
@@ -92,14 +262,45 @@ public class NumberleModel extends Observable implements INumberleModel {
      * @post The random equation mode is toggled.
      */
     public void toggleRandomEquationMode() {
-        randomEquationMode = !randomEquationMode;
-        if (randomEquationMode ||  !randomEquationMode) {
-            initialize();
-        }
+        targets = targets == FIXED_EQUATION ? randomTargets : FIXED_EQUATION;
+        initialize();
     }
 
     public boolean isRandomEquationMode() {
-        return randomEquationMode;
+        return targets != FIXED_EQUATION;
+    }
+
+    /**
+     * Turns hard mode on or off. In hard mode every guess must keep the green symbols in
+     * their places and use the orange symbols revealed so far; the constraints are collected
+     * in either mode, so hard mode can be turned on during a game.
+     *
+     * @param hardMode True for hard mode.
+     * @post Later guesses are validated accordingly.
+     */
+    @Override
+    public void setHardMode(boolean hardMode) {
+        this.hardMode = hardMode;
+    }
+
+    @Override
+    public boolean isHardMode() {
+        return hardMode;
+    }
+
+    /**
+     * Checks a valid guess against the rules of hard mode, to explain why
+     * {@link #validateGuess(String)} rejected it.
+     *
+     * @param input The guess.
+     * @return The first rule of hard mode the guess breaks, or null if it breaks none or hard
+     *         mode is off.
+     * @pre input is a valid equation of the game's length.
+     * @post The game state is not changed.
+     */
+    @Override
+    public HardModeConstraints.Violation checkHardMode(String input) {
+        return hardMode ? constraints.check(input) : null;
     }
 
     @Override
@@ -143,6 +344,46 @@ public class NumberleModel extends Observable implements INumberleModel {
         initialize();
     }
 
+    /**
+     * Starts a new game with the given target, whatever the equation mode.
+     *
+     * @param target The target equation.
+     * @pre target is not null.
+     * @post The model is initialized with the given target.
+     */
+    @Override
+    public void startNewGame(String target) {
+        assert target != null : "Target must not be null";
+        start(target);
+    }
+
+    /**
+     * Checks a guess against all rules of the game in a single pass, and in hard mode against
+     * the feedback of the earlier guesses.
+     *
+     * @param input The guess to check.
+     * @return VALID, or the first rule the guess breaks, see {@link GuessValidator}.
+     * @pre input is not null.
+     * @post The game state is not changed.
+     */
+    @Override
+    public GuessValidator.Reason validateGuess(String input) {
+        assert input != null : "Input must not be null";
+        long start = metrics.start();
+        GuessValidator.Reason reason = validator.validate(input);
+        if (reason.isValid() && hardMode) {
+            HardModeConstraints.Violation violation = constraints.check(input);
+            if (violation != null) {
+                reason = violation.getReason();
+            }
+        }
+        if (!reason.isValid()) {
+            metrics.recordRejected(reason);
+        }
+        metrics.stop(GameMetrics.Operation.VALIDATE, start);
+        return reason;
+    }
+
     /**
      * Checks if the input string has the correct length.
      *
@@ -229,116 +470,12 @@ public class NumberleModel extends Observable implements INumberleModel {
      *
      * @param expression The mathematical expression to compare.
      * @return True if the results of both sides of the expression are equal, false otherwise.
+     *         Malformed equations, division by zero and overflow also return false.
      * @pre expression is not null.
      * @post Returns true if the results of both sides of the expression are equal, false otherwise.
      */
     public boolean compareExpressions(String expression) {
-        expression = expression.replaceAll("\\s", "");
-        String[] parts = expression.split("=");
-        int leftResult = calculateExpression(parts[0]);
-        int rightResult = calculateExpression(parts[1]);
-
-        return leftResult == rightResult;
-    }
-
-    /**
-     * Calculates the result of the given mathematical expression.
-     *
-     * @param expression The mathematical expression to calculate.
-     * @return The result of the expression.
-     * @pre expression is a valid mathematical expression.
-     * @post The result of the expression is returned.
-     */
-    private int calculateExpression(String expression) {
-        Stack<Integer> operandStack = new Stack<>();
-        Stack<Character> operatorStack = new Stack<>();
-
-        for (int i = 0; i < expression.length(); i++) {
-            char c = expression.charAt(i);
-            if (Character.isDigit(c)) {
-                StringBuilder numBuilder = new StringBuilder();
-                while (i < expression.length() && Character.isDigit(expression.charAt(i))) {
-                    numBuilder.append(expression.charAt(i));
-                    i++;
-                }
-                i--;
-                operandStack.push(Integer.parseInt(numBuilder.toString()));
-            } else if (c == '+' || c == '-' || c == '*' || c == '/') {
-                while (!operatorStack.isEmpty() && precedence(operatorStack.peek()) >= precedence(c)) {
-                    performOperation(operandStack, operatorStack);
-                }
-                operatorStack.push(c);
-            } else if (c == '(') {
-                operatorStack.push(c);
-            } else if (c == ')') {
-                while (operatorStack.peek() != '(') {
-                    performOperation(operandStack, operatorStack);
-                }
-                operatorStack.pop(); // Discard '('
-            }
-        }
-
-        while (!operatorStack.isEmpty()) {
-            performOperation(operandStack, operatorStack);
-        }
-
-        return operandStack.pop();
-    }
-
-    /**
-     * Determines the precedence of an operator.
-     *
-     * @param operator The operator to determine precedence for.
-     * @return The precedence level of the operator.
-     * @pre None
-     * @post The precedence level of the operator is returned.
-     */
-    private int precedence(char operator) {
-        if (operator == '+' || operator == '-') {
-            return 1;
-        } else if (operator == '*' || operator == '/') {
-            return 2;
-        } else {
-            return 0;
-        }
-    }
-
-    /**
-     * Performs the specified operation on the operand stack.
-     *
-     * @param operandStack  The stack containing operands.
-     * @param operatorStack The stack containing operators.
-     * @pre Both operandStack and operatorStack are not empty.
-     * @post The specified operation is performed on the operand stack.
-     */
-    private void performOperation(Stack<Integer> operandStack, Stack<Character> operatorStack) {
-        // Check if both operandStack and operatorStack are not empty before popping elements
-        if (!operandStack.isEmpty() && !operatorStack.isEmpty()) {
-            char operator = operatorStack.pop();
-
-            // Check if operandStack has at least two elements before popping operands
-            if (operandStack.size() >= 2) {
-                int operand2 = operandStack.pop();
-                int operand1 = operandStack.pop();
-                switch (operator) {
-                    case '+':
-                        operandStack.push(operand1 + operand2);
-                        break;
-                    case '-':
-                        operandStack.push(operand1 - operand2);
-                        break;
-                    case '*':
-                        operandStack.push(operand1 * operand2);
-                        break;
-                    case '/':
-                        operandStack.push(operand1 / operand2);
-                        break;
-                }
-            }
-        } else {
-            // Handle the case when either operandStack or operatorStack is empty
-            System.err.println("Error: Operand stack or operator stack is empty.");
-        }
+        return evaluator.compare(expression) == ExpressionEvaluator.Result.OK;
     }
 
 
@@ -355,47 +492,10 @@ public class NumberleModel extends Observable implements INumberleModel {
     public Color[] getColor(String targetNumber, String currentGuess) {
         assert targetNumber != null : "Target number must not be null";
         assert currentGuess != null : "Current guess must not be null";
-        Color[] colorArray = new Color[currentGuess.length()];
-
-        for (int i = 0; i < currentGuess.length(); i++) {
-            char c = currentGuess.charAt(i);
-            char targetChar = targetNumber.charAt(i);
-            Color color = null;
-
-            if (c == targetChar) {
-                color = Color.GREEN;
-            } else if (targetNumber.indexOf(c) == -1) {
-                color = Color.GRAY;
-            } else {
-                int correctCount = 0;
-                int guessCount = 0;
-                int haveCount = 0;
-
-                for (int j = 0; j < targetNumber.length(); j++) {
-                    if (targetNumber.charAt(j) == c) {
-                        correctCount++;
-                    }
-                    if (currentGuess.charAt(j) == c) {
-                        guessCount++;
-                    }
-                    if (targetNumber.charAt(j) == c && currentGuess.charAt(j) == c) {
-                        haveCount++;
-                    }
-                }
-
-                if (guessCount > correctCount) {
-                    if (correctCount > haveCount && i <= currentGuess.indexOf(c)) {
-                        color = Color.ORANGE;
-                    } else {
-                        color = Color.GRAY;
-                    }
-                } else {
-                    color = Color.ORANGE;
-                }
-            }
-            colorArray[i] = color;
-        }
-        return colorArray;
+        long start = metrics.start();
+        Color[] colors = FeedbackCode.toColors(getFeedbackCode(targetNumber, currentGuess), currentGuess.length());
+        metrics.stop(GameMetrics.Operation.GET_COLOR, start);
+        return colors;
     }
 
     /**
@@ -411,52 +511,70 @@ public class NumberleModel extends Observable implements INumberleModel {
     public Map<Character, String> getOperatorColor(String targetStr, String guessStr) {
         assert targetStr != null : "Target string must not be null";
         assert guessStr != null : "Guess string must not be null";
-        Map<Character, String> colorMap = new HashMap<>();
-        for (int i = 0; i < guessStr.length(); i++) {
-            char c = guessStr.charAt(i);
-            char targetChar = targetStr.charAt(i);
-            if (c == targetChar) {
-                colorMap.put(c, "GREEN");
-            } else if (targetStr.indexOf(c) == -1) {
-                colorMap.put(c, "GRAY");
-            } else {
-                int correct = 0;
-                int guess = 0;
-                int have = 0;
-                for (int j = 0; j < targetStr.length(); j++) {
-                    if (targetStr.charAt(j) == c) {
-                        correct++;
-                    }
-                    if (guessStr.charAt(j) == c) { guess++;
-                    }
-                    if (targetStr.charAt(j) == c && guessStr.charAt(j) == c) {
-                        have++;
-                    }
-                }
-                if (guess > correct) {
-                    if (correct > have && i <= guessStr.indexOf(c)) {
-                        colorMap.put(c, "ORANGE");
-                    } else {
-                        colorMap.put(c, "GRAY");
-                    }
-                } else {
-                    colorMap.put(c, "ORANGE");
-                }
-            }
-        }
-        return colorMap;
+        return FeedbackCode.toKeyColors(guessStr, getFeedbackCode(targetStr, guessStr));
     }
 
+    /**
+     * Scores the guess against the target as a packed feedback code.
+     *
+     * @param targetNumber The target number.
+     * @param currentGuess The user's current guess.
+     * @return The base-3 feedback code, see {@link FeedbackCode}.
+     * @pre targetNumber and currentGuess are not null and have the same length.
+     * @post The feedback code for the guess is returned.
+     */
+    @Override
+    public int getFeedbackCode(String targetNumber, String currentGuess) {
+        assert targetNumber != null : "Target number must not be null";
+        assert currentGuess != null : "Current guess must not be null";
+        return feedbackCache == null ? FeedbackCode.score(targetNumber, currentGuess)
+                : feedbackCache.score(targetNumber, currentGuess);
+    }
 
+    /**
+     * Lets hints read the feedback of dictionary pairs from a precomputed matrix instead of
+     * scoring them.
+     *
+     * @param feedbackMatrix The matrix of this model's dictionary, or null to score every pair.
+     * @throws IllegalArgumentException If the matrix is of a dictionary of another size.
+     */
+    public void setFeedbackMatrix(FeedbackMatrix feedbackMatrix) {
+        if (feedbackMatrix != null && feedbackMatrix.size() != equationList.size()) {
+            throw new IllegalArgumentException("The feedback matrix has " + feedbackMatrix.size()
+                    + " equations; the dictionary has " + equationList.size());
+        }
+        this.feedbackMatrix = feedbackMatrix;
+        solver = null;
+    }
 
+    /**
+     * Scores guesses through a cache, which may be shared with other models. Every caller of
+     * {@link #getFeedbackCode}, {@link #getColor} and {@link #getOperatorColor} then benefits
+     * without noticing.
+     *
+     * @param feedbackCache The cache, or null to score every guess.
+     */
+    public void setFeedbackCache(FeedbackCache feedbackCache) {
+        this.feedbackCache = feedbackCache;
+    }
 
-
-    private void printLatestInput() {
-        System.out.print("Latest Input: ");
-        for (char c : currentGuess.toString().toCharArray()) {
-            System.out.print(c + " ");
-        }
-        System.out.println();
+    /**
+     * Replaces the logger that records games, guesses and results. By default nothing is
+     * logged; {@link AsyncGameLogger#getDefault()} writes to standard output in the background.
+     *
+     * @param logger The logger.
+     * @pre logger is not null.
+     */
+    public void setLogger(GameLogger logger) {
+        this.logger = logger;
     }
 
+    /**
+     * Returns the id of the current game, as written to the game log.
+     *
+     * @return The game id.
+     */
+    public long getGameId() {
+        return gameId;
+    }
 }
@@ -1,5 +1,9 @@
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import static org.junit.Assert.*;
 
 public class NumberleModelTest {
@@ -56,6 +60,20 @@ public class NumberleModelTest {
         assertFalse("2+3=6", model.compareExpressions("2+3=6"));
     }
 
+    /**
+     * Compares expressions that cannot be evaluated.
+     *
+     * @pre expression divides by zero or is not a single equation.
+     * @post Returns false instead of throwing.
+     */
+    @Test
+    public void testCompareExpressions_Invalid() {
+        NumberleModel model = new NumberleModel();
+        assertFalse("5/0=1", model.compareExpressions("5/0=1"));
+        assertFalse("1+2+3", model.compareExpressions("1+2+3"));
+        assertFalse("1=1=1", model.compareExpressions("1=1=1"));
+    }
+
     /**
      * Checks if the game is over when the game is won.
      *
@@ -82,4 +100,88 @@ public class NumberleModelTest {
             assertTrue(model.isGameOver());
         }
     }
+
+    /**
+     * Asks for a hint after a guess.
+     *
+     * @pre The game is initialized with the fixed equation and one guess was made.
+     * @post The hint is an equation from the list that fits the feedback.
+     */
+    @Test
+    public void testGetHint() {
+        NumberleModel model = new NumberleModel();
+        model.toggleRandomEquationMode();
+        model.processInput("2+3*2=8");
+        String hint = model.getHint();
+        assertNotNull(hint);
+        assertArrayEquals(model.getColor(model.getTargetNumber(), "2+3*2=8"), model.getColor(hint, "2+3*2=8"));
+    }
+
+    /**
+     * Narrows the remaining candidates after a guess.
+     *
+     * @pre The game is initialized with the fixed equation.
+     * @post Only equations giving the same feedback remain, including the target.
+     */
+    @Test
+    public void testRemainingCandidates() {
+        NumberleModel model = new NumberleModel();
+        model.toggleRandomEquationMode();
+        int before = model.getCandidateCount();
+        model.processInput("4-1*3=1");
+        assertTrue(model.getCandidateCount() < before);
+        assertEquals(model.getCandidateCount(), model.getRemainingCandidates().size());
+        assertTrue(model.getRemainingCandidates().contains(model.getTargetNumber()));
+        for (String candidate : model.getRemainingCandidates()) {
+            assertEquals(model.getFeedbackCode(model.getTargetNumber(), "4-1*3=1"),
+                    model.getFeedbackCode(candidate, "4-1*3=1"));
+        }
+    }
+
+    /**
+     * Creates models from the shared default dictionary and an injected one.
+     *
+     * @pre None
+     * @post Models share the default dictionary, which cannot be modified.
+     */
+    @Test
+    public void testEquationDictionary() {
+        assertSame(EquationDictionary.getDefault(), EquationDictionary.preload());
+        try {
+            EquationDictionary.getDefault().getEquations().add("1+1=2");
+            fail("The dictionary must be read-only");
+        } catch (UnsupportedOperationException expected) {
+            // expected
+        }
+        NumberleModel model = new NumberleModel(EquationDictionary.of(Arrays.asList("1+1=02")));
+        model.initialize();
+        assertEquals("1+1=02", model.getTargetNumber());
+        assertEquals(1, model.getCandidateCount());
+    }
+
+    /**
+     * Publishes events for a game that is won with the second guess.
+     *
+     * @pre The game is initialized with the fixed equation.
+     * @post Listeners receive the start, each scored guess with its feedback code, and the end.
+     */
+    @Test
+    public void testModelEvents() {
+        NumberleModel model = new NumberleModel();
+        List<ModelEvent> events = new ArrayList<>();
+        model.addModelListener(events::add);
+        model.toggleRandomEquationMode();
+        model.processInput("4-1*3=1");
+        model.processInput("2*3+2=8");
+
+        assertEquals(4, events.size());
+        assertTrue(events.get(0) instanceof ModelEvent.GameStarted);
+        ModelEvent.GuessScored first = (ModelEvent.GuessScored) events.get(1);
+        assertEquals(0, first.getRow());
+        assertEquals(model.getFeedbackCode("2*3+2=8", "4-1*3=1"), first.getCode());
+        ModelEvent.GuessScored second = (ModelEvent.GuessScored) events.get(2);
+        assertEquals(1, second.getRow());
+        assertTrue(FeedbackCode.isSolved(second.getCode(), 7));
+        assertTrue(((ModelEvent.GameEnded) events.get(3)).isWon());
+    }
 }
@@ -0,0 +1,303 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Headless HTTP front end for {@link GameSessionManager}.
+ *
+ * Endpoints, all answering with a small JSON object:
+ * <pre>
+ *   POST   /games               start a game; ?hard=true or ?hard=false chooses hard mode
+ *   GET    /games/{id}          state of a game
+ *   POST   /games/{id}/guesses  submit the request body as a guess
+ *   DELETE /games/{id}          end a game
+ *   POST   /completions         count the valid equations starting with the request body
+ *   GET    /metrics             {@link GameMetrics} and {@link FeedbackCache} statistics as plain text
+ * </pre>
+ *
+ * Every request runs on its own virtual thread when the runtime provides them, and on a
+ * cached thread pool otherwise. Request handling only blocks on I/O, and sessions do not
+ * share locks, so requests scale with the number of open connections rather than cores.
+ */
+public class NumberleServer {
+    private static final int DEFAULT_PORT = 8080;
+    private static final long MAX_IDLE_MILLIS = TimeUnit.MINUTES.toMillis(30);
+    private static final int MAX_BODY_LENGTH = 64;
+
+    private final GameSessionManager manager;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService evictor;
+
+    /**
+     * Creates a server on the given port of the loopback interface.
+     *
+     * @param manager The sessions to serve.
+     * @param port    The port to listen on, or 0 for any free port.
+     * @throws IOException If the port cannot be bound.
+     */
+    public NumberleServer(GameSessionManager manager, int port) throws IOException {
+        this.manager = manager;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        this.executor = newRequestExecutor();
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.createContext("/games", this::handle);
+        server.createContext("/completions", this::handleCompletions);
+        server.createContext("/metrics", this::handleMetrics);
+        server.setExecutor(executor);
+    }
+
+    /**
+     * Starts a server. Usage: {@code java NumberleServer [port [journal-directory]]}; with a
+     * journal directory, every game is appended to a {@link GameJournal} there instead of
+     * being logged to the console. The system property {@code numberle.feedbackCache} sizes
+     * an optional {@link FeedbackCache}, see {@link FeedbackCache#fromSystemProperties()}, and
+     * {@code numberle.targets} names the {@link TargetScheduler}: random (the default),
+     * shuffle or daily. With {@code numberle.hardMode=true} games are in hard mode unless
+     * started with {@code ?hard=false}.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        EquationDictionary dictionary = EquationDictionary.getDefault();
+        GameSessionManager manager = new GameSessionManager(dictionary);
+        manager.setTargetScheduler(TargetScheduler.forName(System.getProperty("numberle.targets", "random"),
+                dictionary.getEquations()));
+        manager.setFeedbackCache(FeedbackCache.fromSystemProperties());
+        manager.setHardMode(Boolean.getBoolean("numberle.hardMode"));
+        if (args.length > 1) {
+            GameJournal journal = new GameJournal(Paths.get(args[1]));
+            manager.setLogger(journal);
+            Runtime.getRuntime().addShutdownHook(new Thread(journal::close, "journal-shutdown"));
+        }
+        // Built before the first request instead of during it
+        PrefixAutomaton.getDefault();
+        NumberleServer server = new NumberleServer(manager, port);
+        server.start();
+        System.out.println("Numberle server listening on http://127.0.0.1:" + server.getPort() + "/games");
+    }
+
+    public void start() {
+        evictor.scheduleWithFixedDelay(() -> manager.evictIdle(MAX_IDLE_MILLIS), 1, 1, TimeUnit.MINUTES);
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        evictor.shutdownNow();
+        executor.shutdown();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Returns a virtual-thread-per-task executor if the runtime has one, and a cached thread
+     * pool otherwise. The method is looked up reflectively so the server also builds and runs
+     * on runtimes without virtual threads.
+     */
+    static ExecutorService newRequestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String[] parts = exchange.getRequestURI().getPath().split("/");
+            String method = exchange.getRequestMethod();
+            // parts[0] is empty and parts[1] is "games".
+            if (parts.length == 2 && method.equals("POST")) {
+                String hard = parameter(exchange.getRequestURI().getQuery(), "hard");
+                if (hard != null && !hard.equals("true") && !hard.equals("false")) {
+                    send(exchange, 400, error("hard must be true or false."));
+                    return;
+                }
+                GameSession session = hard != null ? manager.start(hard.equals("true")) : manager.start();
+                send(exchange, 201, state(session));
+            } else if (parts.length == 3 && method.equals("GET")) {
+                GameSession session = manager.get(parts[2]);
+                if (session == null) {
+                    send(exchange, 404, error("No such game."));
+                } else {
+                    send(exchange, 200, state(session));
+                }
+            } else if (parts.length == 3 && method.equals("DELETE")) {
+                send(exchange, manager.end(parts[2]) ? 204 : 404, null);
+            } else if (parts.length == 4 && parts[3].equals("guesses") && method.equals("POST")) {
+                String guess = readBody(exchange);
+                if (guess == null) {
+                    send(exchange, 413, error("Guess too long."));
+                    return;
+                }
+                GameSessionManager.GuessResult result = manager.guess(parts[2], guess.trim());
+                switch (result.getStatus()) {
+                    case ACCEPTED:
+                        send(exchange, 200, state(result.getSession()));
+                        break;
+                    case INVALID:
+                        send(exchange, 422, error(result.getMessage(), result.getReason()));
+                        break;
+                    case GAME_OVER:
+                        send(exchange, 409, error(result.getMessage()));
+                        break;
+                    default:
+                        send(exchange, 404, error(result.getMessage()));
+                        break;
+                }
+            } else {
+                send(exchange, 404, error("Unknown endpoint."));
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Answers whether a partly typed guess can still become a valid equation, so clients can
+     * refuse a dead-end symbol as it is typed instead of when the guess is submitted.
+     */
+    private void handleCompletions(HttpExchange exchange) throws IOException {
+        try {
+            if (!exchange.getRequestMethod().equals("POST")) {
+                send(exchange, 405, error("Use POST."));
+                return;
+            }
+            String prefix = readBody(exchange);
+            if (prefix == null) {
+                send(exchange, 413, error("Guess too long."));
+                return;
+            }
+            PrefixAutomaton automaton = PrefixAutomaton.getDefault();
+            int state = automaton.walk(prefix.trim());
+            send(exchange, 200, "{\"completions\":" + automaton.completions(state)
+                    + ",\"complete\":" + automaton.isAccepting(state) + "}");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        try {
+            String text = GameMetrics.getDefault().dump();
+            FeedbackCache cache = manager.getFeedbackCache();
+            if (cache != null) {
+                text += cache.dump();
+            }
+            byte[] body = text.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Returns the value of a query parameter. Parameters are separated by '&' and the name
+     * ends at the first '=', so only a parameter with exactly that name matches.
+     *
+     * @param query The decoded query of the request, or null if it has none.
+     * @param name  The parameter name.
+     * @return The value of the first parameter with that name, "" if it has no '=', or null
+     *         if there is none.
+     */
+    static String parameter(String query, String name) {
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            String key = equals < 0 ? pair : pair.substring(0, equals);
+            if (key.equals(name)) {
+                return equals < 0 ? "" : pair.substring(equals + 1);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads the request body as UTF-8.
+     *
+     * @return The body, or null if it is longer than any guess can be.
+     */
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_BODY_LENGTH + 1);
+            return body.length > MAX_BODY_LENGTH ? null : new String(body, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        if (json == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Renders a session as JSON. The target is only included once the game is over.
+     */
+    static String state(GameSession session) {
+        StringBuilder json = new StringBuilder(256);
+        synchronized (session) {
+            json.append("{\"id\":\"").append(session.getId()).append('"');
+            json.append(",\"attemptsRemaining\":").append(session.getRemainingAttempts());
+            json.append(",\"won\":").append(session.isGameWon());
+            json.append(",\"over\":").append(session.isGameOver());
+            json.append(",\"hardMode\":").append(session.isHardMode());
+            json.append(",\"guesses\":[");
+            for (int i = 0; i < session.getAttempts(); i++) {
+                String guess = session.getGuess(i);
+                json.append(i == 0 ? "" : ",");
+                json.append("{\"guess\":\"").append(guess).append('"');
+                json.append(",\"feedback\":\"").append(FeedbackCode.toPattern(session.getFeedback(i), guess.length()));
+                json.append("\"}");
+            }
+            json.append(']');
+            if (session.isGameOver()) {
+                json.append(",\"target\":\"").append(session.getTarget()).append('"');
+            }
+        }
+        return json.append('}').toString();
+    }
+
+    private static String error(String message) {
+        return error(message, null);
+    }
+
+    private static String error(String message, GuessValidator.Reason reason) {
+        StringBuilder json = new StringBuilder("{\"error\":\"");
+        json.append(message.replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+        if (reason != null) {
+            json.append(",\"reason\":\"").append(reason).append('"');
+        }
+        return json.append('}').toString();
+    }
+}
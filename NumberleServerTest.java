@@ -0,0 +1,22 @@
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class NumberleServerTest {
+    /**
+     * Reads the hard parameter out of several query strings.
+     *
+     * @pre None.
+     * @post Only a parameter named exactly "hard" matches, the first one wins, a bare name
+     *       has the value "", and a missing parameter or query gives null.
+     */
+    @Test
+    public void testParameter() {
+        assertEquals("", NumberleServer.parameter("hard", "hard"));
+        assertEquals("", NumberleServer.parameter("hard=", "hard"));
+        assertNull(NumberleServer.parameter("nothard=true", "hard"));
+        assertEquals("false", NumberleServer.parameter("a=1&hard=false", "hard"));
+        assertEquals("true", NumberleServer.parameter("hard=true&hard=false", "hard"));
+        assertNull(NumberleServer.parameter(null, "hard"));
+    }
+}
@@ -2,10 +2,17 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.util.Map;
-import java.util.Observer;
 
-public class NumberleView implements Observer {
+/**
+ * Swing front end of the game.
+ *
+ * Guesses, hints and new games are handed to the controller, which runs them off the event
+ * dispatch thread; their results and the model's events come back to this thread. A scored
+ * guess repaints only its row and the keys whose colour changed, and the events of a burst
+ * are applied in one task, so Swing repaints them together. Colours come from
+ * {@link Palette}.
+ */
+public class NumberleView implements ModelListener {
     private final INumberleModel model;
     private final NumberleController controller;
     private final JButton randomEquationButton = new JButton("Random equation");
@@ -13,25 +20,40 @@ public class NumberleView implements Observer {
     private final JTextField inputTextField = new JTextField(3);
     private final JLabel attemptsLabel = new JLabel("Attempts remaining: ");
     private final JButton showTargetButton = new JButton("Show Target Equation");
+    private final JButton hintButton = new JButton("Hint");
+    private final JCheckBox hardModeBox = new JCheckBox("Hard mode");
     // Changed from JTable to JTextField[][] for MatrixField
     private final JTextField[][] MatrixField = new JTextField[6][7];
+    // Accepts the symbols that can still complete a valid equation; null until it is built
+    private PrefixAutomaton automaton;
+    // State of the automaton after each number of symbols typed in the current row
+    private final int[] prefixStates = new int[MatrixField[0].length + 1];
+    private final JLabel completionsLabel = new JLabel();
     private JPanel specialButtonsPanel;
     private JPanel numberButtonsPanel;
+    // Keyboard buttons by symbol index, see Symbols
+    private final JButton[] keyButtons = new JButton[Symbols.COUNT];
     private final JButton startNewGameButton = new JButton("Start New Game");
     // Track current row index
     private int currentRowIndex = 0;
     private final int MAX_ATTEMPTS = 6;
+    // Keys painted in the current game, by symbol index
+    private int coloredKeys;
+    // Rows painted in the current game
+    private int coloredRows;
+    // Whether a guess is being checked by the controller
+    private boolean guessPending;
 
 
 
     public NumberleView(INumberleModel model, NumberleController controller) {
         this.controller = controller;
         this.model = model;
-        this.controller.startNewGame();
-        ((NumberleModel) this.model).addObserver(this);
         initializeFrame();
+        this.controller.requestPrefixAutomaton().thenAcceptAsync(this::setPrefixAutomaton, SwingUtilities::invokeLater);
+        this.model.addModelListener(this, SwingUtilities::invokeLater);
         this.controller.setView(this);
-        update((NumberleModel) this.model, null);
+        this.controller.startNewGame();
 
     }
 
@@ -61,7 +83,27 @@ public class NumberleView implements Observer {
         showTargetButton.setMargin(new Insets(0, 0, 0, 0));
         showTargetButton.addActionListener(new ActionListener() {
             public void actionPerformed(ActionEvent e) {
-                JOptionPane.showMessageDialog(frame, "Target Equation: " + controller.getTargetWord(), "Target Equation", JOptionPane.INFORMATION_MESSAGE);
+                controller.requestTargetWord().thenAcceptAsync(target ->
+                        JOptionPane.showMessageDialog(frame, "Target Equation: " + target, "Target Equation", JOptionPane.INFORMATION_MESSAGE),
+                        SwingUtilities::invokeLater);
+            }
+        });
+
+        hintButton.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent e) {
+                hintButton.setEnabled(false);
+                controller.requestHint().thenAcceptAsync(hint -> {
+                    hintButton.setEnabled(true);
+                    String message = hint == null ? "No equation fits the feedback so far." : "Try: " + hint;
+                    JOptionPane.showMessageDialog(frame, message, "Hint", JOptionPane.INFORMATION_MESSAGE);
+                }, SwingUtilities::invokeLater);
+            }
+        });
+
+        hardModeBox.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                controller.setHardMode(hardModeBox.isSelected());
             }
         });
 
@@ -76,7 +118,6 @@ public class NumberleView implements Observer {
             @Override
             public void actionPerformed(ActionEvent e) {
                 controller.startNewGame();
-                resetUI();
                 randomEquationButton.setEnabled(true);
                 startNewGameButton.setEnabled(false);
             }
@@ -85,14 +126,17 @@ public class NumberleView implements Observer {
         // Add the showTargetButton to the checkBoxPanel
         JPanel checkBoxPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
         checkBoxPanel.add(showTargetButton);
+        checkBoxPanel.add(hintButton);
         checkBoxPanel.add(randomEquationButton);
         checkBoxPanel.add(startNewGameButton);
+        checkBoxPanel.add(hardModeBox);
 
         // Create a panel for the attempts label
         JPanel attemptsLabelPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
-        attemptsLabel.setText("Attempts remaining: " + controller.getRemainingAttempts());
+        attemptsLabel.setText("Attempts remaining: " + MAX_ATTEMPTS);
         attemptsLabel.setHorizontalAlignment(JLabel.CENTER);
         attemptsLabelPanel.add(attemptsLabel);
+        attemptsLabelPanel.add(completionsLabel);
 
         // Add some empty space around the attempts label
         attemptsLabelPanel.setBorder(BorderFactory.createEmptyBorder(0, 0, 20, 0));
@@ -128,13 +172,14 @@ public class NumberleView implements Observer {
     }
 
     private void toggleRandomEquationMode() {
-        model.toggleRandomEquationMode();
-        if (model.isRandomEquationMode()) {
-            randomEquationButton.setText("Random equation");
-        } else {
-            randomEquationButton.setText("Fix equation");
-        }
-        System.out.println("Equation Mode: " + (model.isRandomEquationMode() ? "Random" : "Fixed"));
+        controller.toggleRandomEquationMode().thenAcceptAsync(random -> {
+            if (random) {
+                randomEquationButton.setText("Random equation");
+            } else {
+                randomEquationButton.setText("Fix equation");
+            }
+            System.out.println("Equation Mode: " + (random ? "Random" : "Fixed"));
+        }, SwingUtilities::invokeLater);
     }
 
 
@@ -142,6 +187,9 @@ public class NumberleView implements Observer {
     private void addButton(JPanel panel, String text) {
         JButton button = new JButton(text);
         button.setPreferredSize(new Dimension(50, 50)); // Set button size
+        if (text.length() == 1 && Symbols.indexOf(text.charAt(0)) >= 0) {
+            keyButtons[Symbols.indexOf(text.charAt(0))] = button;
+        }
         if (text.equals("Backspace")) {
             button.addActionListener(new ActionListener() {
                 @Override
@@ -150,6 +198,7 @@ public class NumberleView implements Observer {
                     for (int col = MatrixField[row].length - 1; col >= 0; col--) {
                         if (MatrixField[row][col].getText() != null && !MatrixField[row][col].getText().isEmpty()) {
                             MatrixField[row][col].setText(null);
+                            updateCompletions(col);
                             return;
                         }
                     }
@@ -176,6 +225,9 @@ public class NumberleView implements Observer {
 
     private boolean firstValidGuessMade = false;
     private void processInput() {
+        if (guessPending) {
+            return;
+        }
         StringBuilder input = new StringBuilder();
         for (int col = 0; col < MatrixField[currentRowIndex].length; col++) {
             String value = MatrixField[currentRowIndex][col].getText();
@@ -185,29 +237,25 @@ public class NumberleView implements Observer {
         }
         randomEquationButton.setEnabled(!checkContainsNumberAndOperator(input.toString()));
 
-        if (input.length() == 0) {
-            randomEquationButton.setEnabled(true);
-            JOptionPane.showMessageDialog(null, "Please enter a guess.", "Invalid Guess", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-
-        if (!model.checkLength(input.toString())) {
-            JOptionPane.showMessageDialog(null, "Your guess must contain exactly 7 characters.", "Invalid Guess", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
+        // Validated and scored by the controller's worker; the feedback arrives as a model event
+        guessPending = true;
+        controller.submitGuess(input.toString())
+                .thenAcceptAsync(reason -> guessChecked(input.toString(), reason), SwingUtilities::invokeLater);
+    }
 
-        if (!model.isMathExpression(input.toString())) {
-            JOptionPane.showMessageDialog(null, "Your guess must contain both numbers and operators and = .", "Invalid Guess", JOptionPane.ERROR_MESSAGE);
-            return;
+    private void guessChecked(String input, GuessValidator.Reason reason) {
+        guessPending = false;
+        if (reason == GuessValidator.Reason.EMPTY) {
+            randomEquationButton.setEnabled(true);
         }
-
-        if (model.isConsecutiveOperators(input.toString())) {
-            JOptionPane.showMessageDialog(null, "Your guess contain consecutive operators.", "Invalid Guess", JOptionPane.ERROR_MESSAGE);
+        if (reason.isHardMode()) {
+            controller.checkHardMode(input).thenAcceptAsync(violation -> JOptionPane.showMessageDialog(null,
+                    violation == null ? reason.getMessage(input.length()) : violation.getMessage(),
+                    "Invalid Guess", JOptionPane.ERROR_MESSAGE), SwingUtilities::invokeLater);
             return;
         }
-
-        if (!model.compareExpressions(input.toString())) {
-            JOptionPane.showMessageDialog(null, "The left side does not match the right side.", "Invalid Guess", JOptionPane.ERROR_MESSAGE);
+        if (!reason.isValid()) {
+            JOptionPane.showMessageDialog(null, reason.getMessage(MatrixField[currentRowIndex].length), "Invalid Guess", JOptionPane.ERROR_MESSAGE);
             return;
         }
 
@@ -215,13 +263,12 @@ public class NumberleView implements Observer {
             startNewGameButton.setEnabled(true); // Enable the start new game button after the first valid guess
         }
 
-        // Call controller's method to process input
-        controller.processInput(input.toString());
         if (input.length() == MatrixField[currentRowIndex].length) { // Check if current row is full
             currentRowIndex++; // Move to next row if current row is full
             if (currentRowIndex >= MatrixField.length) { // Check if all rows are filled
                 currentRowIndex = 0; // Reset currentRowIndex if all rows are filled
             }
+            updateCompletions(0);
         }
     }
 
@@ -246,25 +293,59 @@ public class NumberleView implements Observer {
             for (int col = 0; col < MatrixField[currentRowIndex].length; col++) {
                 String value = MatrixField[currentRowIndex][col].getText();
                 if (value == null || value.isEmpty()) {
+                    if (automaton != null) {
+                        // One step of the automaton; a symbol no valid equation continues with is refused
+                        int state = automaton.step(prefixStates[col], input.charAt(0));
+                        if (state == PrefixAutomaton.DEAD) {
+                            Toolkit.getDefaultToolkit().beep();
+                            return;
+                        }
+                        prefixStates[col + 1] = state;
+                    }
                     MatrixField[currentRowIndex][col].setText(input);
+                    updateCompletions(col + 1);
                     break;
                 }
             }
         }
     }
 
-    private void gameAgain(String status) {
-        String targetWord = controller.getTargetWord();
+    /**
+     * Starts checking input with the automaton, catching up with the symbols typed while it
+     * was being built.
+     */
+    private void setPrefixAutomaton(PrefixAutomaton automaton) {
+        this.automaton = automaton;
+        prefixStates[0] = automaton.start();
+        int filled = 0;
+        for (JTextField field : MatrixField[currentRowIndex]) {
+            String value = field.getText();
+            if (value == null || value.isEmpty()) {
+                break;
+            }
+            prefixStates[filled + 1] = automaton.step(prefixStates[filled], value.charAt(0));
+            filled++;
+        }
+        updateCompletions(filled);
+    }
+
+    /**
+     * Shows how many valid equations start with the first symbols of the current row.
+     */
+    private void updateCompletions(int filled) {
+        if (automaton != null) {
+            completionsLabel.setText("Possible equations: " + automaton.completions(prefixStates[filled]));
+        }
+    }
+
+    private void gameAgain(String status, String targetWord) {
         int result = JOptionPane.showConfirmDialog(frame, status + "! The answer is " + targetWord + "\n Do you want to play again?", status, JOptionPane.WARNING_MESSAGE);
         if (result == JOptionPane.OK_OPTION) {
             firstValidGuessMade = false;
+            // The UI is reset when the model reports the new game
             controller.startNewGame();
-            SwingUtilities.invokeLater(() -> {
-                // Reset UI components
-                resetUI();
-                randomEquationButton.setEnabled(true);
-                startNewGameButton.setEnabled(false);
-            });
+            randomEquationButton.setEnabled(true);
+            startNewGameButton.setEnabled(false);
 
         } else if (result == JOptionPane.CANCEL_OPTION || result == JOptionPane.CLOSED_OPTION) {
             frame.dispose();
@@ -272,103 +353,67 @@ public class NumberleView implements Observer {
         }
     }
 
-    private void resetUI() {
-        // Clear all text input fields
-        for (JTextField[] row : MatrixField) {
-            for (JTextField field : row) {
+    private void resetUI(int attempts) {
+        // Clear all text input fields; only painted rows need their background reset
+        for (int row = 0; row < MatrixField.length; row++) {
+            for (JTextField field : MatrixField[row]) {
                 field.setText("");
-                field.setBackground(Color.white); // Reset background color
-
+                if (row < coloredRows) {
+                    field.setBackground(Palette.EMPTY_CELL);
+                }
             }
         }
+        coloredRows = 0;
         firstValidGuessMade = false;
+        guessPending = false;
         // Reset current input status
         currentRowIndex = 0;
         // Update attempts label
-        attemptsLabel.setText("Attempts remaining: " + controller.getRemainingAttempts());
-        // Reset button background colors
-        resetButtonBackgroundColors(numberButtonsPanel);
-        resetButtonBackgroundColors(specialButtonsPanel);
-    }
-
-    // Method to reset button background colors
-    private void resetButtonBackgroundColors(JPanel panel) {
-        for (Component component : panel.getComponents()) {
-            if (component instanceof JButton) {
-                JButton button = (JButton) component;
-                button.setBackground(UIManager.getColor("Button.background"));
-            }
-        }
+        attemptsLabel.setText("Attempts remaining: " + attempts);
+        updateCompletions(0);
+        // Reset the keys painted in the last game
+        updateKeyColors(coloredKeys, new KeyboardState());
+        coloredKeys = 0;
     }
 
 
     @Override
-    public void update(java.util.Observable o, Object arg) {
-        attemptsLabel.setText("Attempts remaining: " + controller.getRemainingAttempts());
-        // Update grid table colors based on model's color method
-        updateGridColors();
-        updateOperatorKeyboardColors();
-        if (controller.isGameWon() || controller.isGameOver()) {
+    public void modelChanged(ModelEvent event) {
+        if (event instanceof ModelEvent.GameStarted) {
+            resetUI(((ModelEvent.GameStarted) event).getAttempts());
+        } else if (event instanceof ModelEvent.GuessScored) {
+            ModelEvent.GuessScored scored = (ModelEvent.GuessScored) event;
+            attemptsLabel.setText("Attempts remaining: " + scored.getRemainingAttempts());
+            if (scored.getCode() >= 0) {
+                updateGridColors(scored.getRow(), scored.getCode());
+                updateKeyColors(scored.getChangedKeys(), scored.getKeyboard());
+            }
+        } else if (event instanceof ModelEvent.GameEnded) {
             firstValidGuessMade = true; // Set the flag when the game is won or over
-        }
-        if (controller.isGameWon()) {
-            gameAgain("Success");
-        } else if (controller.isGameOver()) {
-            gameAgain( "Fail");
+            ModelEvent.GameEnded ended = (ModelEvent.GameEnded) event;
+            gameAgain(ended.isWon() ? "Success" : "Fail", ended.getTarget());
         }
     }
 
-    private void updateGridColors() {
-        Color[] colors = model.getColor(controller.getTargetWord(), controller.getCurrentGuess().toString());
-
-        int currentRowIndex = this.MAX_ATTEMPTS - controller.getRemainingAttempts() - 1;
-        if (currentRowIndex >= 0 && colors != null) {
-            for (int col = 0; col < MatrixField[currentRowIndex].length; col++) {
-                if (colors[col] != null) {
-                    Color backgroundColor = colors[col];
-                    if (backgroundColor.equals(Color.GREEN)) {
-                        backgroundColor = new Color(121, 139, 25);
-                    }
-
-                    MatrixField[currentRowIndex][col].setBackground(backgroundColor);
-                }
-            }
+    private void updateGridColors(int row, int code) {
+        for (int col = 0; col < MatrixField[row].length; col++) {
+            MatrixField[row][col].setBackground(Palette.cell(FeedbackCode.colorAt(code, col)));
         }
+        coloredRows = Math.max(coloredRows, row + 1);
     }
 
-    private void updateKeyboardColors(JPanel panel) {
-        String targetStr = controller.getTargetWord();
-        String guessStr = controller.getCurrentGuess().toString();
-        Map<Character, String> operatorColorMap = controller.getOperatorColor(targetStr, guessStr);
-
-        for (Component component : panel.getComponents()) {
-            if (component instanceof JButton) {
-                JButton button = (JButton) component;
-                char c = button.getText().charAt(0);
-                String color = operatorColorMap.get(c);
-                if (color != null) {
-                    switch (color) {
-                        case "GREEN":
-                            button.setBackground(new Color(121, 139, 25));
-                            break;
-                        case "ORANGE":
-                            button.setBackground(Color.ORANGE);
-                            break;
-                        case "GRAY":
-                            button.setBackground(Color.LIGHT_GRAY);
-                            break;
-                        default:
-                            button.setBackground(UIManager.getColor("Button.background"));
-                    }
-                }
+    /**
+     * Repaints the keys whose colour the last guess changed; the other keys keep theirs.
+     */
+    private void updateKeyColors(int changedKeys, KeyboardState keyboard) {
+        Color plain = UIManager.getColor("Button.background");
+        for (int keys = changedKeys; keys != 0; keys &= keys - 1) {
+            int symbol = Integer.numberOfTrailingZeros(keys);
+            if (keyButtons[symbol] != null) {
+                keyButtons[symbol].setBackground(Palette.key(keyboard.colorOf(symbol), plain));
             }
         }
-    }
-
-
-    private void updateOperatorKeyboardColors() {
-        updateKeyboardColors(numberButtonsPanel);
-        updateKeyboardColors(specialButtonsPanel);
+        coloredKeys |= changedKeys;
     }
 
 }
@@ -0,0 +1,227 @@
+import java.util.List;
+
+/**
+ * Equations packed into ints.
+ *
+ * Each symbol takes four bits, holding its {@link Symbols} index plus one, with the first
+ * symbol in the highest used nibble, so an equation of up to {@link #MAX_LENGTH} symbols
+ * fits in 28 bits. An equation then costs 4 bytes instead of the 50 or so of a String, and
+ * scans walk one contiguous array.
+ *
+ * Packed equations are scored with the rules of {@link FeedbackCode#score} and checked with
+ * those of {@link GuessValidator} without unpacking them.
+ */
+public final class PackedEquations {
+    /** Longest equation that can be packed. */
+    public static final int MAX_LENGTH = 7;
+    /** Result of packing text that is too long or holds other characters. */
+    public static final int NOT_PACKED = -1;
+
+    private static final int EQUALS = Symbols.EQUALS + 1;
+    private static final int MINUS = Symbols.indexOf('-') + 1;
+    private static final int TIMES = Symbols.indexOf('*') + 1;
+    private static final int DIVIDE = Symbols.indexOf('/') + 1;
+    private static final int[] POW3 = {1, 3, 9, 27, 81, 243, 729, 2187};
+
+    private PackedEquations() {
+    }
+
+    /**
+     * Packs equations, keeping their order.
+     *
+     * @param equations The equations.
+     * @return The packed equations, index for index, or null if one of them cannot be packed.
+     */
+    public static int[] pack(List<String> equations) {
+        int[] packed = new int[equations.size()];
+        for (int i = 0; i < packed.length; i++) {
+            packed[i] = pack(equations.get(i));
+            if (packed[i] == NOT_PACKED) {
+                return null;
+            }
+        }
+        return packed;
+    }
+
+    /**
+     * Packs an equation.
+     *
+     * @param equation The equation.
+     * @return The packed equation, or NOT_PACKED if it is longer than MAX_LENGTH or holds a
+     *         character outside {@link Symbols#ALPHABET}.
+     */
+    public static int pack(CharSequence equation) {
+        int length = equation.length();
+        if (length > MAX_LENGTH) {
+            return NOT_PACKED;
+        }
+        int packed = 0;
+        for (int i = 0; i < length; i++) {
+            int symbol = Symbols.indexOf(equation.charAt(i));
+            if (symbol < 0) {
+                return NOT_PACKED;
+            }
+            packed = append(packed, symbol);
+        }
+        return packed;
+    }
+
+    /**
+     * Appends a symbol to a packed equation.
+     *
+     * @param packed The packed symbols so far, 0 for none.
+     * @param symbol The {@link Symbols} index of the next symbol.
+     * @return The packed symbols followed by the new one.
+     * @pre length(packed) < MAX_LENGTH
+     */
+    public static int append(int packed, int symbol) {
+        return packed << 4 | (symbol + 1);
+    }
+
+    /**
+     * Unpacks an equation.
+     *
+     * @param packed The packed equation.
+     * @return The equation.
+     */
+    public static String unpack(int packed) {
+        int length = length(packed);
+        char[] symbols = new char[length];
+        for (int i = 0; i < length; i++) {
+            symbols[i] = Symbols.symbol(nibble(packed, length, i) - 1);
+        }
+        return new String(symbols);
+    }
+
+    /**
+     * Returns the number of symbols of a packed equation.
+     *
+     * @param packed The packed equation.
+     * @return Its length.
+     */
+    public static int length(int packed) {
+        return (32 - Integer.numberOfLeadingZeros(packed) + 3) >> 2;
+    }
+
+    /** Returns the symbol index + 1 at a position, counted from the first symbol. */
+    private static int nibble(int packed, int length, int position) {
+        return packed >>> ((length - 1 - position) << 2) & 15;
+    }
+
+    /**
+     * Scores a packed guess against a packed target, with the rules of
+     * {@link FeedbackCode#score(CharSequence, CharSequence)}.
+     *
+     * @param target The packed target.
+     * @param guess  The packed guess.
+     * @return The packed feedback code.
+     * @pre Both have the same length.
+     */
+    public static int score(int target, int guess) {
+        int length = length(guess);
+        // 4-bit counters per symbol: occurrences in target, in guess, and at matching positions.
+        long targetCounts = 0;
+        long guessCounts = 0;
+        long greenCounts = 0;
+        for (int shift = 0; shift < length << 2; shift += 4) {
+            int t = target >>> shift & 15;
+            int g = guess >>> shift & 15;
+            targetCounts += 1L << (t << 2);
+            guessCounts += 1L << (g << 2);
+            if (g == t) {
+                greenCounts += 1L << (g << 2);
+            }
+        }
+
+        int code = 0;
+        int seen = 0;
+        for (int i = 0, shift = (length - 1) << 2; i < length; i++, shift -= 4) {
+            int t = target >>> shift & 15;
+            int g = guess >>> shift & 15;
+            int color;
+            if (g == t) {
+                color = FeedbackCode.GREEN;
+            } else {
+                int correct = (int) (targetCounts >>> (g << 2)) & 15;
+                if (correct == 0) {
+                    color = FeedbackCode.GRAY;
+                } else if (((int) (guessCounts >>> (g << 2)) & 15) > correct) {
+                    boolean first = (seen & (1 << g)) == 0;
+                    color = correct > ((int) (greenCounts >>> (g << 2)) & 15) && first
+                            ? FeedbackCode.ORANGE : FeedbackCode.GRAY;
+                } else {
+                    color = FeedbackCode.ORANGE;
+                }
+            }
+            seen |= 1 << g;
+            code += color * POW3[i];
+        }
+        return code;
+    }
+
+    /**
+     * Checks a packed equation with the rules of {@link GuessValidator}: numbers separated by
+     * single operators, exactly one '=', and both sides evaluating to the same value with
+     * the precedence and integer division of {@link ExpressionEvaluator}.
+     *
+     * @param packed The packed equation.
+     * @return True if a guess of this equation would be valid.
+     */
+    public static boolean isValid(int packed) {
+        int length = length(packed);
+        long left = 0;
+        boolean equalsSeen = false;
+        // The side is total + sign * term so far, with number still to be applied to term by op.
+        long total = 0;
+        long term = 0;
+        int sign = 1;
+        int op = 0;
+        long number = 0;
+        boolean inNumber = false;
+        for (int i = 0; i <= length; i++) {
+            int symbol = i < length ? nibble(packed, length, i) : EQUALS;
+            if (symbol <= 10) {
+                number = number * 10 + (symbol - 1);
+                inNumber = true;
+                continue;
+            }
+            if (!inNumber) {
+                return false;
+            }
+            if (op == TIMES) {
+                term *= number;
+            } else if (op == DIVIDE) {
+                if (number == 0) {
+                    return false;
+                }
+                term /= number;
+            } else {
+                term = number;
+            }
+            if (term > Integer.MAX_VALUE || term < Integer.MIN_VALUE) {
+                return false;
+            }
+            number = 0;
+            inNumber = false;
+            if (symbol == TIMES || symbol == DIVIDE) {
+                op = symbol;
+                continue;
+            }
+            total += sign * term;
+            op = 0;
+            sign = symbol == MINUS ? -1 : 1;
+            if (symbol == EQUALS) {
+                if (i == length) {
+                    break;
+                }
+                if (equalsSeen) {
+                    return false;
+                }
+                equalsSeen = true;
+                left = total;
+                total = 0;
+            }
+        }
+        return equalsSeen && left == total;
+    }
+}
@@ -0,0 +1,61 @@
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PackedEquationsTest {
+    /**
+     * Packs a few equations.
+     *
+     * @pre Equations of different lengths, and text that cannot be packed.
+     * @post Packing round-trips and keeps the order, and text that is too long or holds
+     *       other characters is not packed.
+     */
+    @Test
+    public void testPacking() {
+        int[] packed = PackedEquations.pack(List.of("4-1*3=1", "1+1=2"));
+        assertEquals("4-1*3=1", PackedEquations.unpack(packed[0]));
+        assertEquals("1+1=2", PackedEquations.unpack(packed[1]));
+        assertEquals(5, PackedEquations.length(packed[1]));
+        assertEquals(PackedEquations.append(PackedEquations.pack("1+1="), Symbols.indexOf('2')), packed[1]);
+        assertEquals(7, PackedEquations.length(PackedEquations.pack("2+3*2=8")));
+        assertEquals(PackedEquations.NOT_PACKED, PackedEquations.pack("12+34*2=80"));
+        assertEquals(PackedEquations.NOT_PACKED, PackedEquations.pack("2x3=6"));
+        assertNull(PackedEquations.pack(List.of("1+1=2", "2x3=6")));
+    }
+
+    /**
+     * Scores and validates packed equations of length 5.
+     *
+     * @pre Every valid equation from EquationGenerator, and random strings of the alphabet.
+     * @post Scores equal FeedbackCode.score, and random strings are valid exactly when they
+     *       have no adjacent operators and ExpressionEvaluator finds both sides equal.
+     */
+    @Test
+    public void testMatchesStringRules() {
+        List<String> equations = new EquationGenerator(5).generateAll();
+        int[] packed = PackedEquations.pack(equations);
+        Random random = new Random(5);
+        for (int i = 0; i < 20000; i++) {
+            int target = random.nextInt(equations.size());
+            int guess = random.nextInt(equations.size());
+            assertEquals(FeedbackCode.score(equations.get(target), equations.get(guess)),
+                    PackedEquations.score(packed[target], packed[guess]));
+        }
+        for (int equation : packed) {
+            assertTrue(PackedEquations.unpack(equation), PackedEquations.isValid(equation));
+        }
+        ExpressionEvaluator evaluator = new ExpressionEvaluator();
+        char[] guess = new char[5];
+        for (int i = 0; i < 50000; i++) {
+            for (int j = 0; j < guess.length; j++) {
+                guess[j] = Symbols.ALPHABET.charAt(random.nextInt(Symbols.COUNT));
+            }
+            String text = new String(guess);
+            boolean valid = !text.matches(".*[-+*/=]{2}.*") && evaluator.compare(text) == ExpressionEvaluator.Result.OK;
+            assertEquals(text, valid, PackedEquations.isValid(PackedEquations.pack(text)));
+        }
+    }
+}
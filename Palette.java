@@ -0,0 +1,42 @@
+import java.awt.Color;
+
+/**
+ * The colours of the graphical front end, shared by every grid cell and key.
+ *
+ * Feedback colours are indexed by the colour values of {@link FeedbackCode}, so painting a
+ * cell or key is an array lookup and never creates a {@link Color}.
+ */
+public final class Palette {
+    /** Background of a cell that holds no scored symbol. */
+    public static final Color EMPTY_CELL = Color.WHITE;
+    /** The green of correct symbols, darker than {@link Color#GREEN} for readability. */
+    public static final Color GREEN = new Color(121, 139, 25);
+
+    private static final Color[] CELL = {Color.GRAY, Color.ORANGE, GREEN};
+    private static final Color[] KEY = {Color.LIGHT_GRAY, Color.ORANGE, GREEN};
+
+    private Palette() {
+    }
+
+    /**
+     * Returns the background of a grid cell.
+     *
+     * @param color GRAY, ORANGE or GREEN of {@link FeedbackCode}.
+     * @return The cell colour.
+     */
+    public static Color cell(int color) {
+        return CELL[color];
+    }
+
+    /**
+     * Returns the background of a key.
+     *
+     * @param color GRAY, ORANGE or GREEN of {@link FeedbackCode}, or
+     *              {@link KeyboardState#UNKNOWN} for a key that has not been guessed.
+     * @param plain The background of a key that has not been guessed.
+     * @return The key colour.
+     */
+    public static Color key(int color, Color plain) {
+        return color == KeyboardState.UNKNOWN ? plain : KEY[color];
+    }
+}
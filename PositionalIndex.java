@@ -0,0 +1,220 @@
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable bitset index over an equation dictionary.
+ *
+ * For every position and symbol it keeps the set of equations holding that symbol at that
+ * position, and for every symbol and count k the set of equations holding the symbol at
+ * least k times. Sets are {@code long[]} bitsets over the dictionary indices, so constraints
+ * can be combined word by word instead of rescanning the equations.
+ *
+ * The value of each equation's right-hand side is kept as a bit-sliced column: slice b is
+ * the set of equations whose value, less the smallest value, has bit b set. The slices of
+ * each word are stored together, and a range of values is resolved with one pass over them,
+ * see {@link #andValueBetween}.
+ *
+ * Instances are thread-safe once constructed and can be shared between games.
+ */
+public final class PositionalIndex {
+    private final List<String> equations;
+    private final int length;
+    private final int words;
+    private final long[] all;
+    private final long[][] positionMasks;
+    private final long[][] countMasks;
+    private final long[] valued;
+    private final long minValue;
+    private final long maxValue;
+    private final int valueBits;
+    private final long[] valueSlices;
+
+    /**
+     * Builds the index.
+     *
+     * @param equations The dictionary. Equations with another length than the first one or
+     *                  with symbols outside the alphabet are never matched.
+     * @pre equations is not null and not empty.
+     */
+    public PositionalIndex(List<String> equations) {
+        this.equations = equations;
+        this.length = equations.get(0).length();
+        this.words = (equations.size() + 63) >>> 6;
+        this.all = new long[words];
+        this.positionMasks = new long[length * Symbols.COUNT][words];
+        this.countMasks = new long[Symbols.COUNT * (length + 1)][words];
+
+        int[] counts = new int[Symbols.COUNT];
+        int[] symbols = new int[length];
+        for (int e = 0; e < equations.size(); e++) {
+            String equation = equations.get(e);
+            if (!toSymbols(equation, symbols)) {
+                continue;
+            }
+            int word = e >>> 6;
+            long bit = 1L << e;
+            all[word] |= bit;
+            for (int pos = 0; pos < length; pos++) {
+                int symbol = symbols[pos];
+                positionMasks[pos * Symbols.COUNT + symbol][word] |= bit;
+                counts[symbol]++;
+                countMasks[symbol * (length + 1) + counts[symbol]][word] |= bit;
+            }
+            for (int pos = 0; pos < length; pos++) {
+                counts[symbols[pos]] = 0;
+            }
+        }
+
+        this.valued = new long[words];
+        int[] values = new int[equations.size()];
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        // A compiled dictionary stores the value of every equation that holds, which is also
+        // the value of its right-hand side, so only the others need to be evaluated here.
+        BinaryDictionary compiled = equations instanceof BinaryDictionary
+                && ((BinaryDictionary) equations).hasValues() ? (BinaryDictionary) equations : null;
+        ExpressionEvaluator evaluator = new ExpressionEvaluator();
+        for (int e = 0; e < equations.size(); e++) {
+            if ((all[e >>> 6] & 1L << e) == 0) {
+                continue;
+            }
+            int value = compiled != null ? compiled.value(e) : BinaryDictionary.NO_VALUE;
+            if (value == BinaryDictionary.NO_VALUE) {
+                String equation = equations.get(e);
+                int equals = equation.indexOf('=');
+                if (equals < 0
+                        || evaluator.evaluate(equation, equals + 1, equation.length()) != ExpressionEvaluator.Result.OK) {
+                    continue;
+                }
+                value = evaluator.value();
+            }
+            valued[e >>> 6] |= 1L << e;
+            values[e] = value;
+            min = Math.min(min, values[e]);
+            max = Math.max(max, values[e]);
+        }
+        this.minValue = min;
+        this.maxValue = max;
+        this.valueBits = max < min ? 0 : 64 - Long.numberOfLeadingZeros(max - min);
+        this.valueSlices = new long[words * valueBits];
+        for (int e = 0; e < equations.size(); e++) {
+            if ((valued[e >>> 6] & 1L << e) != 0) {
+                long offset = values[e] - min;
+                for (int b = 0; b < valueBits; b++) {
+                    if ((offset >>> b & 1) != 0) {
+                        valueSlices[(e >>> 6) * valueBits + b] |= 1L << e;
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean toSymbols(String equation, int[] symbols) {
+        if (equation.length() != length) {
+            return false;
+        }
+        for (int pos = 0; pos < length; pos++) {
+            symbols[pos] = Symbols.indexOf(equation.charAt(pos));
+            if (symbols[pos] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int size() {
+        return equations.size();
+    }
+
+    /** Length of the indexed equations. */
+    public int length() {
+        return length;
+    }
+
+    /** Number of longs in each bitset. */
+    public int words() {
+        return words;
+    }
+
+    public String get(int index) {
+        return equations.get(index);
+    }
+
+    public List<String> equations() {
+        return equations;
+    }
+
+    /**
+     * Returns the set of all indexed equations. The returned array must not be modified.
+     *
+     * @return The bitset of all equations that can be matched.
+     */
+    public long[] all() {
+        return all;
+    }
+
+    /**
+     * Returns the equations holding a symbol at a position. The returned array must not be modified.
+     *
+     * @param position The position in the equation.
+     * @param symbol   The symbol index, see {@link Symbols}.
+     * @return The bitset of matching equations.
+     */
+    public long[] atPosition(int position, int symbol) {
+        return positionMasks[position * Symbols.COUNT + symbol];
+    }
+
+    /**
+     * Returns the equations holding a symbol at least the given number of times.
+     * The returned array must not be modified.
+     *
+     * @param symbol The symbol index, see {@link Symbols}.
+     * @param count  The minimum number of occurrences.
+     * @return The bitset of matching equations.
+     * @pre 0 < count <= length()
+     */
+    public long[] atLeast(int symbol, int count) {
+        return countMasks[symbol * (length + 1) + count];
+    }
+
+    /**
+     * Narrows a set of equations to those whose right-hand side evaluates to a value within
+     * [min, max].
+     *
+     * @param min    The smallest value.
+     * @param max    The largest value.
+     * @param result The bitset to narrow, of {@link #words()} longs.
+     * @post Equations without a value, such as those not holding exactly one '=', are removed.
+     */
+    public void andValueBetween(long min, long max, long[] result) {
+        if (maxValue < minValue || min > maxValue || max < minValue || min > max) {
+            Arrays.fill(result, 0);
+            return;
+        }
+        long low = Math.max(min, minValue) - minValue;
+        long high = Math.min(max, maxValue) - minValue;
+        for (int word = 0; word < words; word++) {
+            long candidates = result[word] & valued[word];
+            if (candidates == 0) {
+                result[word] = 0;
+                continue;
+            }
+            // Compares every value of the word with both bounds, from the highest bit down.
+            long aboveLow = 0;
+            long belowHigh = 0;
+            long equalLow = -1L;
+            long equalHigh = -1L;
+            int base = word * valueBits;
+            for (int b = valueBits - 1; b >= 0; b--) {
+                long slice = valueSlices[base + b];
+                long lowBit = -(low >>> b & 1);
+                long highBit = -(high >>> b & 1);
+                aboveLow |= equalLow & slice & ~lowBit;
+                equalLow &= ~(slice ^ lowBit);
+                belowHigh |= equalHigh & ~slice & highBit;
+                equalHigh &= ~(slice ^ highBit);
+            }
+            result[word] = candidates & (aboveLow | equalLow) & (belowHigh | equalHigh);
+        }
+    }
+}
@@ -0,0 +1,238 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal deterministic automaton accepting a set of equations, for checking input one
+ * symbol at a time.
+ *
+ * A state stands for everything typed so far. {@link #step(int, char)} follows one symbol
+ * with a single array lookup and returns {@link #DEAD} once no equation of the set starts
+ * with the input, and {@link #completions(int)} tells how many equations still do. The
+ * automaton is built bottom-up over the sorted equations, sharing every state whose
+ * completions are the same, so the many equations with common endings need few states.
+ *
+ * The default automaton accepts every valid equation of {@link GuessValidator#DEFAULT_LENGTH}
+ * symbols, as enumerated by {@link EquationGenerator}, so a guess can be completed exactly
+ * when some valid equation starts with it, whether or not it is in the game's dictionary.
+ */
+public final class PrefixAutomaton {
+    /** The state after input that no equation starts with. */
+    public static final int DEAD = -1;
+
+    private final int[] transitions;
+    private final int[] completions;
+    private final boolean[] accepting;
+    private final int start;
+
+    private PrefixAutomaton(int[] transitions, int[] completions, boolean[] accepting, int start) {
+        this.transitions = transitions;
+        this.completions = completions;
+        this.accepting = accepting;
+        this.start = start;
+    }
+
+    /**
+     * Holds the default automaton, which the JVM builds on first access.
+     */
+    private static final class DefaultHolder {
+        static final PrefixAutomaton INSTANCE = of(new EquationGenerator(GuessValidator.DEFAULT_LENGTH).generateAll());
+    }
+
+    /**
+     * Returns the automaton of all valid equations of the default length, building it on
+     * first use; that takes a moment, so callers on the event dispatch thread should ask
+     * from another thread first.
+     *
+     * @return The shared automaton.
+     */
+    public static PrefixAutomaton getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * Builds the automaton accepting exactly the given equations.
+     *
+     * @param equations The equations.
+     * @return The automaton.
+     * @throws IllegalArgumentException If an equation holds a character outside {@link Symbols#ALPHABET}.
+     */
+    public static PrefixAutomaton of(List<String> equations) {
+        byte[][] words = new byte[equations.size()][];
+        for (int i = 0; i < words.length; i++) {
+            String equation = equations.get(i);
+            words[i] = new byte[equation.length()];
+            for (int j = 0; j < equation.length(); j++) {
+                int symbol = Symbols.indexOf(equation.charAt(j));
+                if (symbol < 0) {
+                    throw new IllegalArgumentException("Not an equation symbol: " + equation);
+                }
+                words[i][j] = (byte) symbol;
+            }
+        }
+        Arrays.sort(words, Arrays::compare);
+        Builder builder = new Builder();
+        int start = builder.build(words, 0, words.length, 0);
+        return builder.finish(start);
+    }
+
+    /**
+     * Returns the state before any input.
+     *
+     * @return The start state, or DEAD if the automaton accepts nothing.
+     */
+    public int start() {
+        return start;
+    }
+
+    /**
+     * Follows one symbol.
+     *
+     * @param state  The state of the input so far.
+     * @param symbol The next symbol.
+     * @return The state of the longer input, or DEAD if no equation starts with it.
+     */
+    public int step(int state, char symbol) {
+        int index = Symbols.indexOf(symbol);
+        return state == DEAD || index < 0 ? DEAD : transitions[state * Symbols.COUNT + index];
+    }
+
+    /**
+     * Follows a whole prefix from the start state.
+     *
+     * @param prefix The input so far.
+     * @return Its state, or DEAD if no equation starts with it.
+     */
+    public int walk(CharSequence prefix) {
+        int state = start;
+        for (int i = 0; i < prefix.length() && state != DEAD; i++) {
+            state = step(state, prefix.charAt(i));
+        }
+        return state;
+    }
+
+    /**
+     * Returns the number of equations that start with the input of a state.
+     *
+     * @param state The state.
+     * @return The number of completions, 0 for DEAD.
+     */
+    public int completions(int state) {
+        return state == DEAD ? 0 : completions[state];
+    }
+
+    /**
+     * Returns the number of equations that start with a prefix.
+     *
+     * @param prefix The input so far.
+     * @return The number of completions.
+     */
+    public int completions(CharSequence prefix) {
+        return completions(walk(prefix));
+    }
+
+    /**
+     * Checks if the input of a state is itself an equation of the set.
+     *
+     * @param state The state.
+     * @return True if the input is complete.
+     */
+    public boolean isAccepting(int state) {
+        return state != DEAD && accepting[state];
+    }
+
+    /** Number of states, a measure of the automaton's size. */
+    public int stateCount() {
+        return completions.length;
+    }
+
+    /**
+     * Collects states while building, numbering each distinct one once. Two states are the
+     * same when they agree on acceptance and on the target of every symbol.
+     */
+    private static final class Builder {
+        private final Map<Signature, Integer> ids = new HashMap<>();
+        private final List<int[]> rows = new ArrayList<>();
+        private final List<Integer> counts = new ArrayList<>();
+        private final List<Boolean> finals = new ArrayList<>();
+
+        /** Builds the state of words[from, to), which share their first depth symbols. */
+        int build(byte[][] words, int from, int to, int depth) {
+            if (from == to) {
+                return DEAD;
+            }
+            int[] row = new int[Symbols.COUNT];
+            Arrays.fill(row, DEAD);
+            boolean accept = false;
+            int count = 0;
+            int i = from;
+            while (i < to && words[i].length == depth) {
+                // Sorting puts a word before the longer words it prefixes.
+                accept = true;
+                count = 1;
+                i++;
+            }
+            while (i < to) {
+                int symbol = words[i][depth];
+                int end = i + 1;
+                while (end < to && words[end][depth] == symbol) {
+                    end++;
+                }
+                row[symbol] = build(words, i, end, depth + 1);
+                count += counts.get(row[symbol]);
+                i = end;
+            }
+            Signature signature = new Signature(row, accept);
+            Integer id = ids.get(signature);
+            if (id == null) {
+                id = rows.size();
+                ids.put(signature, id);
+                rows.add(row);
+                counts.add(count);
+                finals.add(accept);
+            }
+            return id;
+        }
+
+        PrefixAutomaton finish(int start) {
+            int states = rows.size();
+            int[] transitions = new int[states * Symbols.COUNT];
+            int[] completions = new int[states];
+            boolean[] accepting = new boolean[states];
+            for (int state = 0; state < states; state++) {
+                System.arraycopy(rows.get(state), 0, transitions, state * Symbols.COUNT, Symbols.COUNT);
+                completions[state] = counts.get(state);
+                accepting[state] = finals.get(state);
+            }
+            return new PrefixAutomaton(transitions, completions, accepting, start);
+        }
+    }
+
+    private static final class Signature {
+        private final int[] row;
+        private final boolean accept;
+        private final int hash;
+
+        Signature(int[] row, boolean accept) {
+            this.row = row;
+            this.accept = accept;
+            this.hash = Arrays.hashCode(row) * 31 + Boolean.hashCode(accept);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Signature)) {
+                return false;
+            }
+            Signature that = (Signature) other;
+            return accept == that.accept && Arrays.equals(row, that.row);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PrefixAutomatonTest {
+    /**
+     * Types a few equations symbol by symbol.
+     *
+     * @pre The automaton holds three equations, two of which share a prefix.
+     * @post Each step counts the equations left; a symbol no equation continues with is dead.
+     */
+    @Test
+    public void testStep() {
+        PrefixAutomaton automaton = PrefixAutomaton.of(List.of("2+3*2=8", "2+3*1=5", "4-1*3=1"));
+        int state = automaton.start();
+        assertEquals(3, automaton.completions(state));
+        state = automaton.step(state, '2');
+        assertEquals(2, automaton.completions(state));
+        assertEquals(PrefixAutomaton.DEAD, automaton.step(state, '-'));
+        assertEquals(PrefixAutomaton.DEAD, automaton.step(state, 'x'));
+        assertEquals(2, automaton.completions("2+3*"));
+        assertEquals(1, automaton.completions("2+3*1"));
+        assertFalse(automaton.isAccepting(automaton.walk("2+3*1=")));
+        assertTrue(automaton.isAccepting(automaton.walk("2+3*1=5")));
+        assertEquals(0, automaton.completions("2+3*1=6"));
+        assertEquals(0, automaton.completions(PrefixAutomaton.DEAD));
+    }
+
+    /**
+     * Builds the automaton of every valid equation of length 5.
+     *
+     * @pre The equations come from EquationGenerator.
+     * @post Every equation is accepted, random strings exactly when the validator accepts them, prefix counts
+     *       match the list, and shared endings need fewer states than a trie.
+     */
+    @Test
+    public void testMatchesValidator() {
+        List<String> equations = new EquationGenerator(5).generateAll();
+        PrefixAutomaton automaton = PrefixAutomaton.of(equations);
+        GuessValidator validator = new GuessValidator(5);
+        Random random = new Random(11);
+        char[] guess = new char[5];
+        for (int i = 0; i < 20000; i++) {
+            for (int j = 0; j < guess.length; j++) {
+                guess[j] = Symbols.ALPHABET.charAt(random.nextInt(Symbols.COUNT));
+            }
+            String text = new String(guess);
+            assertEquals(text, validator.validate(text).isValid(), automaton.isAccepting(automaton.walk(text)));
+            String prefix = text.substring(0, 2);
+            long expected = equations.stream().filter(equation -> equation.startsWith(prefix)).count();
+            assertEquals(prefix, expected, automaton.completions(prefix));
+        }
+        for (String equation : equations) {
+            assertTrue(equation, automaton.isAccepting(automaton.walk(equation)));
+        }
+        assertEquals(equations.size(), automaton.completions(automaton.start()));
+        assertTrue(automaton.stateCount() < equations.size());
+    }
+}
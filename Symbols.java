@@ -0,0 +1,56 @@
+/**
+ * The fifteen symbols a Numberle equation is made of: the digits 0-9 and the operators
+ * + - * / =. Each symbol has a stable index in [0, {@link #COUNT}) so that per-symbol data
+ * can be kept in plain arrays or packed bit fields instead of maps.
+ */
+public final class Symbols {
+    /** All symbols, in index order. */
+    public static final String ALPHABET = "0123456789+-*/=";
+    /** Number of symbols in the alphabet. */
+    public static final int COUNT = ALPHABET.length();
+    /** Index of the '=' symbol. */
+    public static final int EQUALS = ALPHABET.indexOf('=');
+
+    private static final byte[] INDEX = new byte[128];
+
+    static {
+        java.util.Arrays.fill(INDEX, (byte) -1);
+        for (int i = 0; i < COUNT; i++) {
+            INDEX[ALPHABET.charAt(i)] = (byte) i;
+        }
+    }
+
+    private Symbols() {
+    }
+
+    /**
+     * Returns the index of a symbol.
+     *
+     * @param c The character to look up.
+     * @return The index of the symbol, or -1 if c is not part of the alphabet.
+     */
+    public static int indexOf(char c) {
+        return c < INDEX.length ? INDEX[c] : -1;
+    }
+
+    /**
+     * Returns the symbol with the given index.
+     *
+     * @param index The symbol index.
+     * @return The symbol character.
+     * @pre 0 <= index < COUNT
+     */
+    public static char symbol(int index) {
+        return ALPHABET.charAt(index);
+    }
+
+    /**
+     * Checks if the symbol with the given index is a digit.
+     *
+     * @param index The symbol index.
+     * @return True for the digits 0-9, false for operators.
+     */
+    public static boolean isDigit(int index) {
+        return index >= 0 && index < 10;
+    }
+}
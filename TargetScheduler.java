@@ -0,0 +1,253 @@
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Chooses the target equations of new games.
+ *
+ * Implementations are thread-safe: one scheduler may serve every session of a
+ * {@link GameSessionManager}. Fixed, random and shuffled targets are chosen without
+ * allocating.
+ */
+public interface TargetScheduler {
+    /**
+     * Chooses the target of the next game.
+     *
+     * @return The target equation.
+     * @throws IllegalStateException If there is no equation to choose from.
+     */
+    String nextTarget();
+
+    /**
+     * Returns the scheduler with the given name: "random", "shuffle" or "daily".
+     *
+     * @param name      The name of the scheduler.
+     * @param equations The equations to choose from.
+     * @return The scheduler.
+     * @throws IllegalArgumentException If there is no scheduler with that name.
+     */
+    static TargetScheduler forName(String name, List<String> equations) {
+        switch (name) {
+            case "random":
+                return new RandomTargets(equations);
+            case "shuffle":
+                return new ShuffleBag(equations, new SplittableRandom());
+            case "daily":
+                return new DailyTarget(equations, 0, Clock.systemDefaultZone());
+            default:
+                throw new IllegalArgumentException("Unknown target scheduler " + name
+                        + "; expected random, shuffle or daily");
+        }
+    }
+
+    /**
+     * Always chooses the same equation.
+     */
+    final class FixedTarget implements TargetScheduler {
+        private final String equation;
+
+        public FixedTarget(String equation) {
+            this.equation = equation;
+        }
+
+        @Override
+        public String nextTarget() {
+            return equation;
+        }
+
+        @Override
+        public String toString() {
+            return "fixed " + equation;
+        }
+    }
+
+    /**
+     * Chooses every target independently and uniformly, so a target may repeat. Unseeded
+     * schedulers draw from {@link ThreadLocalRandom}, whose state lives in the thread itself,
+     * so concurrent sessions never contend on a shared seed and a short-lived virtual thread
+     * costs nothing to set up. Seeded schedulers number their draws with one atomic counter
+     * and mix the seed and the draw number like {@link SplittableRandom} does, so the n-th
+     * target is the same whichever thread draws it, and no draw takes a lock.
+     */
+    final class RandomTargets implements TargetScheduler {
+        /** The increment of {@link SplittableRandom}'s default gamma. */
+        private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+        private final List<String> equations;
+        private final long seed;
+        private final AtomicLong draws;
+
+        /**
+         * Creates a scheduler with unpredictable targets.
+         *
+         * @param equations The equations to choose from.
+         */
+        public RandomTargets(List<String> equations) {
+            this.equations = equations;
+            this.seed = 0;
+            this.draws = null;
+        }
+
+        /**
+         * Creates a scheduler whose sequence of targets is determined by the seed, whichever
+         * threads draw them.
+         *
+         * @param equations The equations to choose from.
+         * @param seed      The seed.
+         */
+        public RandomTargets(List<String> equations, long seed) {
+            this.equations = equations;
+            this.seed = seed;
+            this.draws = new AtomicLong();
+        }
+
+        @Override
+        public String nextTarget() {
+            if (equations.isEmpty()) {
+                throw new IllegalStateException("No equations to choose a target from");
+            }
+            if (draws == null) {
+                return equations.get(ThreadLocalRandom.current().nextInt(equations.size()));
+            }
+            long random = mix64(seed + draws.incrementAndGet() * GOLDEN_GAMMA);
+            // The top 32 bits scaled to the list size: uniform up to a bias of size / 2^32.
+            return equations.get((int) (((random >>> 32) * equations.size()) >>> 32));
+        }
+
+        /** The output function of {@link SplittableRandom}. */
+        private static long mix64(long z) {
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+
+        @Override
+        public String toString() {
+            return "random";
+        }
+    }
+
+    /**
+     * Deals the equations like a shuffled deck: no equation repeats until every other one has
+     * been chosen, and a new round never starts with the last target of the previous one.
+     * Each draw performs one step of a Fisher-Yates shuffle, so there is no pause to reshuffle
+     * between rounds.
+     */
+    final class ShuffleBag implements TargetScheduler {
+        private final List<String> equations;
+        private final int[] order;
+        private final SplittableRandom random;
+        private int dealt;
+
+        /**
+         * Creates a bag.
+         *
+         * @param equations The equations to choose from.
+         * @param random    The generator of the shuffle; only used while holding the bag's lock.
+         */
+        public ShuffleBag(List<String> equations, SplittableRandom random) {
+            this.equations = equations;
+            this.order = new int[equations.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            this.random = random;
+        }
+
+        @Override
+        public synchronized String nextTarget() {
+            int n = order.length;
+            if (n == 0) {
+                throw new IllegalStateException("No equations to choose a target from");
+            }
+            if (dealt == n) {
+                dealt = 0;
+            }
+            // The last target of a round sits at order[n - 1]; the first of the next may not be it.
+            int bound = dealt == 0 && n > 1 ? n - 1 : n;
+            int pick = dealt + random.nextInt(bound - dealt);
+            int index = order[pick];
+            order[pick] = order[dealt];
+            order[dealt] = index;
+            dealt++;
+            return equations.get(index);
+        }
+
+        @Override
+        public String toString() {
+            return "shuffle";
+        }
+    }
+
+    /**
+     * Chooses one equation per calendar day, the same for every player and on every server
+     * that uses the same seed. Day d maps to the equation at (a * d + b) mod n, where the
+     * seed picks b and a multiplier a coprime to n, so the target is computed in constant
+     * time and no equation repeats within n days.
+     */
+    final class DailyTarget implements TargetScheduler {
+        private final List<String> equations;
+        private final Clock clock;
+        private final long multiplier;
+        private final long offset;
+
+        /**
+         * Creates a daily scheduler.
+         *
+         * @param equations The equations to choose from.
+         * @param seed      Varies the order of the days.
+         * @param clock     The clock, whose zone decides when a day starts.
+         */
+        public DailyTarget(List<String> equations, long seed, Clock clock) {
+            this.equations = equations;
+            this.clock = clock;
+            int n = Math.max(equations.size(), 1);
+            SplittableRandom random = new SplittableRandom(seed);
+            long a = n == 1 ? 1 : 1 + random.nextLong(n - 1);
+            while (gcd(a, n) != 1) {
+                a = a % (n - 1) + 1;
+            }
+            this.multiplier = a;
+            this.offset = random.nextLong(n);
+        }
+
+        private static long gcd(long a, long b) {
+            while (b != 0) {
+                long t = a % b;
+                a = b;
+                b = t;
+            }
+            return a;
+        }
+
+        @Override
+        public String nextTarget() {
+            return targetOn(LocalDate.now(clock));
+        }
+
+        /**
+         * Returns the equation of a day.
+         *
+         * @param date The day.
+         * @return Its equation.
+         * @throws IllegalStateException If there are no equations.
+         */
+        public String targetOn(LocalDate date) {
+            int n = equations.size();
+            if (n == 0) {
+                throw new IllegalStateException("No equations to choose a target from");
+            }
+            // Both factors are below n, so the product cannot overflow.
+            long day = Math.floorMod(date.toEpochDay(), (long) n);
+            return equations.get((int) ((multiplier * day + offset) % n));
+        }
+
+        @Override
+        public String toString() {
+            return "daily";
+        }
+    }
+}
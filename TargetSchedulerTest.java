@@ -0,0 +1,147 @@
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.*;
+
+public class TargetSchedulerTest {
+    private static final List<String> EQUATIONS = List.of(
+            "2+3*2=8", "4-1*3=1", "9-3*2=3", "1+1+1=3", "8/2+1=5", "6*2-3=9", "7+2-4=5");
+
+    /**
+     * Deals several rounds from a shuffle bag.
+     *
+     * @pre The bag holds 7 equations.
+     * @post Every round of 7 targets holds each equation once, and no target follows itself.
+     */
+    @Test
+    public void testShuffleBag() {
+        TargetScheduler bag = new TargetScheduler.ShuffleBag(EQUATIONS, new SplittableRandom(3));
+        String previous = null;
+        for (int round = 0; round < 50; round++) {
+            Set<String> dealt = new HashSet<>();
+            for (int i = 0; i < EQUATIONS.size(); i++) {
+                String target = bag.nextTarget();
+                assertTrue(dealt.add(target));
+                assertNotSame(previous, target);
+                previous = target;
+            }
+            assertEquals(new HashSet<>(EQUATIONS), dealt);
+        }
+    }
+
+    /**
+     * Draws random targets, seeded and unseeded, from many threads.
+     *
+     * @pre Two schedulers with the same seed; the first is drawn by one thread, the second
+     *      by 8 threads at once. A third scheduler has no seed.
+     * @post Both seeded schedulers draw each equation equally often, a different seed draws
+     *       a different sequence, and every scheduler draws each equation of its list.
+     */
+    @Test
+    public void testRandomTargets() throws Exception {
+        TargetScheduler first = new TargetScheduler.RandomTargets(EQUATIONS, 11);
+        List<String> sequence = new ArrayList<>();
+        Map<String, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 800; i++) {
+            sequence.add(first.nextTarget());
+            expected.merge(sequence.get(i), 1, Integer::sum);
+        }
+        assertEquals(new HashSet<>(EQUATIONS), expected.keySet());
+
+        TargetScheduler second = new TargetScheduler.RandomTargets(EQUATIONS, 11);
+        Map<String, Integer> drawn = new ConcurrentHashMap<>();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 100; i++) {
+                    drawn.merge(second.nextTarget(), 1, Integer::sum);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(expected, drawn);
+
+        TargetScheduler other = new TargetScheduler.RandomTargets(EQUATIONS, 12);
+        List<String> otherSequence = new ArrayList<>();
+        for (int i = 0; i < sequence.size(); i++) {
+            otherSequence.add(other.nextTarget());
+        }
+        assertFalse(sequence.equals(otherSequence));
+
+        TargetScheduler unseeded = new TargetScheduler.RandomTargets(EQUATIONS);
+        Set<String> unseededDrawn = new HashSet<>();
+        for (int i = 0; i < 200; i++) {
+            unseededDrawn.add(unseeded.nextTarget());
+        }
+        assertEquals(new HashSet<>(EQUATIONS), unseededDrawn);
+    }
+
+    /**
+     * Chooses the equations of consecutive days.
+     *
+     * @pre Two schedulers with the same seed, one reading a fixed clock.
+     * @post Both agree, the clock's day decides the target, and 7 consecutive days cover all
+     *       7 equations.
+     */
+    @Test
+    public void testDailyTarget() {
+        LocalDate today = LocalDate.of(2024, 3, 1);
+        Clock clock = Clock.fixed(Instant.parse("2024-03-01T12:00:00Z"), ZoneOffset.UTC);
+        TargetScheduler.DailyTarget daily = new TargetScheduler.DailyTarget(EQUATIONS, 42, clock);
+        TargetScheduler.DailyTarget other = new TargetScheduler.DailyTarget(EQUATIONS, 42, Clock.systemUTC());
+
+        assertEquals(daily.targetOn(today), daily.nextTarget());
+        assertEquals(daily.nextTarget(), daily.nextTarget());
+        Set<String> week = new HashSet<>();
+        for (int day = 0; day < EQUATIONS.size(); day++) {
+            LocalDate date = today.plusDays(day);
+            assertEquals(daily.targetOn(date), other.targetOn(date));
+            week.add(daily.targetOn(date));
+        }
+        assertEquals(EQUATIONS.size(), week.size());
+    }
+
+    /**
+     * Toggles a model between its fixed equation and a scheduler.
+     *
+     * @pre The model draws its targets from a shuffle bag.
+     * @post The fixed mode always plays the fixed equation, and switching back deals from the bag.
+     */
+    @Test
+    public void testModelModes() {
+        NumberleModel model = new NumberleModel(EquationDictionary.of(EQUATIONS), new GameMetrics(false));
+        model.setLogger(GameLogger.NONE);
+        model.setTargetScheduler(new TargetScheduler.ShuffleBag(EQUATIONS, new SplittableRandom(5)));
+        assertTrue(model.isRandomEquationMode());
+
+        model.toggleRandomEquationMode();
+        assertFalse(model.isRandomEquationMode());
+        assertEquals("2*3+2=8", model.getTargetNumber());
+        model.startNewGame();
+        assertEquals("2*3+2=8", model.getTargetNumber());
+
+        model.toggleRandomEquationMode();
+        Set<String> targets = new HashSet<>();
+        targets.add(model.getTargetNumber());
+        for (int i = 1; i < EQUATIONS.size(); i++) {
+            model.startNewGame();
+            targets.add(model.getTargetNumber());
+        }
+        assertEquals(EQUATIONS.size(), targets.size());
+    }
+}
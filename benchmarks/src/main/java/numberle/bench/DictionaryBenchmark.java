@@ -0,0 +1,81 @@
+package numberle.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading the equation dictionary from text and compiled files, and indexing it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DictionaryBenchmark {
+    /** BinaryDictionary.FLAG_VALUES | BinaryDictionary.FLAG_FEATURES */
+    private static final int ALL_COLUMNS = 3;
+
+    @Param({"1000", "10000", "86230"})
+    public int dictionarySize;
+
+    private List<String> equations;
+    private Path directory;
+    private String textFile;
+    private String compiledFile;
+    private String missingFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        equations = Equations.sample(dictionarySize);
+        directory = Files.createTempDirectory("numberle-bench");
+        Path text = directory.resolve("equations.txt");
+        Path compiled = directory.resolve("equations.bin");
+        Files.write(text, equations);
+        Numberle.writeBinaryDictionary(equations, compiled, ALL_COLUMNS);
+        // Make sure the compiled file counts as up to date.
+        Files.setLastModifiedTime(compiled, Files.getLastModifiedTime(text));
+        textFile = text.toString();
+        compiledFile = compiled.toString();
+        missingFile = directory.resolve("missing.bin").toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(Path.of(textFile));
+        Files.deleteIfExists(Path.of(compiledFile));
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public Object loadText() {
+        return Numberle.loadDictionary(textFile, missingFile);
+    }
+
+    @Benchmark
+    public Object loadCompiled() {
+        return Numberle.loadDictionary(textFile, compiledFile);
+    }
+
+    @Benchmark
+    public Object buildIndex() {
+        return Numberle.dictionaryIndex(Numberle.dictionaryOf(equations));
+    }
+}
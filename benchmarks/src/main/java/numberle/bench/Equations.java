@@ -0,0 +1,66 @@
+package numberle.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmark inputs drawn from the full space of 7-symbol equations.
+ */
+final class Equations {
+    /** Number of valid 7-symbol equations. */
+    static final int ALL = 86230;
+
+    private static List<String> all;
+
+    private Equations() {
+    }
+
+    /**
+     * Returns every valid 7-symbol equation, generated once per JVM.
+     */
+    static synchronized List<String> all() {
+        if (all == null) {
+            all = Numberle.generateAll(7);
+        }
+        return all;
+    }
+
+    /**
+     * Returns an evenly spaced sample of the equations, so that every size covers the whole
+     * symbol range rather than only equations starting with 0.
+     *
+     * @param size The number of equations, at most {@link #ALL}.
+     */
+    static List<String> sample(int size) {
+        List<String> equations = all();
+        if (size >= equations.size()) {
+            return equations;
+        }
+        List<String> sample = new ArrayList<>(size);
+        double step = (double) equations.size() / size;
+        for (int i = 0; i < size; i++) {
+            sample.add(equations.get((int) (i * step)));
+        }
+        return sample;
+    }
+
+    /**
+     * Returns guesses as a player would type them: valid equations mixed with ones whose
+     * sides differ, which pass the syntax checks but fail the evaluation.
+     *
+     * @param size The number of guesses, a power of two.
+     */
+    static String[] guesses(int size) {
+        List<String> equations = sample(size);
+        String[] guesses = new String[size];
+        for (int i = 0; i < size; i++) {
+            String equation = equations.get(i);
+            if (i % 2 == 1) {
+                char last = equation.charAt(equation.length() - 1);
+                equation = equation.substring(0, equation.length() - 1) + (char) ('0' + (last - '0' + 1) % 10);
+            }
+            guesses[i] = equation;
+        }
+        return guesses;
+    }
+}
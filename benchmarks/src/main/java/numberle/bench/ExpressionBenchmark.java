@@ -0,0 +1,73 @@
+package numberle.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Guess validation: the checks run on every submitted guess.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ExpressionBenchmark {
+    private static final int INPUTS = 1024;
+
+    private Object model;
+    private Object evaluator;
+    private String[] guesses;
+    private int[] equalsPositions;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        model = Numberle.newModel(Numberle.dictionaryOf(Equations.sample(INPUTS)));
+        evaluator = Numberle.newEvaluator();
+        guesses = Equations.guesses(INPUTS);
+        equalsPositions = new int[INPUTS];
+        for (int i = 0; i < INPUTS; i++) {
+            equalsPositions[i] = guesses[i].indexOf('=');
+        }
+    }
+
+    private String nextGuess() {
+        return guesses[next++ & (INPUTS - 1)];
+    }
+
+    @Benchmark
+    public boolean compareExpressions() {
+        return Numberle.compareExpressions(model, nextGuess());
+    }
+
+    /**
+     * Evaluates the left side of one guess; ExpressionEvaluator replaced the model's
+     * calculateExpression.
+     */
+    @Benchmark
+    public Object calculateExpression() {
+        int i = next++ & (INPUTS - 1);
+        return Numberle.evaluate(evaluator, guesses[i], 0, equalsPositions[i]);
+    }
+
+    @Benchmark
+    public boolean isMathExpression() {
+        return Numberle.isMathExpression(model, nextGuess());
+    }
+
+    @Benchmark
+    public boolean isConsecutiveOperators() {
+        return Numberle.isConsecutiveOperators(model, nextGuess());
+    }
+}
@@ -0,0 +1,65 @@
+package numberle.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Color;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scoring a guess against the target, in the forms the grid, the keyboard and the solver use.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FeedbackBenchmark {
+    private static final int PAIRS = 1024;
+
+    private Object model;
+    private String[] targets;
+    private String[] guesses;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        List<String> equations = Equations.sample(PAIRS * 2);
+        model = Numberle.newModel(Numberle.dictionaryOf(equations));
+        targets = new String[PAIRS];
+        guesses = new String[PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            targets[i] = equations.get(i);
+            guesses[i] = equations.get(equations.size() - 1 - i);
+        }
+    }
+
+    @Benchmark
+    public Color[] getColor() {
+        int i = next++ & (PAIRS - 1);
+        return Numberle.getColor(model, targets[i], guesses[i]);
+    }
+
+    @Benchmark
+    public Map<Character, String> getOperatorColor() {
+        int i = next++ & (PAIRS - 1);
+        return Numberle.getOperatorColor(model, targets[i], guesses[i]);
+    }
+
+    @Benchmark
+    public int getFeedbackCode() {
+        int i = next++ & (PAIRS - 1);
+        return Numberle.getFeedbackCode(model, targets[i], guesses[i]);
+    }
+}
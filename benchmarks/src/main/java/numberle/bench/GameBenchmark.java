@@ -0,0 +1,63 @@
+package numberle.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Complete games played against the model, from the first guess to the end of the game.
+ *
+ * The "candidate" strategy always guesses the first equation that still fits the feedback
+ * and measures the per-guess bookkeeping; "hint" plays the model's own hints and adds the
+ * cost of the solver.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class GameBenchmark {
+
+    @Param({"1000", "10000", "86230"})
+    public int dictionarySize;
+
+    @Param({"candidate", "hint"})
+    public String strategy;
+
+    private Object model;
+    private boolean useHints;
+
+    @Setup
+    public void setUp() {
+        model = Numberle.newModel(Numberle.dictionaryOf(Equations.sample(dictionarySize)));
+        useHints = strategy.equals("hint");
+    }
+
+    /**
+     * Plays one game.
+     *
+     * @return The number of guesses made.
+     */
+    @Benchmark
+    public int playGame() {
+        Numberle.startNewGame(model);
+        int guesses = 0;
+        while (!Numberle.isGameOver(model)) {
+            String guess = useHints ? Numberle.getHint(model) : Numberle.getRemainingCandidates(model).get(0);
+            Numberle.processInput(model, guess);
+            guesses++;
+        }
+        return guesses;
+    }
+}
@@ -0,0 +1,304 @@
+package numberle.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Typed access to the game classes, which live in the default package and therefore cannot
+ * be imported from a named package such as this one.
+ *
+ * Every entry point is resolved once into a {@code static final} {@link MethodHandle} with
+ * its receiver and results erased to {@code Object}. The JIT treats such handles as
+ * constants and inlines through them, so a benchmark measures the game code and not the
+ * lookup.
+ */
+public final class Numberle {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+
+    private static final Class<?> MODEL = type("NumberleModel");
+    private static final Class<?> DICTIONARY = type("EquationDictionary");
+    private static final Class<?> EVALUATOR = type("ExpressionEvaluator");
+    private static final Class<?> METRICS = type("GameMetrics");
+    private static final Class<?> LOGGER = type("GameLogger");
+
+    private static final MethodHandle NEW_MODEL = constructor(MODEL, DICTIONARY, METRICS);
+    private static final MethodHandle NEW_METRICS = constructor(METRICS, boolean.class);
+    private static final MethodHandle SET_LOGGER = method(MODEL, "setLogger", void.class, LOGGER);
+    private static final Object NO_LOGGER = staticField(LOGGER, "NONE");
+    private static final MethodHandle NEW_EVALUATOR = constructor(EVALUATOR);
+    private static final MethodHandle DICTIONARY_OF = staticMethod(DICTIONARY, "of", DICTIONARY, List.class);
+    private static final MethodHandle DICTIONARY_LOAD = staticMethod(DICTIONARY, "load", DICTIONARY,
+            String.class, String.class);
+    private static final MethodHandle DICTIONARY_INDEX = method(DICTIONARY, "getIndex", type("PositionalIndex"));
+    private static final MethodHandle GENERATE_ALL = method(type("EquationGenerator"), "generateAll", List.class);
+    private static final MethodHandle NEW_GENERATOR = constructor(type("EquationGenerator"), int.class);
+    private static final MethodHandle WRITE_BINARY = staticMethod(type("BinaryDictionary"), "write", void.class,
+            List.class, java.nio.file.Path.class, int.class);
+
+    private static final MethodHandle COMPARE_EXPRESSIONS = method(MODEL, "compareExpressions", boolean.class, String.class);
+    private static final MethodHandle IS_MATH_EXPRESSION = method(MODEL, "isMathExpression", boolean.class, String.class);
+    private static final MethodHandle IS_CONSECUTIVE_OPERATORS = method(MODEL, "isConsecutiveOperators", boolean.class,
+            String.class);
+    private static final MethodHandle GET_COLOR = method(MODEL, "getColor", java.awt.Color[].class,
+            String.class, String.class);
+    private static final MethodHandle GET_OPERATOR_COLOR = method(MODEL, "getOperatorColor", Map.class,
+            String.class, String.class);
+    private static final MethodHandle GET_FEEDBACK_CODE = method(MODEL, "getFeedbackCode", int.class,
+            String.class, String.class);
+    private static final MethodHandle START_NEW_GAME = method(MODEL, "startNewGame", void.class);
+    private static final MethodHandle PROCESS_INPUT = method(MODEL, "processInput", boolean.class, String.class);
+    private static final MethodHandle IS_GAME_OVER = method(MODEL, "isGameOver", boolean.class);
+    private static final MethodHandle GET_HINT = method(MODEL, "getHint", String.class);
+    private static final MethodHandle GET_REMAINING_CANDIDATES = method(MODEL, "getRemainingCandidates", List.class);
+
+    private static final MethodHandle EVALUATE = method(EVALUATOR, "evaluate", type("ExpressionEvaluator$Result"),
+            CharSequence.class, int.class, int.class);
+
+    private Numberle() {
+    }
+
+    /**
+     * Creates a model that, like the models of GameSimulator, neither logs nor records
+     * metrics, so a benchmark measures the game and not the shared logger and registry.
+     */
+    public static Object newModel(Object dictionary) {
+        try {
+            Object model = NEW_MODEL.invokeExact(dictionary, NEW_METRICS.invokeExact(false));
+            SET_LOGGER.invokeExact(model, NO_LOGGER);
+            return model;
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    public static Object newEvaluator() {
+        try {
+            return NEW_EVALUATOR.invokeExact();
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    public static Object dictionaryOf(List<String> equations) {
+        try {
+            return DICTIONARY_OF.invokeExact(equations);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    public static Object loadDictionary(String textFile, String compiledFile) {
+        try {
+            return DICTIONARY_LOAD.invokeExact(textFile, compiledFile);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    public static Object dictionaryIndex(Object dictionary) {
+        try {
+            return DICTIONARY_INDEX.invokeExact(dictionary);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public static List<String> generateAll(int length) {
+        try {
+            Object generator = NEW_GENERATOR.invokeExact(length);
+            return (List<String>) GENERATE_ALL.invokeExact(generator);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    public static void writeBinaryDictionary(List<String> equations, java.nio.file.Path path, int flags) {
+        try {
+            WRITE_BINARY.invokeExact(equations, path, flags);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    public static boolean compareExpressions(Object model, String expression) {
+        try {
+            return (boolean) COMPARE_EXPRESSIONS.invokeExact(model, expression);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    public static boolean isMathExpression(Object model, String input) {
+        try {
+            return (boolean) IS_MATH_EXPRESSION.invokeExact(model, input);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    public static boolean isConsecutiveOperators(Object model, String input) {
+        try {
+            return (boolean) IS_CONSECUTIVE_OPERATORS.invokeExact(model, input);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    public static java.awt.Color[] getColor(Object model, String target, String guess) {
+        try {
+            return (java.awt.Color[]) GET_COLOR.invokeExact(model, target, guess);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Map<Character, String> getOperatorColor(Object model, String target, String guess) {
+        try {
+            return (Map<Character, String>) GET_OPERATOR_COLOR.invokeExact(model, target, guess);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    public static int getFeedbackCode(Object model, String target, String guess) {
+        try {
+            return (int) GET_FEEDBACK_CODE.invokeExact(model, target, guess);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    public static void startNewGame(Object model) {
+        try {
+            START_NEW_GAME.invokeExact(model);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    public static boolean processInput(Object model, String input) {
+        try {
+            return (boolean) PROCESS_INPUT.invokeExact(model, input);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    public static boolean isGameOver(Object model) {
+        try {
+            return (boolean) IS_GAME_OVER.invokeExact(model);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    public static String getHint(Object model) {
+        try {
+            return (String) GET_HINT.invokeExact(model);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public static List<String> getRemainingCandidates(Object model) {
+        try {
+            return (List<String>) GET_REMAINING_CANDIDATES.invokeExact(model);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * Evaluates part of an expression, the replacement of the model's former
+     * calculateExpression.
+     *
+     * @return The ExpressionEvaluator.Result constant.
+     */
+    public static Object evaluate(Object evaluator, CharSequence expression, int start, int end) {
+        try {
+            return EVALUATE.invokeExact(evaluator, expression, start, end);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    private static Class<?> type(String name) {
+        try {
+            return Class.forName(name, true, Numberle.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static Object staticField(Class<?> owner, String name) {
+        try {
+            return owner.getField(name).get(null);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MethodHandle constructor(Class<?> owner, Class<?>... parameters) {
+        try {
+            MethodHandle handle = LOOKUP.findConstructor(owner, MethodType.methodType(void.class, parameters));
+            return handle.asType(erase(handle.type()));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MethodHandle staticMethod(Class<?> owner, String name, Class<?> result, Class<?>... parameters) {
+        try {
+            MethodHandle handle = LOOKUP.findStatic(owner, name, MethodType.methodType(result, parameters));
+            return handle.asType(erase(handle.type()));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MethodHandle method(Class<?> owner, String name, Class<?> result, Class<?>... parameters) {
+        try {
+            MethodHandle handle = LOOKUP.findVirtual(owner, name, MethodType.methodType(result, parameters));
+            return handle.asType(erase(handle.type()));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Replaces the game types in a method type by Object, keeping JDK types and primitives.
+     */
+    private static MethodType erase(MethodType type) {
+        MethodType erased = type;
+        for (int i = 0; i < type.parameterCount(); i++) {
+            if (isGameType(type.parameterType(i))) {
+                erased = erased.changeParameterType(i, Object.class);
+            }
+        }
+        return isGameType(type.returnType()) ? erased.changeReturnType(Object.class) : erased;
+    }
+
+    private static boolean isGameType(Class<?> type) {
+        Class<?> component = type;
+        while (component.isArray()) {
+            component = component.getComponentType();
+        }
+        return !component.isPrimitive() && component.getPackageName().isEmpty();
+    }
+
+    private static RuntimeException rethrow(Throwable t) {
+        if (t instanceof RuntimeException) {
+            return (RuntimeException) t;
+        }
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+        return new IllegalStateException(t);
+    }
+}